@@ -0,0 +1,123 @@
+package Cloture;
+
+import java.util.Random;
+
+/**
+ * Generates convex maps holding a single parcel, for the benchmarks
+ *
+ * <p>Every row of the parcel is a single span, whose ends move by up to the border complexity
+ * from one row to the next, so that the exterior never enters the parcel. The lakes are carved
+ * inside the parcel, away from its border.
+ */
+final class MapGenerator {
+
+    // the map's width and height
+    private final int width;
+    private final int height;
+
+    // the share of the map covered by the parcel's bounding box, from 0 to 1
+    private final double fillRatio;
+
+    // the number of lakes carved inside the parcel
+    private final int holeCount;
+
+    // the most the ends of a row can move from the ends of the row above
+    private final int borderComplexity;
+
+    // the random generator of the maps
+    private final Random random;
+
+    /**
+     * Class constructor
+     * @param width the map's width
+     * @param height the map's height
+     * @param fillRatio the share of the map covered by the parcel's bounding box, from 0 to 1
+     * @param holeCount the number of lakes carved inside the parcel
+     * @param borderComplexity the most the ends of a row can move from the ends of the row above
+     * @param seed the seed of the random generator, so that runs can be compared
+     */
+    MapGenerator(int width, int height, double fillRatio, int holeCount, int borderComplexity, long seed) {
+        this.width = width;
+        this.height = height;
+        this.fillRatio = fillRatio;
+        this.holeCount = holeCount;
+        this.borderComplexity = borderComplexity;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Generates the next map
+     * @return a map with 1 for every used tile
+     */
+    int[][] next() {
+        final int[][] MAP = new int[height][width];
+
+        // region parcel
+
+        // the rows of the parcel, centered in the map
+        final double SIDE_RATIO = Math.sqrt(Math.max(0, Math.min(1, fillRatio)));
+        final int PARCEL_HEIGHT = Math.max(1, (int) Math.round(height * SIDE_RATIO));
+        final int TOP = (height - PARCEL_HEIGHT) / 2;
+
+        // the first (inclusive) and last (exclusive) used tiles of every row
+        final int[] LEFT = new int[height];
+        final int[] RIGHT = new int[height];
+
+        // the ends of the first row, centered in the map
+        int parcelWidth = Math.max(1, (int) Math.round(width * SIDE_RATIO));
+        int left = (width - parcelWidth) / 2;
+        int right = left + parcelWidth;
+
+        for (int y = TOP; y < TOP + PARCEL_HEIGHT; y++) {
+            // moves the ends of the row
+            if (y != TOP) {
+                left = Math.max(0, Math.min(left + step(), right - 1));
+                right = Math.min(width, Math.max(right + step(), left + 1));
+            }
+
+            // keeps the row touching the row above, so that the parcel stays in a single piece
+            if (y != TOP) {
+                left = Math.min(left, RIGHT[y - 1] - 1);
+                right = Math.max(right, LEFT[y - 1] + 1);
+            }
+
+            LEFT[y] = left;
+            RIGHT[y] = right;
+            for (int x = left; x < right; x++) {
+                MAP[y][x] = 1;
+            }
+        }
+
+        // endregion
+
+        // region lakes
+
+        for (int hole = 0; hole < holeCount && PARCEL_HEIGHT > 2; hole++) {
+            // the top left corner and size of the lake
+            final int HOLE_Y = TOP + 1 + random.nextInt(PARCEL_HEIGHT - 2);
+            final int HOLE_SIZE = 1 + random.nextInt(3);
+            final int HOLE_X = LEFT[HOLE_Y] + random.nextInt(RIGHT[HOLE_Y] - LEFT[HOLE_Y]);
+
+            for (int y = HOLE_Y; y < Math.min(HOLE_Y + HOLE_SIZE, TOP + PARCEL_HEIGHT - 1); y++) {
+                // the tiles of the row whose four neighbours are all inside the parcel
+                final int FROM_X = Math.max(LEFT[y - 1], Math.max(LEFT[y], LEFT[y + 1])) + 1;
+                final int TO_X = Math.min(RIGHT[y - 1], Math.min(RIGHT[y], RIGHT[y + 1])) - 1;
+
+                for (int x = Math.max(HOLE_X, FROM_X); x < Math.min(HOLE_X + HOLE_SIZE, TO_X); x++) {
+                    MAP[y][x] = 0;
+                }
+            }
+        }
+
+        // endregion
+
+        return MAP;
+    }
+
+    // region helper methods
+    private int step() {
+        // moves an end of a row by up to the border complexity, either way
+        return random.nextInt(2 * borderComplexity + 1) - borderComplexity;
+    }
+    // endregion
+}
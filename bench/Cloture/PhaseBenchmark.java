@@ -0,0 +1,194 @@
+package Cloture;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Benchmarks each phase of an edge map on its own, then the whole analysis from the construction
+ * of the edge map, over generated maps and over the sample maps of {@code Main}
+ *
+ * <p>Each phase is run over edge maps whose earlier layers are already detected, so that only
+ * the phase itself is timed. Every phase reports its throughput, the percentiles of its latency
+ * and the number of bytes it allocates per operation.
+ *
+ * <p>Options, all optional, are given as {@code --name=value}: {@code width}, {@code height},
+ * {@code fill} (the share of the map covered by the parcel), {@code holes}, {@code complexity}
+ * (the most the border moves from one row to the next), {@code maps} (the number of generated
+ * maps), {@code seed}, {@code warmup} and {@code iterations} (the number of operations per phase).
+ */
+public final class PhaseBenchmark {
+
+    // the phases of an edge map, run over edge maps whose earlier layers are already detected
+    private static final String[] PHASES = {"detectZones", "detectOuterEdges", "fillMap", "getFenceCount", "endToEnd"};
+
+    // the values of the results, so that the timed work can't be optimised away
+    private static double sink;
+
+    /**
+     * A single operation of a phase
+     */
+    private interface Operation {
+
+        /**
+         * Runs the phase over a map
+         * @param map the index of the map
+         * @return the result of the phase, if any
+         */
+        double run(int map);
+    }
+
+    private PhaseBenchmark() {}
+
+    public static void main(String[] args) {
+        // reads the options
+        final Map<String, String> OPTIONS = parseOptions(args);
+        final int WIDTH = Integer.parseInt(OPTIONS.getOrDefault("width", "1000"));
+        final int HEIGHT = Integer.parseInt(OPTIONS.getOrDefault("height", "1000"));
+        final double FILL = Double.parseDouble(OPTIONS.getOrDefault("fill", "0.6"));
+        final int HOLES = Integer.parseInt(OPTIONS.getOrDefault("holes", "20"));
+        final int COMPLEXITY = Integer.parseInt(OPTIONS.getOrDefault("complexity", "2"));
+        final int MAP_COUNT = Integer.parseInt(OPTIONS.getOrDefault("maps", "8"));
+        final long SEED = Long.parseLong(OPTIONS.getOrDefault("seed", "1"));
+        final int WARMUP = Integer.parseInt(OPTIONS.getOrDefault("warmup", "200"));
+        final int ITERATIONS = Integer.parseInt(OPTIONS.getOrDefault("iterations", "1000"));
+
+        // generates the maps
+        final MapGenerator GENERATOR = new MapGenerator(WIDTH, HEIGHT, FILL, HOLES, COMPLEXITY, SEED);
+        final List<int[][]> GENERATED = new ArrayList<>();
+        for (int i = 0; i < MAP_COUNT; i++) {
+            GENERATED.add(GENERATOR.next());
+        }
+
+        System.out.printf("generated maps: %s x %s, fill %s, %s holes, complexity %s, %s maps%n",
+                WIDTH, HEIGHT, FILL, HOLES, COMPLEXITY, MAP_COUNT);
+        printHeader();
+        for (String phase : PHASES) {
+            run(phase, GENERATED, WARMUP, ITERATIONS);
+        }
+
+        // only the sample maps the edge map accepts can be benchmarked
+        final List<int[][]> SAMPLES = new ArrayList<>();
+        for (int[][] sample : SampleMaps.all()) {
+            try {
+                new EdgeMap(sample).getFencePerimeter();
+                SAMPLES.add(sample);
+            } catch (IllegalArgumentException e) {
+                System.out.printf("skipping a sample map: %s%n", e.getMessage());
+            }
+        }
+
+        System.out.printf("%nsample maps: %s maps%n", SAMPLES.size());
+        printHeader();
+        for (String phase : PHASES) {
+            run(phase, SAMPLES, WARMUP * 10, ITERATIONS * 10);
+        }
+
+        System.out.printf("%n(%s)%n", sink);
+    }
+
+    // =========================================
+    //                  PHASES
+    // =========================================
+
+    /**
+     * Benchmarks a phase over some maps, one map after the other
+     * @param phase the name of the phase
+     * @param maps the maps to run the phase over
+     * @param warmup the number of operations run before measuring
+     * @param iterations the number of operations measured
+     */
+    private static void run(String phase, List<int[][]> maps, int warmup, int iterations) {
+        // if there is no map...
+        if (maps.isEmpty()) {
+            // ...there is nothing to measure
+            return;
+        }
+
+        // prepares an edge map per map, along with the layers the phase needs
+        final EdgeMap[] EDGE_MAPS = new EdgeMap[maps.size()];
+        for (int i = 0; i < EDGE_MAPS.length; i++) {
+            EDGE_MAPS[i] = new EdgeMap(maps.get(i));
+            prepare(phase, EDGE_MAPS[i]);
+        }
+
+        // the operation of the phase
+        final Operation OPERATION = operation(phase, maps, EDGE_MAPS);
+
+        // warms up the phase
+        for (int i = 0; i < warmup; i++) {
+            sink += OPERATION.run(i % EDGE_MAPS.length);
+        }
+
+        // measures every operation
+        final long[] LATENCIES = new long[iterations];
+        final long ALLOCATED_BEFORE = allocatedBytes();
+        final long START = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            long operationStart = System.nanoTime();
+            sink += OPERATION.run(i % EDGE_MAPS.length);
+            LATENCIES[i] = System.nanoTime() - operationStart;
+        }
+        final long ELAPSED = System.nanoTime() - START;
+        final long ALLOCATED = allocatedBytes() - ALLOCATED_BEFORE;
+
+        // reports the results
+        Arrays.sort(LATENCIES);
+        System.out.printf("%-18s %12.1f %10.1f %10.1f %10.1f %10.1f %14d%n", phase,
+                iterations * 1e9 / ELAPSED,
+                percentile(LATENCIES, 0.50) / 1e3, percentile(LATENCIES, 0.90) / 1e3,
+                percentile(LATENCIES, 0.99) / 1e3, LATENCIES[iterations - 1] / 1e3,
+                ALLOCATED / iterations);
+    }
+
+    // region helper methods
+    private static void prepare(String phase, EdgeMap edgeMap) {
+        // detects the layers the phase is run over
+        switch (phase) {
+            case "detectOuterEdges": edgeMap.getOuterTiles(); break;
+            case "fillMap": edgeMap.getOuterEdges(); break;
+            case "getFenceCount": edgeMap.getFilledMap(); break;
+            default: break;
+        }
+    }
+    private static Operation operation(String phase, List<int[][]> maps, EdgeMap[] edgeMaps) {
+        // runs the phase again over an edge map, every phase detecting its layer again when asked to
+        switch (phase) {
+            case "detectZones": return i -> { edgeMaps[i].detectZones(); return 0; };
+            case "detectOuterEdges": return i -> { edgeMaps[i].detectOuterEdges(); return 0; };
+            case "fillMap": return i -> { edgeMaps[i].fillMap(); return 0; };
+            case "getFenceCount": return i -> edgeMaps[i].getFenceCount();
+            default: return i -> new EdgeMap(maps.get(i)).getFencePerimeter();
+        }
+    }
+    private static long allocatedBytes() {
+        // the bytes allocated by the current thread so far, -1 if the virtual machine doesn't track them
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+    private static long percentile(long[] sortedLatencies, double percentile) {
+        return sortedLatencies[(int) Math.min(sortedLatencies.length - 1, sortedLatencies.length * percentile)];
+    }
+    private static void printHeader() {
+        System.out.printf("%-18s %12s %10s %10s %10s %10s %14s%n",
+                "phase", "ops/s", "p50 (us)", "p90 (us)", "p99 (us)", "max (us)", "bytes/op");
+    }
+    private static Map<String, String> parseOptions(String[] args) {
+        // reads every --name=value option
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException(String.format("Option %s is not of the form --name=value", arg));
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return options;
+    }
+    // endregion
+}
@@ -0,0 +1,48 @@
+package Cloture;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmarks the phases of an edge map over generated square maps, every combination of the
+ * parameters being benchmarked unless some of them are given with {@code -p name=values}
+ */
+@State(Scope.Benchmark)
+public class GeneratedMapsJmhBenchmark extends PhaseJmhBenchmark {
+
+    // the number of maps generated for each combination of the parameters
+    private static final int MAP_COUNT = 8;
+
+    // the seed of the generated maps, so that runs can be compared
+    private static final long SEED = 1;
+
+    // the width and height of the maps
+    @Param({"250", "1000"})
+    public int size;
+
+    // the share of the map covered by the parcel
+    @Param({"0.3", "0.9"})
+    public double fill;
+
+    // the number of lakes carved inside the parcel
+    @Param({"0", "20"})
+    public int holes;
+
+    // the most the border of the parcel moves from one row to the next
+    @Param({"0", "8"})
+    public int complexity;
+
+    @Override
+    List<int[][]> maps() {
+        final MapGenerator GENERATOR = new MapGenerator(size, size, fill, holes, complexity, SEED);
+        final List<int[][]> MAPS = new ArrayList<>();
+        for (int i = 0; i < MAP_COUNT; i++) {
+            MAPS.add(GENERATOR.next());
+        }
+        return MAPS;
+    }
+}
@@ -0,0 +1,115 @@
+package Cloture;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks each phase of an edge map on its own with JMH, then the whole analysis from the
+ * construction of the edge map, the maps being given by the subclasses
+ *
+ * <p>Each phase is run over edge maps whose earlier layers are already detected, so that only the
+ * phase itself is timed, one map after the other. Every phase is measured both as a throughput and
+ * as sampled latencies, of which JMH reports the percentiles; the allocation rate is reported when
+ * the benchmarks are run with the GC profiler ({@code -prof gc}), as the build does by default.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class PhaseJmhBenchmark {
+
+    // the benchmarked maps
+    private List<int[][]> maps;
+
+    // an edge map per map and per phase, along with the layers the phase needs
+    private EdgeMap[] zoneEdgeMaps;
+    private EdgeMap[] outerEdgeMaps;
+    private EdgeMap[] fillEdgeMaps;
+    private EdgeMap[] fenceEdgeMaps;
+
+    // the index of the next map to run a phase over
+    private int next;
+
+    /**
+     * Gets the maps to benchmark, every one of them being accepted by the edge map
+     * @return the maps
+     */
+    abstract List<int[][]> maps();
+
+    /**
+     * Prepares the edge maps of every phase
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        maps = maps();
+
+        zoneEdgeMaps = new EdgeMap[maps.size()];
+        outerEdgeMaps = new EdgeMap[maps.size()];
+        fillEdgeMaps = new EdgeMap[maps.size()];
+        fenceEdgeMaps = new EdgeMap[maps.size()];
+        for (int i = 0; i < maps.size(); i++) {
+            zoneEdgeMaps[i] = new EdgeMap(maps.get(i));
+            outerEdgeMaps[i] = new EdgeMap(maps.get(i));
+            outerEdgeMaps[i].getOuterTiles();
+            fillEdgeMaps[i] = new EdgeMap(maps.get(i));
+            fillEdgeMaps[i].getOuterEdges();
+            fenceEdgeMaps[i] = new EdgeMap(maps.get(i));
+            fenceEdgeMaps[i].getFilledMap();
+        }
+    }
+
+    // =========================================
+    //                  PHASES
+    // =========================================
+
+    @Benchmark
+    public EdgeMap detectZones() {
+        final EdgeMap EDGE_MAP = zoneEdgeMaps[nextMap()];
+        EDGE_MAP.detectZones();
+        return EDGE_MAP;
+    }
+
+    @Benchmark
+    public EdgeMap detectOuterEdges() {
+        final EdgeMap EDGE_MAP = outerEdgeMaps[nextMap()];
+        EDGE_MAP.detectOuterEdges();
+        return EDGE_MAP;
+    }
+
+    @Benchmark
+    public EdgeMap fillMap() {
+        final EdgeMap EDGE_MAP = fillEdgeMaps[nextMap()];
+        EDGE_MAP.fillMap();
+        return EDGE_MAP;
+    }
+
+    @Benchmark
+    public double getFenceCount() {
+        return fenceEdgeMaps[nextMap()].getFenceCount();
+    }
+
+    @Benchmark
+    public double endToEnd() {
+        return new EdgeMap(maps.get(nextMap())).getFencePerimeter();
+    }
+
+    // region helper methods
+    private int nextMap() {
+        // goes through the maps one after the other
+        final int MAP = next;
+        next = (next + 1 == maps.size()) ? 0 : next + 1;
+        return MAP;
+    }
+    // endregion
+}
@@ -0,0 +1,29 @@
+package Cloture;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmarks the phases of an edge map over the sample maps of {@code Main}
+ */
+@State(Scope.Benchmark)
+public class SampleMapsJmhBenchmark extends PhaseJmhBenchmark {
+
+    @Override
+    List<int[][]> maps() {
+        // only the sample maps the edge map accepts can be benchmarked
+        final List<int[][]> MAPS = new ArrayList<>();
+        for (int[][] sample : SampleMaps.all()) {
+            try {
+                new EdgeMap(sample).getFencePerimeter();
+                MAPS.add(sample);
+            } catch (IllegalArgumentException e) {
+                // skips the map
+            }
+        }
+        return MAPS;
+    }
+}
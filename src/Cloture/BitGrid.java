@@ -0,0 +1,262 @@
+package Cloture;
+
+import java.util.Arrays;
+
+/**
+ * A layer holding only 0s and 1s, packed 64 tiles per word
+ *
+ * <p>Each row starts on a new word, the tile at x being stored in bit {@code x % 64}
+ * of the row's word {@code x / 64}. Bits past the end of a row are always 0.
+ */
+public class BitGrid implements Layer {
+
+    // the packed tiles, row after row
+    private final long[] words;
+
+    // the layer's width and height
+    private final int width;
+    private final int height;
+
+    // the number of words in each row
+    private final int stride;
+
+    /**
+     * Class constructor
+     * @param width the number of tiles in each row
+     * @param height the number of rows
+     */
+    public BitGrid(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.stride = (width + 63) >>> 6;
+        this.words = new long[stride * height];
+    }
+
+    /**
+     * Class constructor, laying the layer over the start of existing words
+     * @param width the number of tiles in each row
+     * @param height the number of rows
+     * @param words the cleared words, at least one per word of the layer
+     */
+    BitGrid(int width, int height, long[] words) {
+        this.width = width;
+        this.height = height;
+        this.stride = (width + 63) >>> 6;
+        this.words = words;
+    }
+
+    /**
+     * Copy constructor, which only copies the words of the grid's rows even if
+     * the grid is laid over a larger buffer
+     * @param other the grid to copy
+     */
+    public BitGrid(BitGrid other) {
+        this.width = other.width;
+        this.height = other.height;
+        this.stride = other.stride;
+        this.words = Arrays.copyOf(other.words, other.stride * other.height);
+    }
+
+    /**
+     * Packs a grid, every tile which isn't 0 becoming a 1
+     * @param grid the grid to pack
+     * @return the packed grid
+     */
+    public static BitGrid of(int[][] grid) {
+        BitGrid bitGrid = new BitGrid(grid[0].length, grid.length);
+        bitGrid.pack(grid);
+        return bitGrid;
+    }
+
+    /**
+     * Packs any grid, every tile which isn't 0 becoming a 1
+     * @param grid the grid to pack
+     * @return the packed grid
+     */
+    public static BitGrid copyOf(Grid grid) {
+        BitGrid bitGrid = new BitGrid(grid.getWidth(), grid.getHeight());
+
+        // packs every row of the grid, 64 tiles at a time
+        for (int y = 0; y < bitGrid.height; y++) {
+            for (int i = 0; i < bitGrid.stride; i++) {
+                bitGrid.words[y * bitGrid.stride + i] = grid.getWord(y, i);
+            }
+        }
+
+        return bitGrid;
+    }
+
+    /**
+     * Packs a grid of the same size into the cleared layer, every tile which isn't 0 becoming a 1
+     * @param grid the grid to pack
+     */
+    void pack(int[][] grid) {
+        // loops through every row...
+        for (int y = 0; y < height; y++) {
+            // ...and packs each of its used tiles
+            for (int x = 0; x < width; x++) {
+                if (grid[y][x] != 0) {
+                    words[y * stride + (x >>> 6)] |= 1L << x;
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies every tile of a layer of the same size
+     * @param other the layer to copy
+     */
+    void copy(BitGrid other) {
+        System.arraycopy(other.words, 0, words, 0, stride * height);
+    }
+
+    /**
+     * Checks whether a layer has the same size and tiles
+     * @param other the layer to compare
+     * @return true if both layers have the same size and tiles, false otherwise
+     */
+    boolean hasSameTiles(BitGrid other) {
+        final int SIZE = stride * height;
+        return width == other.width && height == other.height &&
+                Arrays.equals(words, 0, SIZE, other.words, 0, SIZE);
+    }
+
+    /**
+     * Hashes the size and the tiles of the layer with the 64-bit xxHash of its packed words
+     * @return the hash
+     */
+    long contentHash() {
+        // the xxHash primes
+        final long P1 = 0x9E3779B185EBCA87L, P2 = 0xC2B2AE3D27D4EB4FL, P3 = 0x165667B19E3779F9L,
+                P4 = 0x85EBCA77C2B2AE63L, P5 = 0x27D4EB2F165667C5L;
+
+        // the size of the layer is the seed, so that layers with the same words don't collide
+        final long SEED = ((long) width << 32) | height;
+        final int SIZE = stride * height;
+
+        int i = 0;
+        long hash;
+
+        // region stripes
+
+        // if there are at least 4 words...
+        if (SIZE >= 4) {
+            // ...mixes them 4 at a time, in 4 lanes
+            long v1 = SEED + P1 + P2, v2 = SEED + P2, v3 = SEED, v4 = SEED - P1;
+            for (; i + 4 <= SIZE; i += 4) {
+                v1 = Long.rotateLeft(v1 + words[i] * P2, 31) * P1;
+                v2 = Long.rotateLeft(v2 + words[i + 1] * P2, 31) * P1;
+                v3 = Long.rotateLeft(v3 + words[i + 2] * P2, 31) * P1;
+                v4 = Long.rotateLeft(v4 + words[i + 3] * P2, 31) * P1;
+            }
+
+            // merges the lanes
+            hash = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            hash = mergeLane(mergeLane(mergeLane(mergeLane(hash, v1), v2), v3), v4);
+        } else {
+            hash = SEED + P5;
+        }
+
+        // endregion
+
+        // region tail
+
+        // mixes the words left one at a time
+        hash += (long) SIZE * Long.BYTES;
+        for (; i < SIZE; i++) {
+            hash ^= Long.rotateLeft(words[i] * P2, 31) * P1;
+            hash = Long.rotateLeft(hash, 27) * P1 + P4;
+        }
+
+        // endregion
+
+        // avalanches the bits
+        hash ^= hash >>> 33;
+        hash *= P2;
+        hash ^= hash >>> 29;
+        hash *= P3;
+        return hash ^ (hash >>> 32);
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public int getStride() {
+        return stride;
+    }
+
+    @Override
+    public int get(int x, int y) {
+        return (int) (words[y * stride + (x >>> 6)] >>> x) & 1;
+    }
+
+    @Override
+    public void set(int x, int y, int value) {
+        if (value != 0) {
+            words[y * stride + (x >>> 6)] |= 1L << x;
+        } else {
+            words[y * stride + (x >>> 6)] &= ~(1L << x);
+        }
+    }
+
+    @Override
+    public void fill(int y, int fromX, int toX, int value) {
+        // if the span is empty...
+        if (fromX >= toX) {
+            // ...exits the method
+            return;
+        }
+
+        // the first and last words of the span
+        int firstWord = y * stride + (fromX >>> 6);
+        int lastWord = y * stride + ((toX - 1) >>> 6);
+
+        // the bits of the span in its first and last words
+        long firstMask = -1L << fromX;
+        long lastMask = -1L >>> (63 - ((toX - 1) & 63));
+
+        // sets the bits of each word of the span
+        for (int i = firstWord; i <= lastWord; i++) {
+            long mask = -1L;
+            if (i == firstWord) mask &= firstMask;
+            if (i == lastWord) mask &= lastMask;
+
+            if (value != 0) {
+                words[i] |= mask;
+            } else {
+                words[i] &= ~mask;
+            }
+        }
+    }
+
+    @Override
+    public long getWord(int y, int i) {
+        return words[y * stride + i];
+    }
+
+    /**
+     * Sets a word of a row
+     * @param y the y coordinate of the row
+     * @param i the index of the word in the row
+     * @param word the 64 tiles to pack in the word, with no bit set past the end of the row
+     */
+    public void setWord(int y, int i, long word) {
+        words[y * stride + i] = word;
+    }
+
+    // region helper methods
+    private static long mergeLane(long hash, long lane) {
+        // merges a lane of the xxHash stripes into the hash
+        final long P1 = 0x9E3779B185EBCA87L, P2 = 0xC2B2AE3D27D4EB4FL, P4 = 0x85EBCA77C2B2AE63L;
+        return (hash ^ (Long.rotateLeft(lane * P2, 31) * P1)) * P1 + P4;
+    }
+    // endregion
+}
@@ -0,0 +1,105 @@
+package Cloture;
+
+/**
+ * A snapshot of the statistics of an edge map cache
+ */
+public final class CacheStatistics {
+
+    // the number of maps found in the cache and of maps which had to be analysed
+    private final long hitCount;
+    private final long missCount;
+
+    // the number of maps whose hash matched an entry holding other tiles
+    private final long collisionCount;
+
+    // the number of entries evicted to stay within the bounds of the cache
+    private final long evictionCount;
+
+    // the number of entries and the bytes they hold
+    private final int entryCount;
+    private final long byteSize;
+
+    /**
+     * Class constructor
+     * @param hitCount the number of maps found in the cache
+     * @param missCount the number of maps which had to be analysed
+     * @param collisionCount the number of maps whose hash matched an entry holding other tiles
+     * @param evictionCount the number of entries evicted
+     * @param entryCount the number of entries
+     * @param byteSize the bytes held by the entries
+     */
+    CacheStatistics(long hitCount, long missCount, long collisionCount, long evictionCount,
+                    int entryCount, long byteSize) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.collisionCount = collisionCount;
+        this.evictionCount = evictionCount;
+        this.entryCount = entryCount;
+        this.byteSize = byteSize;
+    }
+
+    // region getters
+    /**
+     * Hit count getter
+     * @return the number of maps found in the cache
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Miss count getter
+     * @return the number of maps which had to be analysed, collisions included
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Hit rate getter
+     * @return the share of maps found in the cache, 0 if no map was asked for
+     */
+    public double getHitRate() {
+        final long REQUESTS = hitCount + missCount;
+        return (REQUESTS == 0) ? 0 : (double) hitCount / REQUESTS;
+    }
+
+    /**
+     * Collision count getter
+     * @return the number of maps whose hash matched an entry holding other tiles
+     */
+    public long getCollisionCount() {
+        return collisionCount;
+    }
+
+    /**
+     * Eviction count getter
+     * @return the number of entries evicted to stay within the bounds of the cache
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Entry count getter
+     * @return the number of entries
+     */
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * Byte size getter
+     * @return the estimated number of bytes held by the entries
+     */
+    public long getByteSize() {
+        return byteSize;
+    }
+    // endregion
+
+    @Override
+    public String toString() {
+        return String.format("%s hits, %s misses, %s collisions, %s evictions, %s entries, %s bytes",
+                hitCount, missCount, collisionCount, evictionCount, entryCount, byteSize);
+    }
+}
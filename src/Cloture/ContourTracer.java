@@ -0,0 +1,237 @@
+package Cloture;
+
+import java.util.Arrays;
+
+/**
+ * Measures the fence perimeter of a parcel by walking along its outer contour,
+ * without labeling the zones or scanning the inside of the parcel
+ *
+ * <p>The walk follows the sides of the tiles between the parcel and the exterior, keeping
+ * the parcel on its right and starting from the top side of the map's first used tile.
+ * Every side it walks along needs a fence, so the perimeter is found in a time proportional
+ * to its length once the first used tile is found. Used tiles touching by a corner are part
+ * of the same parcel, and the lakes inside the parcel are never visited.
+ *
+ * <p>The map must hold a single parcel, as an edge map expects: once the walk is done, the rows
+ * are scanned 64 tiles at a time for used tiles outside the contour, which belong to another
+ * parcel. Islands inside the lakes of the parcel are inside the contour, so they are allowed.
+ * Whether the map is convex is decided from the rows the contour crosses, following {@link ConvexityRule#SPANS}.
+ */
+public final class ContourTracer {
+
+    // the x and y steps of the four directions of the walk: right, down, left and up
+    private static final int[] STEP_X = {1, 0, -1, 0};
+    private static final int[] STEP_Y = {0, 1, 0, -1};
+
+    private ContourTracer() {}
+
+    /**
+     * Gets the perimeter of the fence around the map's parcel
+     * @param map the map to measure
+     * @return the fence perimeter
+     * @throws IllegalArgumentException if the map is not convex or holds more than one parcel
+     */
+    public static double getFencePerimeter(Grid map) {
+        // multiplies the number of fences by their length
+        return countFences(map) * 2.5;
+    }
+
+    /**
+     * Counts the fences around the map's parcel by walking along its contour
+     * @param map the map to measure
+     * @return the number of fences needed
+     * @throws IllegalArgumentException if the map is not convex or holds more than one parcel
+     */
+    public static long countFences(Grid map) {
+
+        // the map's width and height
+        final int MAP_WIDTH = map.getWidth();
+        final int MAP_HEIGHT = map.getHeight();
+
+        // region starting point
+
+        // finds the first used tile, 64 tiles at a time
+        int startX = -1;
+        int startY = -1;
+        for (int y = 0; y < MAP_HEIGHT && startY == -1; y++) {
+            for (int i = 0; i < map.getStride(); i++) {
+                long usedTiles = map.getWord(y, i);
+                if (usedTiles != 0) {
+                    startX = (i << 6) + Long.numberOfTrailingZeros(usedTiles);
+                    startY = y;
+                    break;
+                }
+            }
+        }
+
+        // if there is no used tile...
+        if (startY == -1) {
+            // ...there is no fence either
+            return 0;
+        }
+
+        // endregion
+
+        // the number of fences
+        long fenceCount = 0;
+
+        // region row crossings
+
+        // the number of times the contour crosses each row from the first one, and the two leftmost crossings,
+        // a row being crossed more than twice when the exterior border enters the parcel
+        int[] crossingCounts = new int[16];
+        int[] firstCrossings = new int[16];
+        int[] secondCrossings = new int[16];
+
+        // endregion
+
+        // the walk starts along the top side of the first used tile, going right
+        int x = startX;
+        int y = startY;
+        int direction = 0;
+
+        do {
+            // region fence
+
+            // the fence along the side of the tile being walked along, a tile of a map only one tile
+            // wide or high getting a single fence for both its sides along the border, as in an edge map
+            final boolean IS_SECOND_BORDER_SIDE = (direction % 2 == 1 && MAP_WIDTH == 1 && x == 1) ||
+                    (direction % 2 == 0 && MAP_HEIGHT == 1 && y == 1);
+            if (!IS_SECOND_BORDER_SIDE) {
+                fenceCount++;
+            }
+
+            // if the side is vertical, the contour crosses a row
+            if (direction % 2 == 1) {
+                // the crossed row
+                int row = ((direction == 1) ? y : y - 1) - startY;
+
+                // if there is no more room for the row...
+                if (row >= crossingCounts.length) {
+                    // ...doubles the capacity of the crossings
+                    int capacity = Math.max(row + 1, crossingCounts.length * 2);
+                    crossingCounts = Arrays.copyOf(crossingCounts, capacity);
+                    firstCrossings = Arrays.copyOf(firstCrossings, capacity);
+                    secondCrossings = Arrays.copyOf(secondCrossings, capacity);
+                }
+
+                // keeps the two leftmost crossings of the row
+                if (crossingCounts[row] == 0 || x < firstCrossings[row]) {
+                    secondCrossings[row] = firstCrossings[row];
+                    firstCrossings[row] = x;
+                } else if (crossingCounts[row] == 1 || x < secondCrossings[row]) {
+                    secondCrossings[row] = x;
+                }
+                crossingCounts[row]++;
+            }
+
+            // endregion
+
+            // walks along the side
+            x += STEP_X[direction];
+            y += STEP_Y[direction];
+
+            // region next direction
+
+            // the tiles ahead, to the left and to the right of the walk
+            final boolean LEFT_AHEAD_IS_USED = isUsed(map, aheadX(x, direction, true), aheadY(y, direction, true));
+            final boolean RIGHT_AHEAD_IS_USED = isUsed(map, aheadX(x, direction, false), aheadY(y, direction, false));
+
+            // keeps the parcel on the right, tiles touching by a corner being part of the same parcel
+            if (LEFT_AHEAD_IS_USED) {
+                direction = (direction + 3) % 4;
+            } else if (!RIGHT_AHEAD_IS_USED) {
+                direction = (direction + 1) % 4;
+            }
+
+            // endregion
+
+        } while (x != startX || y != startY || direction != 0);
+
+        // checks whether the map is convex
+        checkConvex(crossingCounts, firstCrossings, secondCrossings, startY);
+
+        // checks whether the map holds a single parcel, each crossed row now being crossed
+        // exactly twice, first on the left of the contour and then on its right
+        checkSingleParcel(map, crossingCounts, firstCrossings, secondCrossings, startY);
+
+        return fenceCount;
+    }
+
+    // region helper methods
+    private static boolean isUsed(Grid map, int x, int y) {
+        return (x >= 0) && (y >= 0) && (x < map.getWidth()) && (y < map.getHeight()) && map.get(x, y) != 0;
+    }
+    private static int aheadX(int x, int direction, boolean left) {
+        // the column of the tiles ahead of the corner the walk has reached
+        switch (direction) {
+            case 0: return x;
+            case 1: return left ? x : x - 1;
+            case 2: return x - 1;
+            default: return left ? x - 1 : x;
+        }
+    }
+    private static int aheadY(int y, int direction, boolean left) {
+        // the row of the tiles ahead of the corner the walk has reached
+        switch (direction) {
+            case 0: return left ? y - 1 : y;
+            case 1: return y;
+            case 2: return left ? y : y - 1;
+            default: return y - 1;
+        }
+    }
+    private static void checkConvex(int[] crossingCounts, int[] firstCrossings, int[] secondCrossings, int startY) {
+        // loops through every crossed row...
+        for (int row = 0; row < crossingCounts.length; row++) {
+
+            // if the row is crossed more than twice, the exterior enters the parcel between two edges
+            if (crossingCounts[row] > 2) {
+                // throws a new error
+                MapValidation.entering(secondCrossings[row], startY + row).check();
+            }
+        }
+    }
+    private static void checkSingleParcel(Grid map, int[] crossingCounts, int[] firstCrossings, int[] secondCrossings,
+                                          int startY) {
+        // loops through every row from the first used tile...
+        for (int y = startY; y < map.getHeight(); y++) {
+
+            // the columns inside the contour, none if the contour doesn't cross the row
+            final int ROW = y - startY;
+            final boolean IS_CROSSED = ROW < crossingCounts.length && crossingCounts[ROW] != 0;
+            final int FROM_X = IS_CROSSED ? firstCrossings[ROW] : 0;
+            final int TO_X = IS_CROSSED ? secondCrossings[ROW] : 0;
+
+            // ...and through every word of the row
+            for (int i = 0; i < map.getStride(); i++) {
+
+                // the used tiles of the word outside the contour
+                final long OUTSIDE = map.getWord(y, i) & ~columnMask(FROM_X - (i << 6), TO_X - (i << 6));
+
+                // if there is one, it is part of another parcel
+                if (OUTSIDE != 0) {
+                    // throws a new error
+                    final int X = (i << 6) + Long.numberOfTrailingZeros(OUTSIDE);
+                    throw new IllegalArgumentException(String.format("Map does not have correct format: " +
+                            "tile [%s][%s] is part of a second parcel", y, X));
+                }
+            }
+        }
+    }
+    private static long columnMask(int fromX, int toX) {
+        // keeps the columns of the range which are inside the word
+        fromX = Math.max(fromX, 0);
+        toX = Math.min(toX, 64);
+
+        // if the range doesn't cross the word...
+        if (fromX >= toX) {
+            // ...it holds no column
+            return 0;
+        }
+
+        // the bits from the first column of the range to the last one
+        final long UP_TO_X = (toX == 64) ? -1L : (1L << toX) - 1;
+        return UP_TO_X & (-1L << fromX);
+    }
+    // endregion
+}
@@ -0,0 +1,27 @@
+package Cloture;
+
+/**
+ * The rules an edge map can follow to decide whether a map is convex, a map which isn't
+ * being rejected with an {@link IllegalArgumentException} by its analysis
+ *
+ * <p>Neither rule accepts every map the other one accepts, so an edge map follows the rule of the
+ * original edge map unless it is told otherwise. The zone labelers, the row analyzer, the run-length
+ * edge map and the contour tracer check the map as they go through it, and follow the span rule.
+ */
+public enum ConvexityRule {
+
+    /**
+     * The rule of the original recursive flood, which edge maps follow by default: the map is not convex
+     * if, while a zone is flooded depth first, the tiles flooded since the flood last stepped back reach
+     * the border and the last of them with a used tile to its left isn't to the right of the last of them
+     * with a used tile to its right
+     * @see RecursiveFloodCheck
+     */
+    RECURSIVE_FLOOD,
+
+    /**
+     * The span rule: the map is not convex if a span of tiles of a zone touching the border has a used tile
+     * on both sides in its row, the error being at the first such span row after row
+     */
+    SPANS
+}
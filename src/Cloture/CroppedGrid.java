@@ -0,0 +1,205 @@
+package Cloture;
+
+/**
+ * A read-only window over a grid, framing its used tiles with a margin of one empty tile
+ * wherever the grid leaves room for it
+ *
+ * <p>Every tile outside the window is empty and reaches the margin in a straight line,
+ * so the tiles outside belong to the outer zone of the margin tile closest to them: a layer
+ * detected inside the window can be laid back over the whole grid without detecting anything
+ * outside of it, the window's coordinates being those of the grid minus its origin.
+ */
+final class CroppedGrid implements Grid {
+
+    // the cropped grid
+    private final Grid grid;
+
+    // the coordinates of the window's first tile in the grid
+    private final int originX;
+    private final int originY;
+
+    // the window's width and height
+    private final int width;
+    private final int height;
+
+    /**
+     * Class constructor
+     * @param grid the grid to crop
+     * @param originX the x coordinate of the window's first tile in the grid
+     * @param originY the y coordinate of the window's first tile in the grid
+     * @param width the number of tiles in each row of the window
+     * @param height the number of rows of the window
+     */
+    private CroppedGrid(Grid grid, int originX, int originY, int width, int height) {
+        this.grid = grid;
+        this.originX = originX;
+        this.originY = originY;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Crops a grid around its used tiles, reading it a word at a time
+     * @param grid the grid to crop
+     * @return the window framing the used tiles with a margin of one tile, or null if
+     * the window would be the whole grid or if the grid has no used tile
+     */
+    static CroppedGrid around(Grid grid) {
+        // the grid's width, height and number of words in each row
+        final int GRID_WIDTH = grid.getWidth();
+        final int GRID_HEIGHT = grid.getHeight();
+        final int STRIDE = grid.getStride();
+
+        // the bounding box of the used tiles, every coordinate being inclusive
+        int minX = GRID_WIDTH, maxX = -1, minY = -1, maxY = -1;
+
+        // loops through every row...
+        for (int y = 0; y < GRID_HEIGHT; y++) {
+
+            // ...and through every word of the row
+            for (int i = 0; i < STRIDE; i++) {
+                final long WORD = grid.getWord(y, i);
+
+                // if the word has no used tile...
+                if (WORD == 0) {
+                    // ...skips its 64 tiles at once
+                    continue;
+                }
+
+                // widens the box to the first and last used tiles of the word
+                minX = Math.min(minX, (i << 6) + Long.numberOfTrailingZeros(WORD));
+                maxX = Math.max(maxX, (i << 6) + 63 - Long.numberOfLeadingZeros(WORD));
+                if (minY == -1) minY = y;
+                maxY = y;
+            }
+        }
+
+        // if the grid has no used tile...
+        if (maxY == -1) {
+            // ...there is nothing to frame
+            return null;
+        }
+
+        // adds the margin, as far as the grid leaves room for it
+        final int FROM_X = Math.max(minX - 1, 0);
+        final int FROM_Y = Math.max(minY - 1, 0);
+        final int TO_X = Math.min(maxX + 2, GRID_WIDTH);
+        final int TO_Y = Math.min(maxY + 2, GRID_HEIGHT);
+
+        // if the window is the whole grid...
+        if (FROM_X == 0 && FROM_Y == 0 && TO_X == GRID_WIDTH && TO_Y == GRID_HEIGHT) {
+            // ...there is nothing to crop
+            return null;
+        }
+
+        return new CroppedGrid(grid, FROM_X, FROM_Y, TO_X - FROM_X, TO_Y - FROM_Y);
+    }
+
+    // region getters
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Origin x getter
+     * @return the x coordinate of the window's first tile in the grid
+     */
+    int getOriginX() {
+        return originX;
+    }
+
+    /**
+     * Origin y getter
+     * @return the y coordinate of the window's first tile in the grid
+     */
+    int getOriginY() {
+        return originY;
+    }
+    // endregion
+
+    @Override
+    public int get(int x, int y) {
+        return grid.get(originX + x, originY + y);
+    }
+
+    @Override
+    public long getWord(int y, int i) {
+        // reads the 64 tiles of the grid starting at the word's first tile
+        long word = readBits(grid, originY + y, originX + (i << 6));
+
+        // clears the tiles past the end of the window
+        final int COUNT = Math.min(64, width - (i << 6));
+        return (COUNT == 64) ? word : word & ((1L << COUNT) - 1);
+    }
+
+    /**
+     * Lays a layer detected inside the window back over the whole grid
+     * @param windowLayer the layer detected inside the window
+     * @param layer the layer of the whole grid, with the grid's width and height
+     * @param outside the value of every tile outside the window, 0 or 1
+     */
+    void uncrop(BitGrid windowLayer, BitGrid layer, int outside) {
+        // the number of words in each row of the grid, and the bits of the last word which are part of a row
+        final int STRIDE = layer.getStride();
+        final long LAST_WORD_MASK = -1L >>> (63 - ((layer.getWidth() - 1) & 63));
+
+        // the words of the rows above and below the window
+        final long OUTSIDE = (outside != 0) ? -1L : 0L;
+
+        // loops through every row of the grid...
+        for (int y = 0; y < layer.getHeight(); y++) {
+            final boolean IS_INSIDE_ROW = (y >= originY && y < originY + height);
+
+            // ...and through every word of the row
+            for (int i = 0; i < STRIDE; i++) {
+                long word = OUTSIDE;
+
+                // if the row crosses the window...
+                if (IS_INSIDE_ROW) {
+                    // ...replaces the tiles of the word inside the window by those of the window's layer
+                    final long WINDOW_MASK = spanMask(originX - (i << 6), originX + width - (i << 6));
+                    word = (word & ~WINDOW_MASK) |
+                            (readBits(windowLayer, y - originY, (i << 6) - originX) & WINDOW_MASK);
+                }
+
+                layer.setWord(y, i, (i == STRIDE - 1) ? word & LAST_WORD_MASK : word);
+            }
+        }
+    }
+
+    // region helper methods
+    private static long readBits(Grid grid, int y, int fromX) {
+        // the word holding the first tile, which may be before the row, and the position of the tile in it
+        final int WORD = fromX >> 6;
+        final int SHIFT = fromX & 63;
+
+        // joins the end of the word with the start of the next one
+        final long LOW = readWord(grid, y, WORD) >>> SHIFT;
+        final long HIGH = (SHIFT == 0) ? 0 : readWord(grid, y, WORD + 1) << (64 - SHIFT);
+        return LOW | HIGH;
+    }
+    private static long readWord(Grid grid, int y, int i) {
+        // the words before and after the row are empty
+        return (i < 0 || i >= grid.getStride()) ? 0 : grid.getWord(y, i);
+    }
+    private static long spanMask(int from, int to) {
+        // keeps the span inside the word
+        from = Math.max(from, 0);
+        to = Math.min(to, 64);
+
+        // if the span doesn't cross the word...
+        if (from >= to) {
+            // ...no bit is part of it
+            return 0;
+        }
+
+        return (-1L >>> (64 - (to - from))) << from;
+    }
+    // endregion
+}
@@ -1,38 +1,90 @@
 package Cloture;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * A class which allows for various operations related to edge detection
+ *
+ * <p>An edge map is the context of the analysis of a single map, holding its layers, and must
+ * only be used by one thread at a time. The zone labeler it uses holds no state of its own and
+ * can be shared by any number of edge maps, as an {@link EdgeMapEngine} does.
+ *
+ * <p>An edge map decides whether its map is convex with the rule of the original edge map,
+ * {@link ConvexityRule#RECURSIVE_FLOOD}, unless it is told to follow {@link ConvexityRule#SPANS}.
  */
 public class EdgeMap {
 
-    // region various layers of edge detection
-    private final int[][] map;
-    private final int[][] filledMap;
-    private final int[][] outerEdges;
-    private final int[][] zones;
+    // region various layers of edge detection, each one detected on first use
+    private Grid map;
+    private BitGrid filledMap;
+    private BitGrid outerEdges;
+    private BitGrid outerTiles;
+    private ZoneGrid zones;
     // endregion
 
-    // region flood fields
+    // the classification of the zones, made on first use
+    private ZoneClassification zoneClassification;
 
-    // the maximum and minimum flood x and y coordinates
-    private int maxFloodX, minFloodX, maxFloodY, minFloodY;
+    // the summed-area tables of the layers, built on first use
+    private RegionIndex regionIndex;
 
-    // the x-coordinates of the edge to the left and to the right of the flood
-    private int leftFloodEdgeX, rightFloodEdgeX;
+    // the parcels of the map, analysed on first use
+    private List<Parcel> parcels;
 
-    // endregion
+    // the zone labeler used to detect the zones, and the same labeler leaving the convexity check to the edge map
+    private final ZoneLabeler zoneLabeler;
+    private final ZoneLabeler uncheckedZoneLabeler;
 
-    // region method fields
+    // the rule deciding whether the map is convex
+    private ConvexityRule convexityRule;
+
+    // whether the map has been checked with the rule of the recursive flood since it was last edited
+    private boolean isFloodChecked;
+
+    // the pool processing stripes of the layers in parallel, null to process them in the calling thread
+    private final ForkJoinPool pool;
+
+    // the buffers the layers are laid over, null to allocate every layer
+    private final Scratch scratch;
+
+    // the listener told about every phase, null to leave the phases unmeasured
+    private EdgeMapListener listener;
 
-    // the number of zones
-    private int zoneCount = 1;
+    // the number of tiles the phase being run goes through
+    private long phaseTiles;
 
-    // the perimeter of the edge
+    // region method fields
+
+    // the perimeter of the edge, -1 until it is calculated
     private double perimeter;
 
+    // the number of the last zone, 0 until the zones or the outer tiles are labeled: the only
+    // zone count of the edge map, which its getter, the phase metrics and the batch results read
+    private int zoneCount;
+
+    // endregion
+
+    // region edit fields
+
+    // whether the map is a copy owned by the edge map, which can be edited in place
+    private boolean ownsMap;
+
+    // the editor keeping the outer tiles up to date, null until the map is first edited
+    private OuterTilesEditor editor;
+
+    // the number of fences along each row, and in the whole map
+    private int[] rowFences;
+    private long fenceCount;
+
+    // the number of spans of each row which let the exterior border enter the map, and in the whole map
+    private int[] rowEnteringSpans;
+    private long enteringSpanCount;
+
     // endregion
 
     // the map's width and height
@@ -44,191 +96,297 @@ public class EdgeMap {
      * @param map the map to detect the edges of
      */
     public EdgeMap(int[][] map) {
-        // sets the perimeter to a default of 0
-        perimeter = 0;
+        this(map, new UnionFindZoneLabeler(), null);
+    }
 
-        // saves the map height and length
-        MAP_HEIGHT = map.length;
-        MAP_WIDTH = map[0].length;
+    /**
+     * Class constructor, which only copies the map: every layer is detected the first time it is needed
+     * @param map the map to detect the edges of
+     * @param zoneLabeler the zone labeler used to detect the zones
+     */
+    public EdgeMap(int[][] map, ZoneLabeler zoneLabeler) {
+        this(map, zoneLabeler, null);
+    }
 
-        // initialises the x coordinate of the last flood
-        // edge to the right and the left of the flood
-        leftFloodEdgeX = -1;
-        rightFloodEdgeX = -1;
+    /**
+     * Class constructor, which only copies the map: every layer is detected the first time it is needed
+     * @param map the map to detect the edges of
+     * @param zoneLabeler the zone labeler used to detect the zones
+     * @param pool the pool processing stripes of the layers in parallel, or null to process them sequentially
+     */
+    EdgeMap(int[][] map, ZoneLabeler zoneLabeler, ForkJoinPool pool) {
+        // packs a copy of the map, 64 tiles per word
+        this(BitGrid.of(map), zoneLabeler, pool, null);
 
-        // initialises the minimum and maximum
-        // x and y coordinates of the flood
-        minFloodX = MAP_WIDTH;
-        minFloodY = MAP_HEIGHT;
-        maxFloodX = maxFloodY = 0;
+        // the copy can be edited in place
+        ownsMap = true;
+    }
 
-        // region layer initialization
+    /**
+     * Class constructor, which uses the map as it is without copying it
+     * @param map the map to detect the edges of, which must not change while the edge map is used
+     */
+    public EdgeMap(Grid map) {
+        this(map, new UnionFindZoneLabeler(), null, null);
+    }
 
-        // initialises the map
-        this.map = new int[MAP_HEIGHT][MAP_WIDTH];
-        // copies the map
-        for (int y = 0; y < MAP_HEIGHT; y++) {
-            this.map[y] = Arrays.copyOf(map[y], MAP_WIDTH);
-        }
+    /**
+     * Class constructor, which uses the map as it is without copying it:
+     * every layer is detected the first time it is needed
+     * @param map the map to detect the edges of, which must not change while the edge map is used
+     * @param zoneLabeler the zone labeler used to detect the zones
+     */
+    public EdgeMap(Grid map, ZoneLabeler zoneLabeler) {
+        this(map, zoneLabeler, null, null);
+    }
 
-        // initialises the filled map layer
-        this.filledMap = new int[MAP_HEIGHT][MAP_WIDTH];
-        // fills the map layer
-        for (int[] row: filledMap) {
-            Arrays.fill(row, 0);
-        }
+    /**
+     * Class constructor, which uses the map as it is without copying it:
+     * every layer is detected the first time it is needed
+     * @param map the map to detect the edges of, which must not change while the edge map is used
+     * @param zoneLabeler the zone labeler used to detect the zones
+     * @param pool the pool processing stripes of the layers in parallel, or null to process them sequentially
+     */
+    public EdgeMap(Grid map, ZoneLabeler zoneLabeler, ForkJoinPool pool) {
+        this(map, zoneLabeler, pool, null);
+    }
 
-        // initialises the outer edges layer
-        this.outerEdges = new int[MAP_HEIGHT][MAP_WIDTH];
-        // fills the outer edges layer
-        for (int[] row: outerEdges) {
-            Arrays.fill(row, 0);
-        }
+    /**
+     * Class constructor, which packs the map into buffers kept from one edge map to the next:
+     * the edge map must be done with before the scratch is used again
+     * @param map the map to detect the edges of
+     * @param scratch the buffers the map and its layers are laid over
+     */
+    EdgeMap(int[][] map, Scratch scratch) {
+        this(scratch.pack(map), scratch.getZoneLabeler(), null, scratch);
+    }
 
-        // initialises the zones layer
-        this.zones = new int[MAP_HEIGHT][MAP_WIDTH];
-        // fills the zones layer
-        for (int[] row: zones) {
-            Arrays.fill(row, 0);
-        }
+    /**
+     * Class constructor
+     * @param map the map to detect the edges of
+     * @param zoneLabeler the zone labeler used to detect the zones
+     * @param pool the pool processing stripes of the layers in parallel, or null to process them sequentially
+     * @param scratch the buffers the layers are laid over, or null to allocate every layer
+     */
+    private EdgeMap(Grid map, ZoneLabeler zoneLabeler, ForkJoinPool pool, Scratch scratch) {
+        // the perimeter hasn't been calculated yet
+        perimeter = -1;
 
-        // endregion
+        // saves the map height and length
+        MAP_HEIGHT = map.getHeight();
+        MAP_WIDTH = map.getWidth();
 
-        // region layer generation
+        // saves the zone labeler and the pool
+        this.zoneLabeler = zoneLabeler;
+        this.uncheckedZoneLabeler = zoneLabeler.withoutConvexityCheck();
+        this.pool = pool;
+        this.scratch = scratch;
 
-        detectZones();
-        detectOuterEdges();
-        fillMap();
+        // follows the rule of the original edge map
+        this.convexityRule = ConvexityRule.RECURSIVE_FLOOD;
 
-        // endregion
+        // saves the map
+        this.map = map;
+    }
+
+    // region factories
 
-        // calculates the fencing perimeter
-        perimeter = calculateFencePerimeter();
+    /**
+     * Creates an edge map processing stripes of its layers in parallel, without copying the map.
+     * The results are the same as those of a sequential edge map.
+     * @param map the map to detect the edges of, which must not change while the edge map is used
+     * @param pool the pool processing the stripes
+     * @return the edge map
+     */
+    public static EdgeMap parallel(Grid map, ForkJoinPool pool) {
+        return new EdgeMap(map, new UnionFindZoneLabeler(pool), pool, null);
     }
 
-    // =========================================
-    //                  FLOOD
-    // =========================================
+    /**
+     * Creates an edge map reading a flat array of ints directly, without copying it
+     * @param tiles the tiles of the map, row after row
+     * @param width the number of tiles in each row
+     * @param height the number of rows
+     * @return the edge map
+     */
+    public static EdgeMap wrap(int[] tiles, int width, int height) {
+        return new EdgeMap(GridView.of(tiles, width, height));
+    }
 
     /**
-     * Floods the layer with 1s
-     * @param x the x coordinate at which to start the flood
-     * @param y the y coordinate at which to start the flood
-     * @param layer the layer to flood
+     * Creates an edge map reading a flat array of bytes directly, without copying it
+     * @param tiles the tiles of the map, row after row
+     * @param width the number of tiles in each row
+     * @param height the number of rows
+     * @return the edge map
      */
-    private void flood(int x, int y, int[][] layer) {
-        // calls the default flooding method with a default zone of 1
-        flood(x, y, 1, layer);
+    public static EdgeMap wrap(byte[] tiles, int width, int height) {
+        return new EdgeMap(GridView.of(tiles, width, height));
     }
 
     /**
-     * Flood the layer with a specific zone AND checks if the map is convex
-     * @param x the x coordinate at which to start the flood
-     * @param y the y coordinate at which to start the flood
-     * @param zone the zone which will flood the layer
-     * @param layer the layer to flood
-     * @throws IllegalArgumentException if the map is not convex
+     * Creates an edge map reading a buffer of one byte per tile directly, without copying it.
+     * The buffer may be direct, so that the map never enters the heap.
+     * @param tiles the tiles of the map, row after row, from the buffer's position
+     * @param width the number of tiles in each row
+     * @param height the number of rows
+     * @return the edge map
      */
-    private void flood(int x, int y, int zone, int[][] layer) {
+    public static EdgeMap wrap(ByteBuffer tiles, int width, int height) {
+        return new EdgeMap(GridView.of(tiles, width, height));
+    }
 
-        // initialises the flood at the specified starting point
-        layer[y][x] = zone;
+    /**
+     * Creates an edge map reading a grid file mapped in memory, so that the map never enters the heap
+     * @param file the grid file to map
+     * @return the edge map
+     * @throws IOException if the file cannot be read or isn't a grid file
+     * @see GridFile
+     */
+    public static EdgeMap load(Path file) throws IOException {
+        return new EdgeMap(GridFile.map(file));
+    }
 
-        // updates the variables used to check if the map is convex
-        updateConvexVars(x, y);
+    // endregion
 
-        // if the upper tile exists and is empty, flood it
-        checkUpperFloodTile(x, y, zone, layer);
+    // region validation
 
-        // if the lower tile exists and is empty, flood it
-        checkLowerFloodTile(x, y, zone, layer);
+    /**
+     * Checks whether a map is convex before analysing it, without detecting any layer,
+     * following the rule edge maps follow by default
+     * @param map the map to check
+     * @return the result of the check, holding the position the analysis of the map would throw an error at
+     */
+    public static MapValidation validate(int[][] map) {
+        return validate(map, ConvexityRule.RECURSIVE_FLOOD);
+    }
 
-        // if the previous tile exists and is empty, flood it
-        checkPreviousFloodTile(x, y, zone, layer);
+    /**
+     * Checks whether a map is convex before analysing it, without detecting any layer. Following the
+     * span rule, the rows are read one at a time, so that the check stops as soon as the rows read make
+     * the map not convex.
+     * @param map the map to check
+     * @param convexityRule the rule deciding whether the map is convex
+     * @return the result of the check, holding the position the analysis of the map would throw an error at
+     */
+    public static MapValidation validate(int[][] map, ConvexityRule convexityRule) {
+        // if the map follows the rule of the recursive flood...
+        if (convexityRule == ConvexityRule.RECURSIVE_FLOOD) {
+            // ...floods its zones
+            return RecursiveFloodCheck.validate(BitGrid.of(map));
+        }
 
-        // if the next tile exists and is empty, flood it
-        checkNextFloodTile(x, y, zone, layer);
+        RowAnalyzer analyzer = new RowAnalyzer(map[0].length);
 
-        // checks whether the map is convex
-        checkConvex(x, y);
+        // loops through every row...
+        for (int[] row : map) {
+            analyzer.addRow(row);
 
-        // resets the variables used to check if the map is convex
-        resetConvexVars();
+            // ...until it is sure the map is not convex
+            MapValidation validation = analyzer.findEntering();
+            if (validation != null) {
+                return validation;
+            }
+        }
+
+        return analyzer.finishValidation();
     }
 
-    // region helper methods
-    private void updateConvexVars(int x, int y) {
-        if (y < minFloodY) {
-            minFloodY = y;
-        }
-        if (y > maxFloodY) {
-            maxFloodY = y;
-        }
-        if (x < minFloodX) {
-            minFloodX = x;
-        }
-        if (x > maxFloodX) {
-            maxFloodX = x;
-        }
+    /**
+     * Checks whether a map is convex before analysing it, without detecting any layer,
+     * following the rule edge maps follow by default
+     * @param map the map to check
+     * @return the result of the check, holding the position the analysis of the map would throw an error at
+     */
+    public static MapValidation validate(Grid map) {
+        return validate(map, ConvexityRule.RECURSIVE_FLOOD);
+    }
 
-        // checks whether the tile to the left of the flood is an edge
-        if (leftTileIsAnEdge(x, y)) {
-            // updates the coordinates of the edge to the left of the flood
-            leftFloodEdgeX = x;
-        }
-        // checks whether the tile to the right of the flood is an edge
-        if (rightTileIsAnEdge(x, y)) {
-            // updates the coordinates of the edge to the right of the flood
-            rightFloodEdgeX = x;
+    /**
+     * Checks whether a map is convex before analysing it, without detecting any layer. Following the
+     * span rule, the rows are read one at a time, so that the check stops as soon as the rows read make
+     * the map not convex.
+     * @param map the map to check
+     * @param convexityRule the rule deciding whether the map is convex
+     * @return the result of the check, holding the position the analysis of the map would throw an error at
+     */
+    public static MapValidation validate(Grid map, ConvexityRule convexityRule) {
+        // if the map follows the rule of the recursive flood...
+        if (convexityRule == ConvexityRule.RECURSIVE_FLOOD) {
+            // ...floods its zones
+            return RecursiveFloodCheck.validate(map);
         }
-    }
-    private void checkConvex(int x, int y) {
-        // checks whether the flood is between two edges
-        final boolean FLOOD_IS_BETWEEN_EDGES = (leftFloodEdgeX <= rightFloodEdgeX) &&
-                ((leftFloodEdgeX != -1) && (rightFloodEdgeX != -1));
 
-        final boolean FLOOD_HAS_REACHED_BORDER = (minFloodX == 0) || (minFloodY == 0) || (maxFloodX == MAP_WIDTH-1) || (maxFloodY == MAP_HEIGHT-1);
+        final int WIDTH = map.getWidth();
+        final int[] ROW = new int[WIDTH];
+        RowAnalyzer analyzer = new RowAnalyzer(WIDTH);
 
-        // if the flood is not convex
-        if (FLOOD_IS_BETWEEN_EDGES && FLOOD_HAS_REACHED_BORDER) {
-            // formats error message
-            String errorMessage = String.format("Map does not have correct format: exterior border is entering" +
-                    "at position [%s][%s]", y, x);
-            // throws a new error
-            throw new IllegalArgumentException(errorMessage);
+        // loops through every row...
+        for (int y = 0; y < map.getHeight(); y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                ROW[x] = map.get(x, y);
+            }
+            analyzer.addRow(ROW);
+
+            // ...until it is sure the map is not convex
+            MapValidation validation = analyzer.findEntering();
+            if (validation != null) {
+                return validation;
+            }
         }
-    }
-    private void resetConvexVars() {
-        minFloodX = MAP_WIDTH;
-        minFloodY = MAP_HEIGHT;
-        maxFloodY = maxFloodX = 0;
 
-        leftFloodEdgeX = rightFloodEdgeX = -1;
+        return analyzer.finishValidation();
     }
-    private void checkUpperFloodTile(int x, int y, int zone, int[][]layer) {
-        // checks the upper tile if there is one
-        if (y != 0 && layer[y-1][x] == 0) {
-            layer[y-1][x] = zone;
-            flood(x, y-1, zone, layer);
+
+    // endregion
+
+    // =========================================
+    //                 LAYERS
+    // =========================================
+
+    // region lazy layers
+    private ZoneGrid getZones() {
+        // if the zones haven't been detected yet...
+        if (zones == null) {
+            // ...detects them
+            runPhase(PhaseMetrics.Phase.ZONES, this::detectZones);
         }
+        return zones;
     }
-    private void checkLowerFloodTile(int x, int y, int zone, int[][]layer) {
-        if (y < MAP_HEIGHT-1 && layer[y+1][x] == 0) {
-            layer[y+1][x] = zone;
-            flood(x, y+1, zone, layer);
+    BitGrid getOuterTiles() {
+        // if the map has been edited, checks that it is still convex
+        checkEditedMap();
+
+        // if the tiles of the outer zones haven't been detected yet...
+        if (outerTiles == null) {
+            // ...detects them
+            runPhase(PhaseMetrics.Phase.OUTER_TILES, this::detectOuterTiles);
         }
+        return outerTiles;
     }
-    private void checkPreviousFloodTile(int x, int y, int zone, int[][]layer) {
-        if (x != 0 && layer[y][x-1] == 0){
-            layer[y][x-1] = zone;
-            flood(x-1, y, zone, layer);
+    BitGrid getOuterEdges() {
+        // if the map has been edited, checks that it is still convex
+        checkEditedMap();
+
+        // if the outer edges haven't been detected yet...
+        if (outerEdges == null) {
+            // ...detects them from the outer tiles
+            getOuterTiles();
+            runPhase(PhaseMetrics.Phase.OUTER_EDGES, this::detectOuterEdges);
         }
+        return outerEdges;
     }
-    private void checkNextFloodTile(int x, int y, int zone, int[][]layer) {
-        if (x < MAP_WIDTH-1 && layer[y][x+1] == 0) {
-            layer[y][x+1] = zone;
-            flood(x+1, y, zone, layer);
+    BitGrid getFilledMap() {
+        // if the map has been edited, checks that it is still convex
+        checkEditedMap();
+
+        // if the map hasn't been filled yet...
+        if (filledMap == null) {
+            // ...fills it from the outer tiles
+            getOuterTiles();
+            runPhase(PhaseMetrics.Phase.FILL, this::fillMap);
         }
+        return filledMap;
     }
     // endregion
 
@@ -237,72 +395,45 @@ public class EdgeMap {
     // =========================================
 
     /**
-     * Fills the map, removing any lake inside the perimeter
+     * Copies the filled map, in which the lakes inside the perimeter are used tiles
+     * @return a copy of the filled map, which stays valid whatever happens to the edge map
+     * @throws IllegalArgumentException if the map is not convex
      */
-    private void fillMap() {
-
-        // sets the "filled map" layer to be a clone of the original map
-        for (int y = 0; y < MAP_HEIGHT; y++) {
-            filledMap[y] = Arrays.copyOf(outerEdges[y], MAP_WIDTH);
-        }
-
-        // the current tile coordinates;
-        int y = 0;
-        int x = 0;
-
-        // the current tiles in the "map" layer and in the "outer edges" layer
-        int curMapTile = map[y][x];
-        int curEdgeTile = outerEdges[y][x];
-
-        // while a valid starting point to fill the map hasn't been found...
-        while ((curMapTile == 0) || (curEdgeTile == 1)) {
-
-            // ERROR CASES
-
-            // region only one tile to fill
-
-            // if the tile has tiles above, bellow and to its left and right
-            // (i.e. : we can check the value of these tiles)
-            final boolean TILE_IS_SURROUNDED = (y != 0) && (y != MAP_HEIGHT - 1) && (x != 0) && (x != MAP_WIDTH - 1);
-
-            if (TILE_IS_SURROUNDED) {
+    public BitGrid copyFilledMap() {
+        return new BitGrid(getFilledMap());
+    }
 
-                // gets the values surrounding the tile
-                int upperTile = map[y-1][x];
-                int lowerTile = map[y+1][x];
-                int leftTile = map[y][x-1];
-                int rightTile = map[y][x+1];
+    /**
+     * Fills the map, removing any lake inside the perimeter: every tile outside
+     * the outer zones is filled, in a single pass over the outer tiles
+     */
+    void fillMap() {
+        // initialises the filled map layer
+        filledMap = (scratch == null) ?
+                new BitGrid(MAP_WIDTH, MAP_HEIGHT) : scratch.borrow(Scratch.FILLED_MAP, MAP_WIDTH, MAP_HEIGHT);
 
-                // if all these tiles are used exit the while loop
-                final boolean TILE_IS_SURROUND_BY_ONES = (upperTile == 1) && (lowerTile == 1) &&
-                                                         (leftTile == 1) && (rightTile == 1);
+        fillRows(getOuterTiles(), filledMap, 0, MAP_HEIGHT);
+    }
 
-                if (TILE_IS_SURROUND_BY_ONES) break;
+    /**
+     * Fills every tile outside the outer zones in a range of rows, 64 tiles at a time
+     * @param outerTiles the outer tiles layer
+     * @param filledMap the filled map layer
+     * @param fromY the first row of the range (inclusive)
+     * @param toY the last row of the range (exclusive)
+     */
+    private void fillRows(BitGrid outerTiles, BitGrid filledMap, int fromY, int toY) {
+        // the number of words in each row, and the bits of the last word which are part of the row
+        final int STRIDE = map.getStride();
+        final long LAST_WORD_MASK = -1L >>> (63 - ((MAP_WIDTH - 1) & 63));
+
+        // the used tiles and the lakes are the tiles which aren't outer tiles
+        for (int y = fromY; y < toY; y++) {
+            for (int i = 0; i < STRIDE; i++) {
+                long filledTiles = ~outerTiles.getWord(y, i);
+                filledMap.setWord(y, i, (i == STRIDE - 1) ? filledTiles & LAST_WORD_MASK : filledTiles);
             }
-
-            // endregion
-
-            // region no tile to fill
-
-            // if we have reached the end of the map...
-            final boolean HAS_REACHED_END_OF_MAP = (x == MAP_WIDTH-1) && (y == MAP_HEIGHT-1);
-
-            // ...exits the method
-            if (HAS_REACHED_END_OF_MAP) return;
-
-            // endregion
-
-            // while a valid starting point hasn't been found move on to the next tile
-            y = (y+1) % MAP_HEIGHT;
-            x = (x+1) % MAP_WIDTH;
-
-            // updates the tiles
-            curMapTile = map[y][x];
-            curEdgeTile = outerEdges[y][x];
         }
-
-        // floods the map from the valid starting point, if it has been found
-        flood(x, y, filledMap);
     }
 
     // =========================================
@@ -310,13 +441,34 @@ public class EdgeMap {
     // =========================================
 
     /**
-     * Perimeter getter
+     * Perimeter getter, calculating the perimeter on first call
      * @return the edge fence perimeter
+     * @throws IllegalArgumentException if the map is not convex
      */
     public double getFencePerimeter() {
+        // if the perimeter hasn't been calculated yet...
+        if (perimeter < 0) {
+            // ...calculates it from the outer edges and the filled map, detected first so
+            // that their phases aren't measured as part of this one
+            getOuterEdges();
+            getFilledMap();
+            runPhase(PhaseMetrics.Phase.PERIMETER, () -> perimeter = calculateFencePerimeter());
+        }
         return perimeter;
     }
 
+    /**
+     * Perimeter getter, walking along the contour of the map's parcel instead of detecting the layers.
+     * Its time only grows with the length of the perimeter, and it matches {@link #getFencePerimeter()}
+     * when the map holds a single parcel, though it always follows {@link ConvexityRule#SPANS}.
+     * @return the edge fence perimeter
+     * @throws IllegalArgumentException if the map is not convex or holds more than one parcel
+     * @see ContourTracer
+     */
+    public double getContourPerimeter() {
+        return ContourTracer.getFencePerimeter(map);
+    }
+
     /**
      * Calculates the fence's perimeter
      * @return the fence's perimeter
@@ -327,285 +479,458 @@ public class EdgeMap {
     }
 
     /**
-     * Gets the number of fences need to surround the perimeter
+     * Gets the number of fences need to surround the perimeter, counting the
+     * exposed sides of the edges of a whole row at once
      * @return the number of fences needed
      */
-    private double getFenceCount(){
+    double getFenceCount(){
 
-        // the number of edges
-        int fenceCount = 0;
+        // the layers the fences are counted from
+        final BitGrid outerEdges = getOuterEdges();
+        final BitGrid filledMap = getFilledMap();
 
-        // loops through each row in the "outer edges" layer
-        for (int y = 0; y < MAP_HEIGHT; y++) {
-
-            // loops through each tile of the row
-            for (int x = 0; x < MAP_WIDTH; x++) {
-
-                // the current tile
-                int curTile = outerEdges[y][x];
-
-                // if the current tile is not an edge...
-                if (curTile != 1) {
-                    // ...moves on to the next tile
-                    continue;
-                }
-
-                // region special cases
+        // if the map has been edited...
+        if (editor != null) {
+            // ...the fences are already counted, without going through any tile
+            phaseTiles = 0;
+            return fenceCount;
+        }
 
-                // if the current tile is on the top or bottom border...
-                if ((x == 0) || (x == MAP_WIDTH-1)) {
-                    // ...adds an extra fence to it
-                    fenceCount++;
-                }
-                // if the current tile is on the right or left border...
-                if ((y == 0) || (y == MAP_HEIGHT-1)) {
-                    // ...adds an extra fence to it
-                    fenceCount++;
-                }
+        // counts the fences of every stripe of rows and returns the final number of fences
+        return Stripes.sum(pool, Stripes.count(pool, MAP_HEIGHT), MAP_HEIGHT,
+                (stripe, fromY, toY) -> countFences(outerEdges, filledMap, fromY, toY));
+    }
 
-                // endregion
+    /**
+     * Counts the fences needed around the edges of a stripe of rows
+     * @param outerEdges the outer edges layer
+     * @param filledMap the filled map layer
+     * @param fromY the first row of the stripe (inclusive)
+     * @param toY the last row of the stripe (exclusive)
+     * @return the number of fences needed around the edges of the stripe
+     */
+    private long countFences(BitGrid outerEdges, BitGrid filledMap, int fromY, int toY) {
 
-                // region multiple fences per tile
+        // the number of edges
+        long fenceCount = 0;
 
-                // checks whether the current tile has any adjacent empty tiles
-                boolean hasEmptyAbove = upperTileIsEmpty(x, y);
-                boolean hasEmptyBelow = lowerTileIsEmpty(x, y);
-                boolean hasEmptyLeft  =  leftTileIsEmpty(x, y);
-                boolean hasEmptyRight = rightTileIsEmpty(x, y);
+        // the number of words in each row
+        final int STRIDE = outerEdges.getStride();
 
-                // if the tile above is empty...
-                if (hasEmptyAbove) {
-                    // ...counts it as an fence
-                    fenceCount++;
-                }
+        // the masks of the fences of the current word
+        final long[] MASKS = new long[FenceMasks.COUNT];
 
-                // if the tile below is empty...
-                if (hasEmptyBelow) {
-                    // ...counts it as an fence
-                    fenceCount++;
-                }
+        // loops through each row of the stripe in the "outer edges" layer
+        for (int y = fromY; y < toY; y++) {
 
-                // if the tile to the left is empty...
-                if (hasEmptyLeft) {
-                    // ...counts it as an fence
-                    fenceCount++;
-                }
+            // loops through each word of the row
+            for (int i = 0; i < STRIDE; i++) {
 
-                // if the tile to the right is empty...
-                if (hasEmptyRight) {
-                    // ...counts it as an fence
-                    fenceCount++;
+                // if there are no edges in the word...
+                if (outerEdges.getWord(y, i) == 0) {
+                    // ...skips the 64 tiles at once
+                    continue;
                 }
 
-                // endregion
+                // counts the fences of every edge of the word at once
+                FenceMasks.of(outerEdges, filledMap, y, i, MASKS);
+                fenceCount += FenceMasks.count(MASKS);
             }
         }
 
-        // returns the final number of edges
+        // returns the number of edges in the stripe
         return fenceCount;
     }
 
-    // region helper methods
-    private boolean upperTileIsEmpty(int x, int y) {
-        // if there is no upper tile...
-        if (y == 0) {
-            // ...exits the method
-            return false;
+    /**
+     * Region index getter, summing the filled map, the outer edges and their fences on first call
+     * @return the index counting the filled tiles, the edges and the fences inside any rectangle of the map
+     * @throws IllegalArgumentException if the map is not convex
+     */
+    public RegionIndex getRegionIndex() {
+        // if the layers haven't been summed yet...
+        if (regionIndex == null) {
+            // ...sums them, along with the fences of the whole map
+            final long FENCE_COUNT = (long) getFenceCount();
+            regionIndex = new RegionIndex(getFilledMap(), getOuterEdges(), FENCE_COUNT);
         }
+        return regionIndex;
+    }
 
-        // if the tile above is empty
-        return filledMap[y - 1][x] == 0;
+    /**
+     * Parcels getter, analysing every parcel of the map on first call
+     * @return the parcels, ordered by their first tile row after row
+     */
+    public List<Parcel> getParcels() {
+        // if the parcels haven't been analysed yet...
+        if (parcels == null) {
+            // ...analyses them from the map
+            parcels = List.copyOf(ParcelAnalyzer.analyse(map));
+        }
+        return parcels;
     }
-    private boolean lowerTileIsEmpty(int x, int y) {
 
-        // if there is no lower tile...
-        if (y == MAP_HEIGHT-1) {
-            // ...exits the method
-            return false;
+    // =========================================
+    //                  EDITS
+    // =========================================
+
+    /**
+     * Sets a tile of the map, only updating the outer tiles, the outer edges, the filled map and the
+     * fences of the rows around it. The zones are numbered across the whole map, so they are labeled
+     * again from scratch the next time they are needed, and the rule of the recursive flood floods
+     * the whole map again to check whether it is still convex
+     * @param x the x coordinate of the tile
+     * @param y the y coordinate of the tile
+     * @param value the new value of the tile, any value but 0 being a used tile
+     * @throws IndexOutOfBoundsException if the tile is outside the map
+     */
+    public void set(int x, int y, int value) {
+        // prepares the layers to be edited
+        startEditing();
+
+        try {
+            editTile(x, y, value);
+        } finally {
+            updateEditedRows();
         }
+    }
 
-        // if the tile below is empty
-        return filledMap[y + 1][x] == 0;
+    /**
+     * Sets several tiles of the map, only updating the layers around them once every tile has been set.
+     * As with {@link #set(int, int, int)}, the zones are labeled again from scratch when next needed
+     * @param edits the tiles to set, in order
+     * @throws IndexOutOfBoundsException if a tile is outside the map, the tiles before it being set
+     */
+    public void apply(Iterable<TileEdit> edits) {
+        // prepares the layers to be edited
+        startEditing();
+
+        try {
+            for (TileEdit edit : edits) {
+                editTile(edit.getX(), edit.getY(), edit.getValue());
+            }
+        } finally {
+            updateEditedRows();
+        }
     }
-    private boolean leftTileIsEmpty(int x, int y) {
 
-        // if there is no left tile...
-        if (x == 0) {
+    /**
+     * Prepares the layers to be updated as the map is edited, on the first edit
+     */
+    private void startEditing() {
+        // if the map is already being edited...
+        if (editor != null) {
             // ...exits the method
-            return false;
+            return;
         }
 
-        // if the tile to the left is empty
-        return filledMap[y][x - 1] == 0;
-    }
-    private boolean rightTileIsEmpty(int x, int y) {
+        // the map is edited in place, so it must be a copy owned by the edge map
+        if (!ownsMap) {
+            map = BitGrid.copyOf(map);
+            ownsMap = true;
+        }
 
-        // if there is no left tile...
-        if (x == MAP_WIDTH-1) {
-            // ...exits the method
-            return false;
+        // keeps the outer tiles if they have been detected, or floods them without checking if the map is convex
+        editor = new OuterTilesEditor((BitGrid) map, outerTiles);
+        outerTiles = editor.getOuterTiles();
+
+        // the filled map is kept up to date row by row
+        filledMap = new BitGrid(MAP_WIDTH, MAP_HEIGHT);
+        if (outerEdges == null) {
+            outerEdges = new BitGrid(MAP_WIDTH, MAP_HEIGHT);
         }
 
-        // if the tile to the right is empty
-        return filledMap[y][x + 1] == 0;
-    }
-    // endregion
+        // fills the layers and counts the fences and the entering spans of every row
+        rowFences = new int[MAP_HEIGHT];
+        rowEnteringSpans = new int[MAP_HEIGHT];
+        fenceCount = enteringSpanCount = 0;
+        updateRows(0, MAP_HEIGHT);
 
-    // =========================================
-    //              OUTER EDGES
-    // =========================================
+        // the perimeter is calculated again from the new filled map
+        perimeter = -1;
+    }
 
     /**
-     * Detects the outer edges of the base map
+     * Sets a tile of the edited map and updates the outer tiles
+     * @param x the x coordinate of the tile
+     * @param y the y coordinate of the tile
+     * @param value the new value of the tile
+     * @throws IndexOutOfBoundsException if the tile is outside the map
      */
-    private void detectOuterEdges() {
-        // gets the outer zones
-        final ArrayList<Integer> OUTER_ZONES = getOuterZones();
+    private void editTile(int x, int y, int value) {
+        // if the tile is outside the map...
+        if ((x < 0) || (y < 0) || (x >= MAP_WIDTH) || (y >= MAP_HEIGHT)) {
+            // ...throws a new error
+            throw new IndexOutOfBoundsException(String.format("Tile [%s][%s] is outside the map", y, x));
+        }
 
-        // loops through every row in the map...
-        for (int y = 0; y < MAP_HEIGHT; y++) {
-            // loops through each tile in the row...
-            for (int x = 0; x < MAP_WIDTH; x++) {
+        // the new value of the tile, packed as in the map
+        final int TILE = (value != 0) ? 1 : 0;
 
-                // the current tile
-                int curTile = zones[y][x];
+        // if the tile doesn't change...
+        if (map.get(x, y) == TILE) {
+            // ...exits the method
+            return;
+        }
 
-                // region determining edges
+        if (TILE == 0) {
+            editor.setEmpty(x, y);
+        } else {
+            editor.setUsed(x, y);
+        }
 
-                // if the upper tile is an edge, and it hasn't been counted yet...
-                if (isAnOuterEdge(OUTER_ZONES, curTile) && upperTileIsAnEdge(x, y) && notInEdges(x, y-1)) {
-                    // ...counts it as an edge
-                    outerEdges[y-1][x] = 1;
-                }
+        // the zones aren't edited, as splitting or merging one renumbers every zone after it:
+        // they are labeled again from scratch, and the perimeter calculated again, when next needed
+        zones = null;
+        zoneClassification = null;
+        regionIndex = null;
+        parcels = null;
+        zoneCount = 0;
+        perimeter = -1;
+
+        // the map is checked again from scratch under the rule of the recursive flood
+        isFloodChecked = false;
+    }
 
-                // if the lower tile is an edge, and it hasn't been counted yet...
-                if (isAnOuterEdge(OUTER_ZONES, curTile) && lowerTileIsAnEdge(x, y) && notInEdges(x, y+1)) {
-                    // ...counts it as an edge
-                    outerEdges[y+1][x] = 1;
-                }
+    /**
+     * Updates the layers, the fences and the entering spans of the rows around the edited tiles
+     */
+    private void updateEditedRows() {
+        // the outer edges change up to a row away from the edited rows, and the fences another row away
+        int[] ranges = editor.takeDirtyRows(2);
 
-                // if the left tile is an edge, and it hasn't been counted yet...
-                if (isAnOuterEdge(OUTER_ZONES, curTile) && leftTileIsAnEdge(x, y) && notInEdges(x-1, y)) {
-                    // ...counts it as an edge
-                    outerEdges[y][x-1] = 1;
-                }
+        for (int r = 0; r < ranges.length; r += 2) {
+            updateRows(ranges[r], ranges[r + 1]);
+        }
+    }
 
-                // if the right tile is an edge, and it hast been counted yet...
-                if (isAnOuterEdge(OUTER_ZONES, curTile) && rightTileIsAnEdge(x, y) && notInEdges(x+1, y)) {
-                    // ...counts it as an edge
-                    outerEdges[y][x+1] = 1;
-                }
+    /**
+     * Updates the filled map, the outer edges, the fences and the entering spans of a range of rows
+     * @param fromY the first row of the range (inclusive)
+     * @param toY the last row of the range (exclusive)
+     */
+    private void updateRows(int fromY, int toY) {
+        // fills every tile outside the outer zones
+        fillRows(outerTiles, filledMap, fromY, toY);
+
+        // detects the outer edges again
+        detectOuterEdges(outerTiles, outerEdges, fromY, toY);
+
+        // counts the fences and the entering spans again
+        for (int y = fromY; y < toY; y++) {
+            int fences = (int) countFences(outerEdges, filledMap, y, y + 1);
+            fenceCount += fences - rowFences[y];
+            rowFences[y] = fences;
+
+            int enteringSpans = countEnteringSpans(y);
+            enteringSpanCount += enteringSpans - rowEnteringSpans[y];
+            rowEnteringSpans[y] = enteringSpans;
+        }
+    }
 
-                // endregion
-            }
+    /**
+     * Counts the spans of outer tiles of a row which are between two edges,
+     * through which the exterior border enters the map
+     * @param y the y coordinate of the row
+     * @return the number of spans entering the map
+     */
+    private int countEnteringSpans(int y) {
+        // the number of words in each row
+        final int STRIDE = map.getStride();
 
-            // region special cases
+        // the number of spans of outer tiles with a used tile to their left
+        int spanCount = 0;
 
-            // Add edges along the upper and lower rows
-            addRowEdges();
-            // Add edges along the left and right edges
-            addColumnEdges();
+        // whether the row has any used tile
+        boolean hasUsedTiles = false;
 
-            // endregion
+        for (int i = 0; i < STRIDE; i++) {
+            long usedTiles = map.getWord(y, i);
+            long previousCarry = (i == 0) ? 0 : map.getWord(y, i - 1) >>> 63;
+
+            spanCount += Long.bitCount(outerTiles.getWord(y, i) & ((usedTiles << 1) | previousCarry));
+            hasUsedTiles |= usedTiles != 0;
         }
-    }
 
-    // region helper methods
+        // the span along the right border has a used tile to its left, but none to its right
+        if (hasUsedTiles && outerTiles.get(MAP_WIDTH - 1, y) == 1) {
+            spanCount--;
+        }
 
-    // procedural edges
-    private boolean isAnOuterEdge(ArrayList<Integer> outerEdges, int tile) {
-        // if the tile is an outer edge
-        return outerEdges.contains(tile);
+        return spanCount;
     }
-    private boolean notInEdges(int x, int y) {
-        // if the edge has already been counted...
-        // ...do not consider this edge again
-        return outerEdges[y][x] != 1;
-    }
-    private boolean upperTileIsAnEdge(int x, int y) {
-        // if there is no upper tile...
-        if (y == 0) {
+
+    /**
+     * Checks that an edited map is still convex
+     * @throws IllegalArgumentException if the map is not convex
+     */
+    private void checkEditedMap() {
+        // if the map hasn't been edited...
+        if (editor == null) {
             // ...exits the method
-            return false;
+            return;
         }
 
-        // if the upper tile is used
-        return map[y - 1][x] == 1;
-    }
-    private boolean lowerTileIsAnEdge(int x, int y) {
-        // if there is no lower tile...
-        if (y == MAP_HEIGHT-1) {
-            // ...exists the method
-            return false;
+        // if the map follows the rule of the recursive flood...
+        if (convexityRule == ConvexityRule.RECURSIVE_FLOOD) {
+            // ...floods it again, the spans only being counted for the span rule
+            checkRecursiveFlood();
+            return;
         }
 
-        // if the lower tile is used
-        return map[y + 1][x] == 1;
-    }
-    private boolean leftTileIsAnEdge(int x, int y) {
-        // if there is no left tile...
-        if (x == 0) {
-            // ...exists the method
-            return false;
+        // if the map is still convex...
+        if (enteringSpanCount == 0) {
+            // ...exits the method
+            return;
         }
 
-        // if the left tile is used
-        return map[y][x - 1] == 1;
-    }
-    private boolean rightTileIsAnEdge(int x, int y) {
-        // if there is no right tile...
-        if (x == MAP_WIDTH-1) {
-            // ...exists the method
-            return false;
+        // finds the first row with a span entering the map
+        int y = 0;
+        while (rowEnteringSpans[y] == 0) {
+            y++;
         }
 
-        // if the right tile is used
-        return map[y][x + 1] == 1;
-    }
+        // loops through the tiles of the row...
+        for (int x = 1; x < MAP_WIDTH; x++) {
 
-    // map border edges
-    private void addRowEdges() {
-        // loops through all the tiles of the upper and lower rows
-        for (int x = 0; x < MAP_WIDTH; x++) {
+            // if the tile starts a span of outer tiles with an edge to its left...
+            if (outerTiles.get(x, y) == 1 && map.get(x - 1, y) == 1) {
 
-            // if the current tile along the upper row is a new edge...
-            if (map[0][x] == 1 && notInEdges(x, 0)) {
-
-                // ...adds it to the edges
-                outerEdges[0][x] = 1;
-            }
+                // ...finds the end of the span
+                int spanEnd = x;
+                while (spanEnd < MAP_WIDTH - 1 && outerTiles.get(spanEnd + 1, y) == 1) {
+                    spanEnd++;
+                }
 
-            // if the current tile along the lower edge is a new edge...
-            if (map[MAP_HEIGHT - 1][x] == 1 && notInEdges(x, MAP_HEIGHT - 1)) {
+                // if the span also has an edge to its right, the map is not convex
+                if (spanEnd != MAP_WIDTH - 1) {
+                    // throws a new error
+                    MapValidation.entering(x, y).check();
+                }
 
-                // ...adds it to the edges
-                outerEdges[MAP_HEIGHT-1][x] = 1;
+                x = spanEnd;
             }
         }
     }
-    private void addColumnEdges() {
 
-        // loops through the left and right edges
-        for (int y = 0; y < MAP_HEIGHT; y++) {
+    // =========================================
+    //              OUTER EDGES
+    // =========================================
+
+    /**
+     * Detects the outer edges of the base map, 64 tiles at a time
+     */
+    void detectOuterEdges() {
+        // gets the tiles of the outer zones
+        final BitGrid outerTiles = getOuterTiles();
 
-            // if the current tile along the left edge is a new edge...
-            if (map[y][0] == 1 && notInEdges(0, y)) {
+        // initialises the outer edges layer
+        final BitGrid outerEdges = (scratch == null) ?
+                new BitGrid(MAP_WIDTH, MAP_HEIGHT) : scratch.borrow(Scratch.OUTER_EDGES, MAP_WIDTH, MAP_HEIGHT);
+
+        // detects the edges of every stripe of rows, each row having words of its own
+        Stripes.sum(pool, Stripes.count(pool, MAP_HEIGHT), MAP_HEIGHT, (stripe, fromY, toY) -> {
+            detectOuterEdges(outerTiles, outerEdges, fromY, toY);
+            return 0;
+        });
+
+        this.outerEdges = outerEdges;
+    }
+
+    /**
+     * Detects the outer edges of a stripe of rows in a single streaming pass, 64 tiles at a time
+     * @param outerTiles the outer tiles layer
+     * @param outerEdges the outer edges layer
+     * @param fromY the first row of the stripe (inclusive)
+     * @param toY the last row of the stripe (exclusive)
+     */
+    private void detectOuterEdges(BitGrid outerTiles, BitGrid outerEdges, int fromY, int toY) {
+        // the number of words in each row
+        final int STRIDE = map.getStride();
+
+        // the bits of the left and right columns, in the first and last words of a row
+        final long LEFT_COLUMN = 1L;
+        final long RIGHT_COLUMN = 1L << (MAP_WIDTH - 1);
+
+        // region row buffers
+
+        // the outer tiles of the rows above, on and below the current row, each row being read only once
+        long[] upperRow = new long[STRIDE];
+        long[] currentRow = new long[STRIDE];
+        long[] lowerRow = new long[STRIDE];
+
+        // reads the rows around the first row of the stripe
+        for (int i = 0; i < STRIDE; i++) {
+            upperRow[i] = (fromY == 0) ? 0 : outerTiles.getWord(fromY - 1, i);
+            currentRow[i] = outerTiles.getWord(fromY, i);
+        }
 
-                // ...adds it to the edges
-                outerEdges[y][0] = 1;
+        // endregion
+
+        // loops through every row of the stripe...
+        for (int y = fromY; y < toY; y++) {
+
+            // reads the row below
+            for (int i = 0; i < STRIDE; i++) {
+                lowerRow[i] = (y == MAP_HEIGHT - 1) ? 0 : outerTiles.getWord(y + 1, i);
             }
 
-            // if the current tile along the right edge is a new edge...
-            if (map[y][MAP_WIDTH - 1] == 1 && notInEdges(MAP_WIDTH - 1, y)) {
+            // loops through each word in the row...
+            for (int i = 0; i < STRIDE; i++) {
+
+                // the used tiles of the current word
+                long usedTiles = map.getWord(y, i);
+
+                // if there are no used tiles in the word...
+                if (usedTiles == 0) {
+                    // ...there are no edges either
+                    outerEdges.setWord(y, i, 0);
+                    continue;
+                }
+
+                // region determining edges
+
+                // the outer tiles of the current word and the bits they carry over from the words around it
+                long curOuterTiles = currentRow[i];
+                long previousCarry = (i == 0) ? 0 : currentRow[i - 1] >>> 63;
+                long nextCarry = (i == STRIDE - 1) ? 0 : currentRow[i + 1] << 63;
+
+                // the tiles which have an outer tile above, below, to their left or to their right
+                long touchesOuterTiles = upperRow[i] | lowerRow[i] |
+                        (curOuterTiles << 1) | previousCarry |
+                        (curOuterTiles >>> 1) | nextCarry;
+
+                // endregion
+
+                // region special cases
+
+                // every used tile along the upper and lower rows is an edge
+                if ((y == 0) || (y == MAP_HEIGHT - 1)) {
+                    touchesOuterTiles = -1L;
+                }
+
+                // every used tile along the left and right columns is an edge
+                if (i == 0) {
+                    touchesOuterTiles |= LEFT_COLUMN;
+                }
+                if (i == STRIDE - 1) {
+                    touchesOuterTiles |= RIGHT_COLUMN;
+                }
+
+                // endregion
 
-                // ...adds it to the edges
-                outerEdges[y][MAP_WIDTH-1] = 1;
+                // every used tile touching an outer zone is an edge
+                outerEdges.setWord(y, i, usedTiles & touchesOuterTiles);
             }
+
+            // the rows move down by one
+            long[] swap = upperRow;
+            upperRow = currentRow;
+            currentRow = lowerRow;
+            lowerRow = swap;
         }
     }
 
-    // endregion
-
     // =========================================
     //                  ZONES
     // =========================================
@@ -613,125 +938,256 @@ public class EdgeMap {
     /**
      * Detects the zones that compose the base map
      */
-    private void detectZones() {
-
-        // copies the original map to the zone array
-        for (int y = 0; y < MAP_HEIGHT; y++) {
-            zones[y] = Arrays.copyOf(map[y], MAP_WIDTH);
-        }
+    void detectZones() {
+        // checks whether the map is convex, unless the labeler does
+        checkRecursiveFlood();
 
-        // loops through every line...
-        for (int y = 0; y < MAP_HEIGHT; y++) {
-            // loops through every tile in the line...
-            for (int x = 0; x < MAP_WIDTH; x++) {
-
-                // if the tile is unused...
-                if (zones[y][x] == 0) {
-                    // ...floods it
-                    flood(x, y, ++zoneCount, zones);
-                }
-            }
+        // labels the zones
+        zones = getZoneLabeler().label(map);
+        zoneCount = zones.getZoneCount();
+    }
 
+    /**
+     * Zone count getter, labeling the zones on first call unless the outer tiles,
+     * which are always labeled along with the number of zones, have already been detected.
+     * Once the map has been edited, the whole map is labeled again
+     * @return the number of the last zone, the first zone being numbered 2
+     * @throws IllegalArgumentException if the map is not convex
+     */
+    public int getZoneCount() {
+        // if the zones haven't been counted yet...
+        if (zoneCount == 0) {
+            // ...labels them
+            getZones();
         }
+        return zoneCount;
+    }
 
-        // removes the ones in the zones layer for better readability
-        removeOnes(zones);
+    /**
+     * Zone classification getter, labeling and classifying the zones on first call,
+     * and on the first call after the map has been edited
+     * @return the classification of the zones as outer zones or lakes, along with their statistics
+     * @throws IllegalArgumentException if the map is not convex
+     */
+    public ZoneClassification getZoneClassification() {
+        // if the zones haven't been classified yet...
+        if (zoneClassification == null) {
+            // ...classifies them
+            zoneClassification = ZoneClassification.of(getZones());
+        }
+        return zoneClassification;
     }
 
-    private ArrayList<Integer> getOuterZones() {
-        // the zones at the edge of the map
-        ArrayList<Integer> outerZones = new ArrayList<>();
+    /**
+     * Detects the tiles of the zones at the edge of the map, without
+     * labeling every zone if the zones layer hasn't been needed yet
+     */
+    private void detectOuterTiles() {
+        // checks whether the map is convex, unless the labeler does
+        checkRecursiveFlood();
+
+        // the window framing the used tiles, null if the map has no margin to crop
+        final CroppedGrid WINDOW = (zones == null) ? CroppedGrid.around(map) : null;
+
+        // if the zones haven't been detected yet and the map has a margin...
+        if (WINDOW != null) {
+            // ...only labels the tiles inside the window
+            detectOuterTiles(WINDOW);
+            return;
+        }
 
-        // region top and bottom outer zone
+        // if the zones haven't been detected yet...
+        if (zones == null) {
+            // ...only labels the tiles of the outer zones, counting the zones along the way,
+            // the layer only being kept once the map is known to be convex
+            final BitGrid OUTER_TILES = (scratch == null) ?
+                    new BitGrid(MAP_WIDTH, MAP_HEIGHT) : scratch.borrow(Scratch.OUTER_TILES, MAP_WIDTH, MAP_HEIGHT);
+            zoneCount = labelOuterTiles(map, OUTER_TILES);
+            outerTiles = OUTER_TILES;
+            return;
+        }
+
+        // classifies the zones
+        final ZoneClassification CLASSIFICATION = getZoneClassification();
 
-        // checks the tiles at the top of the map
-        for (int tile : zones[0]) {
+        // initialises the outer tiles layer
+        outerTiles = new BitGrid(MAP_WIDTH, MAP_HEIGHT);
 
-            // if the tile is part of a zone and that
-            // zone isn't yet counted as an outer zone...
-            if ((tile > 1) && !(outerZones.contains(tile))) {
+        // loops through every row in the map...
+        for (int y = 0; y < MAP_HEIGHT; y++) {
+            // loops through each tile in the row...
+            for (int x = 0; x < MAP_WIDTH; x++) {
 
-                //...counts it as an outer zone
-                outerZones.add(tile);
+                // if the tile is part of an outer zone...
+                if (CLASSIFICATION.isOuter(zones.get(x, y))) {
+                    // ...adds it to the outer tiles
+                    outerTiles.set(x, y, 1);
+                }
             }
         }
+    }
 
-        // checks the tiles at the bottom of the map
-        for (int tile : zones[MAP_HEIGHT-1]) {
+    /**
+     * Detects the tiles of the outer zones inside a window framing the used tiles, every
+     * tile outside the window being an outer tile
+     * @param window the window framing the used tiles with a margin of one tile
+     * @throws IllegalArgumentException if the map is not convex
+     */
+    private void detectOuterTiles(CroppedGrid window) {
+        // the outer tiles inside the window
+        BitGrid windowTiles;
+
+        try {
+            // labels the tiles of the outer zones of the window, which has as many zones as the map
+            windowTiles = (scratch == null) ? new BitGrid(window.getWidth(), window.getHeight())
+                    : scratch.borrow(Scratch.CROPPED_OUTER_TILES, window.getWidth(), window.getHeight());
+            zoneCount = labelOuterTiles(window, windowTiles);
+        } catch (IllegalArgumentException e) {
+            // if the error can't be found again...
+            final MapValidation VALIDATION = validate(window, ConvexityRule.SPANS);
+            if (VALIDATION.isValid()) {
+                // ...throws it as it is
+                throw e;
+            }
 
-            // if the tile is part of a zone and that
-            // zone isn't yet counted as an outer zone...
-            if ((tile > 1) && !(outerZones.contains(tile))) {
+            // else throws it at its position in the map rather than in the window
+            throw new IllegalArgumentException(MapValidation.entering(VALIDATION.getX() + window.getOriginX(),
+                    VALIDATION.getY() + window.getOriginY()).getMessage(), e);
+        }
 
-                //...counts it as an outer zone
-                outerZones.add(tile);
-            }
+        // only the window's tiles were labeled, though the rule of the recursive flood floods the whole map
+        if (convexityRule == ConvexityRule.SPANS) {
+            phaseTiles = (long) window.getWidth() * window.getHeight();
         }
 
-        // endregion
+        // lays the window's outer tiles back over the whole map
+        outerTiles = (scratch == null) ?
+                new BitGrid(MAP_WIDTH, MAP_HEIGHT) : scratch.borrow(Scratch.OUTER_TILES, MAP_WIDTH, MAP_HEIGHT);
+        window.uncrop(windowTiles, outerTiles, 1);
+    }
 
-        // region left and right outer zones
+    /**
+     * Marks the tiles of the outer zones of a grid into a cleared layer, with the scratch's labeler if there is one
+     * @param grid the map or the window to label
+     * @param outerTiles the cleared layer in which to mark the outer tiles
+     * @return the number of the last zone
+     * @throws IllegalArgumentException if the map is not convex
+     */
+    private int labelOuterTiles(Grid grid, BitGrid outerTiles) {
+        return (scratch == null) ? getZoneLabeler().labelOuterTiles(grid, outerTiles) :
+                scratch.labelOuterTiles(grid, outerTiles, convexityRule == ConvexityRule.SPANS);
+    }
 
-        // checks the tiles to the left and the right of the map
-        for (int y = 0; y < MAP_HEIGHT; y++) {
+    /**
+     * Gets the labeler detecting the zones, which only checks whether the map is convex under the span rule
+     * @return the zone labeler
+     */
+    private ZoneLabeler getZoneLabeler() {
+        return (convexityRule == ConvexityRule.SPANS) ? zoneLabeler : uncheckedZoneLabeler;
+    }
 
-            // the current left tile
-            int leftTile = zones[y][0];
-            // the current right tile
-            int rightTile = zones[y][MAP_WIDTH-1];
+    // =========================================
+    //                CONVEXITY
+    // =========================================
 
-            // if the left tile is part of a zone and that
-            // zone isn't yet counted as an outer zone...
-            if ((leftTile > 1) && !(outerZones.contains(leftTile))) {
+    /**
+     * Convexity rule setter
+     * @param convexityRule the rule deciding whether the map is convex
+     * @throws IllegalStateException if the map has already been analysed or edited
+     */
+    public void setConvexityRule(ConvexityRule convexityRule) {
+        // if a layer has already been checked with the previous rule...
+        if (outerTiles != null || zones != null || editor != null) {
+            // ...throws a new error
+            throw new IllegalStateException("The convexity rule must be set before the map is analysed or edited");
+        }
 
-                //...counts it as an outer zone
-                outerZones.add(leftTile);
-            }
+        this.convexityRule = convexityRule;
+    }
 
-            // if the right tile is part of a zone and that
-            // zone isn't yet counted as an outer zone...
-            if ((rightTile > 1) && !(outerZones.contains(rightTile))) {
+    /**
+     * Convexity rule getter
+     * @return the rule deciding whether the map is convex
+     */
+    public ConvexityRule getConvexityRule() {
+        return convexityRule;
+    }
 
-                //...counts it as an outer zone
-                outerZones.add(rightTile);
-            }
+    /**
+     * Checks whether the map is convex following the rule of the recursive flood, unless
+     * the edge map follows the span rule or the map has already been checked
+     * @throws IllegalArgumentException if the map is not convex
+     */
+    private void checkRecursiveFlood() {
+        // if the labeler checks the map, or the map has already been checked...
+        if (convexityRule != ConvexityRule.RECURSIVE_FLOOD || isFloodChecked) {
+            // ...exits the method
+            return;
         }
 
-        // endregion
-
-        // return the outer zones
-        return outerZones;
+        RecursiveFloodCheck.validate(map).check();
+        isFloodChecked = true;
     }
 
-    private ArrayList<Integer> getInnerZones() {
-        // the zones that are inside the perimeter
-        ArrayList<Integer> innerZones = new ArrayList<>();
+    // =========================================
+    //                 METRICS
+    // =========================================
 
-        // the outer zones
-        ArrayList<Integer> outerZones = getOuterZones();
+    /**
+     * Listener setter
+     * @param listener the listener told about every phase run from now on, or null to stop measuring the phases
+     */
+    public void setListener(EdgeMapListener listener) {
+        this.listener = listener;
+    }
 
-        // finds all the zones...
-        for (int zoneNumber = 2; zoneNumber <= zoneCount; zoneNumber++) {
-            // ...that are not outer zones...
-            if (!outerZones.contains(zoneNumber)) {
-                // ...and adds them to the inner zones
-                innerZones.add(zoneNumber);
-            }
+    /**
+     * Runs a phase, measuring it only if a listener or a flight recording is listening
+     * @param phase the phase to run
+     * @param detection the detection of the phase's layer
+     */
+    private void runPhase(PhaseMetrics.Phase phase, Runnable detection) {
+        // unless a detection goes through fewer tiles, the phase goes through the whole map
+        phaseTiles = (long) MAP_WIDTH * MAP_HEIGHT;
+
+        // if no one is listening...
+        if (listener == null && !PhaseEvent.isRecorded()) {
+            // ...runs the phase without measuring it
+            detection.run();
+            return;
         }
 
-        // returns the inner zones
-        return innerZones;
-    }
+        // the flight recorder event of the phase
+        final PhaseEvent EVENT = new PhaseEvent();
 
-    // region helper method
-    private void removeOnes(int[][] layer) {
-        for (int y = 0; y < MAP_HEIGHT; y++) {
-            for (int x = 0; x < MAP_WIDTH; x++) {
-                if (layer[y][x] == 1) layer[y][x] = 0;
-            }
+        // runs the phase
+        final long ALLOCATED_BEFORE = PhaseMetrics.allocatedBytes();
+        final long START = System.nanoTime();
+        EVENT.begin();
+        detection.run();
+        EVENT.end();
+        final long WALL_NANOS = System.nanoTime() - START;
+        final long ALLOCATED = (ALLOCATED_BEFORE == -1) ? -1 : PhaseMetrics.allocatedBytes() - ALLOCATED_BEFORE;
+
+        // the number of tiles the detection went through
+        final long TILES_VISITED = phaseTiles;
+
+        // tells the listener
+        if (listener != null) {
+            listener.onPhase(new PhaseMetrics(phase, WALL_NANOS, TILES_VISITED, zoneCount, ALLOCATED));
+        }
+
+        // records the event
+        if (EVENT.shouldCommit()) {
+            EVENT.phase = phase.name();
+            EVENT.mapWidth = MAP_WIDTH;
+            EVENT.mapHeight = MAP_HEIGHT;
+            EVENT.tilesVisited = TILES_VISITED;
+            EVENT.zoneCount = zoneCount;
+            EVENT.allocatedBytes = ALLOCATED;
+            EVENT.commit();
         }
     }
-    // endregion
 
     // =========================================
     //                 DISPLAYS
@@ -745,42 +1201,46 @@ public class EdgeMap {
     }
 
     /**
-     * Displays the zones layer
+     * Displays the zones layer, labeling the whole map again if it has been edited
+     * @throws IllegalArgumentException if the map is not convex
      */
     public void displayZones() {
-        display(zones);
+        display(getZones());
     }
 
     /**
      * Displays the outer edges layer
+     * @throws IllegalArgumentException if the map is not convex
      */
     public void displayOuterEdges() {
-        display(outerEdges);
+        display(getOuterEdges());
     }
 
     /**
      * Displays the filled map layer
+     * @throws IllegalArgumentException if the map is not convex
      */
     public void displayFilledMap() {
-        display(filledMap);
+        display(getFilledMap());
     }
 
     // region helper method
-    private void display(int[][] layerToDisplay) {
-        // the string displaying the layer
-        StringBuilder finalDisplay = new StringBuilder();
+    private void display(Grid layerToDisplay) {
+        // the row being converted
+        int[] row = new int[MAP_WIDTH];
 
-        // converts each row to a string
-        for (int[] row: layerToDisplay) {
-            String rowString = Arrays.toString(row) + "\n";
-            finalDisplay.append(rowString);
-        }
+        // displays each row as soon as it is converted, so that the whole layer is never held as text
+        for (int y = 0; y < MAP_HEIGHT; y++) {
+            for (int x = 0; x < MAP_WIDTH; x++) {
+                row[x] = layerToDisplay.get(x, y);
+            }
 
-        // replace zeros by "_" for better readability
-        finalDisplay = new StringBuilder(finalDisplay.toString().replace("0", "_"));
+            // replace zeros by "_" for better readability
+            System.out.print(Arrays.toString(row).replace("0", "_") + "\n");
+        }
 
-        // displays the formatted result
-        System.out.println(finalDisplay);
+        // separates the layer from the next display
+        System.out.println();
     }
     // endregion
 }
@@ -0,0 +1,152 @@
+package Cloture;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Analyses many maps concurrently, finding the fence perimeter, the number of zones
+ * and the filled map of each one
+ *
+ * <p>The maps are split in chunks analysed side by side by the executor. Each chunk borrows
+ * buffers left by the chunks already done, the map and its layers being laid over them,
+ * so that analysing a map allocates little more than its results. Any executor can be
+ * used, be it a fixed pool or one starting a virtual thread per task.
+ *
+ * <p>A map which is not convex doesn't stop the batch: its analysis holds the error instead.
+ */
+public class EdgeMapBatch {
+
+    // the number of chunks per available processor, so that chunks of uneven maps can be balanced
+    private static final int CHUNKS_PER_PROCESSOR = 4;
+
+    // the executor analysing the chunks
+    private final ExecutorService executor;
+
+    // the buffers of the chunks which are done, borrowed by the next chunks
+    private final ConcurrentLinkedQueue<Scratch> scratches;
+
+    /**
+     * Class constructor, analysing the chunks in the common pool
+     */
+    public EdgeMapBatch() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Class constructor
+     * @param executor the executor analysing the chunks of maps, which is never shut down by the batch
+     */
+    public EdgeMapBatch(ExecutorService executor) {
+        this.executor = executor;
+        this.scratches = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * Analyses every map of a stream
+     * @param maps the maps to analyse
+     * @return the analysis of every map, in the order of the stream
+     */
+    public List<MapAnalysis> analyse(Stream<int[][]> maps) {
+        return analyse(maps.collect(Collectors.toList()));
+    }
+
+    /**
+     * Analyses every map of a collection
+     * @param maps the maps to analyse, which must not change while they are analysed
+     * @return the analysis of every map, in the order of the collection
+     */
+    public List<MapAnalysis> analyse(Collection<int[][]> maps) {
+        // the maps and their analyses
+        final int[][][] MAPS = maps.toArray(new int[0][][]);
+        final MapAnalysis[] ANALYSES = new MapAnalysis[MAPS.length];
+
+        // if there is no map...
+        if (MAPS.length == 0) {
+            // ...there is nothing to analyse
+            return new ArrayList<>();
+        }
+
+        // splits the maps in chunks
+        final int CHUNK_COUNT = Math.min(MAPS.length,
+                Runtime.getRuntime().availableProcessors() * CHUNKS_PER_PROCESSOR);
+
+        // the task analysing each chunk
+        List<Callable<Void>> tasks = new ArrayList<>(CHUNK_COUNT);
+        for (int chunk = 0; chunk < CHUNK_COUNT; chunk++) {
+            final int FROM = (int) ((long) MAPS.length * chunk / CHUNK_COUNT);
+            final int TO = (int) ((long) MAPS.length * (chunk + 1) / CHUNK_COUNT);
+            tasks.add(() -> {
+                analyseChunk(MAPS, ANALYSES, FROM, TO);
+                return null;
+            });
+        }
+
+        // runs the tasks, rethrowing the first unexpected error
+        try {
+            for (Future<Void> result : executor.invokeAll(tasks)) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            // rethrows the error of the task as it is
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IllegalStateException(cause);
+        }
+
+        return Arrays.asList(ANALYSES);
+    }
+
+    /**
+     * Analyses a chunk of maps with the same buffers
+     * @param maps every map of the batch
+     * @param analyses the analysis of every map of the batch
+     * @param from the index of the first map of the chunk (inclusive)
+     * @param to the index of the last map of the chunk (exclusive)
+     */
+    private void analyseChunk(int[][][] maps, MapAnalysis[] analyses, int from, int to) {
+        // borrows the buffers of a chunk which is done, if any
+        Scratch scratch = scratches.poll();
+        if (scratch == null) {
+            scratch = new Scratch();
+        }
+
+        try {
+            // loops through every map of the chunk...
+            for (int i = from; i < to; i++) {
+                // ...and analyses it
+                analyses[i] = analyse(maps[i], scratch);
+            }
+        } finally {
+            // gives the buffers back to the next chunks
+            scratches.offer(scratch);
+        }
+    }
+
+    // region helper methods
+    private static MapAnalysis analyse(int[][] map, Scratch scratch) {
+        EdgeMap edgeMap = new EdgeMap(map, scratch);
+
+        try {
+            // the perimeter labels the outer tiles, counting the zones along the way
+            double fencePerimeter = edgeMap.getFencePerimeter();
+            return new MapAnalysis(fencePerimeter, edgeMap.getZoneCount(), edgeMap.copyFilledMap());
+        } catch (IllegalArgumentException e) {
+            return new MapAnalysis(e);
+        }
+    }
+    // endregion
+}
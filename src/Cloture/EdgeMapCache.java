@@ -0,0 +1,236 @@
+package Cloture;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Caches the analysis of the maps asked for again, finding them by a hash of their tiles
+ *
+ * <p>Each map is packed and hashed with the 64-bit xxHash of its words. The entry found under
+ * the hash keeps the packed map, which is compared with the map asked for, so that a collision
+ * is analysed again rather than answered with the results of another map.
+ *
+ * <p>The cache holds at most a number of entries and of bytes, evicting the entries used
+ * the longest time ago first. It can be shared by many threads: two threads asking for the
+ * same unknown map at once may both analyse it.
+ */
+public final class EdgeMapCache {
+
+    // the estimated number of bytes held by an entry on top of its words
+    private static final long ENTRY_OVERHEAD = 96;
+
+    // the engine analysing the maps which aren't in the cache
+    private final EdgeMapEngine engine;
+
+    // the most entries and bytes the cache may hold
+    private final int maxEntries;
+    private final long maxBytes;
+
+    // whether the entries keep the filled map
+    private final boolean keepsLayers;
+
+    // the entries by hash, from the entry used the longest time ago to the last one used
+    private final LinkedHashMap<Long, Entry> entries;
+
+    // region statistics
+
+    // the bytes held by the entries
+    private long byteSize;
+
+    // the number of hits, misses, collisions and evictions
+    private long hitCount;
+    private long missCount;
+    private long collisionCount;
+    private long evictionCount;
+
+    // endregion
+
+    /**
+     * Class constructor, analysing the maps in the calling thread and keeping their filled map
+     * @param maxEntries the most entries the cache may hold
+     * @param maxBytes the most bytes the entries may hold
+     */
+    public EdgeMapCache(int maxEntries, long maxBytes) {
+        this(new EdgeMapEngine(), maxEntries, maxBytes, true);
+    }
+
+    /**
+     * Class constructor
+     * @param engine the engine analysing the maps which aren't in the cache
+     * @param maxEntries the most entries the cache may hold
+     * @param maxBytes the most bytes the entries may hold
+     * @param keepsLayers whether the entries keep the filled map, which otherwise isn't part of the analyses
+     * @throws IllegalArgumentException if a bound is not positive
+     */
+    public EdgeMapCache(EdgeMapEngine engine, int maxEntries, long maxBytes, boolean keepsLayers) {
+        // if a bound is not positive...
+        if (maxEntries <= 0 || maxBytes <= 0) {
+            // ...throws a new error
+            throw new IllegalArgumentException(String.format("The bounds of a cache must be positive, not %s entries " +
+                    "and %s bytes", maxEntries, maxBytes));
+        }
+
+        this.engine = engine;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.keepsLayers = keepsLayers;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    // =========================================
+    //                 ANALYSIS
+    // =========================================
+
+    /**
+     * Analyses a map, or finds its analysis in the cache
+     * @param map the map to analyse
+     * @return the analysis of the map, holding the error found if the map is not convex
+     */
+    public MapAnalysis analyse(int[][] map) {
+        return analyse(BitGrid.of(map));
+    }
+
+    /**
+     * Analyses a map, or finds its analysis in the cache
+     * @param map the map to analyse, which is packed before being hashed
+     * @return the analysis of the map, holding the error found if the map is not convex
+     */
+    public MapAnalysis analyse(Grid map) {
+        return analyse(BitGrid.copyOf(map));
+    }
+
+    /**
+     * Analyses a packed map, or finds its analysis in the cache
+     * @param map the packed map, which the cache keeps and must not change anymore
+     * @return the analysis of the map, holding the error found if the map is not convex
+     */
+    private MapAnalysis analyse(BitGrid map) {
+        final long HASH = map.contentHash();
+
+        // region lookup
+
+        synchronized (this) {
+            Entry entry = entries.get(HASH);
+
+            // if the entry holds the same map...
+            if (entry != null && entry.map.hasSameTiles(map)) {
+                // ...answers with its analysis
+                hitCount++;
+                return entry.copyAnalysis();
+            }
+
+            // otherwise the map is analysed, replacing any other map with the same hash
+            missCount++;
+            if (entry != null) {
+                collisionCount++;
+            }
+        }
+
+        // endregion
+
+        // analyses the map outside the lock, so that other maps can be found meanwhile
+        Entry entry = new Entry(map, analyseMap(map));
+
+        // region insertion
+
+        synchronized (this) {
+            // if the entry can't fit in the cache...
+            if (entry.byteSize > maxBytes) {
+                // ...only answers with it
+                return entry.copyAnalysis();
+            }
+
+            // replaces any entry with the same hash
+            Entry replaced = entries.put(HASH, entry);
+            byteSize += entry.byteSize - ((replaced == null) ? 0 : replaced.byteSize);
+
+            // evicts the entries used the longest time ago until the cache is within its bounds
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (entries.size() > maxEntries || byteSize > maxBytes) {
+                Entry evicted = iterator.next();
+                iterator.remove();
+                byteSize -= evicted.byteSize;
+                evictionCount++;
+            }
+        }
+
+        // endregion
+
+        return entry.copyAnalysis();
+    }
+
+    /**
+     * Empties the cache, keeping its statistics
+     */
+    public synchronized void clear() {
+        entries.clear();
+        byteSize = 0;
+    }
+
+    /**
+     * Statistics getter
+     * @return a snapshot of the statistics of the cache
+     */
+    public synchronized CacheStatistics getStatistics() {
+        return new CacheStatistics(hitCount, missCount, collisionCount, evictionCount, entries.size(), byteSize);
+    }
+
+    // region helper methods
+    private MapAnalysis analyseMap(BitGrid map) {
+        EdgeMap edgeMap = engine.analyse(map);
+
+        try {
+            // the perimeter labels the outer tiles, counting the zones along the way
+            double fencePerimeter = edgeMap.getFencePerimeter();
+            return new MapAnalysis(fencePerimeter, edgeMap.getZoneCount(), keepsLayers ? edgeMap.copyFilledMap() : null);
+        } catch (IllegalArgumentException e) {
+            return new MapAnalysis(e);
+        }
+    }
+    // endregion
+
+    /**
+     * A map of the cache and its analysis
+     */
+    private static final class Entry {
+
+        // the packed map, compared with the maps with the same hash
+        private final BitGrid map;
+
+        // the analysis of the map
+        private final MapAnalysis analysis;
+
+        // the estimated number of bytes held by the entry
+        private final long byteSize;
+
+        /**
+         * Class constructor
+         * @param map the packed map
+         * @param analysis the analysis of the map
+         */
+        private Entry(BitGrid map, MapAnalysis analysis) {
+            this.map = map;
+            this.analysis = analysis;
+
+            // the words of the map and of its filled map
+            final long WORDS = (long) map.getStride() * map.getHeight();
+            final boolean HAS_FILLED_MAP = analysis.isValid() && analysis.getFilledMap() != null;
+            this.byteSize = ENTRY_OVERHEAD + WORDS * Long.BYTES * (HAS_FILLED_MAP ? 2 : 1);
+        }
+
+        /**
+         * Copies the analysis, so that the filled map of the entry can't be changed by the caller
+         * @return the analysis, with a copy of the filled map
+         */
+        private MapAnalysis copyAnalysis() {
+            // if there is no filled map to copy...
+            if (!analysis.isValid() || analysis.getFilledMap() == null) {
+                // ...the analysis can be shared
+                return analysis;
+            }
+
+            return new MapAnalysis(analysis.getFencePerimeter(), analysis.getZoneCount(),
+                    new BitGrid(analysis.getFilledMap()));
+        }
+    }
+}
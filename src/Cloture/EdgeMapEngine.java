@@ -0,0 +1,105 @@
+package Cloture;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The stateless part of the edge detection: the zone labeler and the pool
+ * shared by every edge map the engine creates
+ *
+ * <p>An engine keeps nothing of the maps it analyses, so a single engine can serve any number
+ * of threads at once. Each edge map it creates is the context of a single analysis, holding
+ * the layers of its map, and is only used by the thread asking for it.
+ */
+public final class EdgeMapEngine {
+
+    // the zone labeler used to detect the zones
+    private final ZoneLabeler zoneLabeler;
+
+    // the pool processing stripes of the layers in parallel, null to process them in the calling thread
+    private final ForkJoinPool pool;
+
+    // the listener told about the phases of every edge map, null to leave the phases unmeasured
+    private final EdgeMapListener listener;
+
+    /**
+     * Class constructor, processing every map in the calling thread
+     */
+    public EdgeMapEngine() {
+        this(new UnionFindZoneLabeler(), null);
+    }
+
+    /**
+     * Class constructor
+     * @param zoneLabeler the zone labeler used to detect the zones, which must hold no state of any map
+     * @param pool the pool processing stripes of the layers in parallel, or null to process them sequentially
+     */
+    public EdgeMapEngine(ZoneLabeler zoneLabeler, ForkJoinPool pool) {
+        this(zoneLabeler, pool, null);
+    }
+
+    /**
+     * Class constructor
+     * @param zoneLabeler the zone labeler used to detect the zones
+     * @param pool the pool processing stripes of the layers in parallel, or null to process them sequentially
+     * @param listener the listener told about the phases of every edge map, or null to leave them unmeasured
+     */
+    private EdgeMapEngine(ZoneLabeler zoneLabeler, ForkJoinPool pool, EdgeMapListener listener) {
+        this.zoneLabeler = zoneLabeler;
+        this.pool = pool;
+        this.listener = listener;
+    }
+
+    /**
+     * Creates an engine processing stripes of the layers of every map in parallel
+     * @param pool the pool processing the stripes
+     * @return the engine
+     */
+    public static EdgeMapEngine parallel(ForkJoinPool pool) {
+        return new EdgeMapEngine(new UnionFindZoneLabeler(pool), pool);
+    }
+
+    /**
+     * Creates the same engine, telling a listener about the phases of every edge map it creates
+     * @param listener the listener, called from every thread using the engine, or null to leave the phases unmeasured
+     * @return the engine
+     */
+    public EdgeMapEngine withListener(EdgeMapListener listener) {
+        return new EdgeMapEngine(zoneLabeler, pool, listener);
+    }
+
+    // =========================================
+    //                 ANALYSIS
+    // =========================================
+
+    /**
+     * Starts the analysis of a map, copying it
+     * @param map the map to detect the edges of
+     * @return the edge map, the context of the analysis, every layer being detected the first time it is needed
+     */
+    public EdgeMap analyse(int[][] map) {
+        EdgeMap edgeMap = new EdgeMap(map, zoneLabeler, pool);
+        edgeMap.setListener(listener);
+        return edgeMap;
+    }
+
+    /**
+     * Starts the analysis of a map, without copying it
+     * @param map the map to detect the edges of, which must not change while the edge map is used
+     * @return the edge map, the context of the analysis, every layer being detected the first time it is needed
+     */
+    public EdgeMap analyse(Grid map) {
+        EdgeMap edgeMap = new EdgeMap(map, zoneLabeler, pool);
+        edgeMap.setListener(listener);
+        return edgeMap;
+    }
+
+    /**
+     * Gets the fence perimeter of a map
+     * @param map the map to measure
+     * @return the fence perimeter
+     * @throws IllegalArgumentException if the map is not convex
+     */
+    public double getFencePerimeter(Grid map) {
+        return analyse(map).getFencePerimeter();
+    }
+}
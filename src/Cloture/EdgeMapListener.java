@@ -0,0 +1,16 @@
+package Cloture;
+
+/**
+ * A listener told about every phase an edge map runs, so that a slow map can be traced back to its slowest phase
+ *
+ * <p>An edge map without a listener doesn't measure its phases at all.
+ */
+@FunctionalInterface
+public interface EdgeMapListener {
+
+    /**
+     * Called once a phase of an edge map is done, in the thread which asked for it
+     * @param metrics the metrics of the phase
+     */
+    void onPhase(PhaseMetrics metrics);
+}
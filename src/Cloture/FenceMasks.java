@@ -0,0 +1,100 @@
+package Cloture;
+
+/**
+ * Finds the fences needed around the edges of a word of a map, 64 tiles at a time
+ *
+ * <p>Each kind of fence gets a mask holding a bit for every edge of the word which needs one:
+ * a fence along the left or right border, one along the upper or lower border, and one on each
+ * side touching an empty tile. An edge needs as many fences as the masks holding its bit.
+ */
+final class FenceMasks {
+
+    // the number of masks of a word, one per kind of fence
+    static final int COUNT = 6;
+
+    private FenceMasks() {}
+
+    /**
+     * Finds the fences needed around the edges of a word
+     * @param outerEdges the outer edges layer
+     * @param filledMap the filled map layer
+     * @param y the y coordinate of the word's row
+     * @param i the index of the word in its row
+     * @param masks where to store the {@link #COUNT} masks of the word
+     */
+    static void of(BitGrid outerEdges, BitGrid filledMap, int y, int i, long[] masks) {
+        // the map's width and height, and the number of words in each row
+        final int WIDTH = outerEdges.getWidth();
+        final int HEIGHT = outerEdges.getHeight();
+        final int STRIDE = outerEdges.getStride();
+
+        // the bits of the left and right columns, in the first and last words of a row
+        final long LEFT_COLUMN = 1L;
+        final long RIGHT_COLUMN = 1L << (WIDTH - 1);
+
+        // the edges packed in the word
+        final long EDGES = outerEdges.getWord(y, i);
+
+        // the filled tiles of the word and the bits they carry over from the words around it
+        final long FILLED_TILES = filledMap.getWord(y, i);
+        final long PREVIOUS_CARRY = (i == 0) ? 0 : filledMap.getWord(y, i - 1) >>> 63;
+        final long NEXT_CARRY = (i == STRIDE - 1) ? 0 : filledMap.getWord(y, i + 1) << 63;
+
+        // the tiles which exist to the left and to the right of each edge
+        final long HAS_LEFT_TILE = (i == 0) ? ~LEFT_COLUMN : -1L;
+        final long HAS_RIGHT_TILE = (i == STRIDE - 1) ? ~RIGHT_COLUMN : -1L;
+
+        // region special cases
+
+        // the edges on the left or right border get an extra fence
+        masks[0] = EDGES & (~HAS_LEFT_TILE | ~HAS_RIGHT_TILE);
+
+        // the edges on the top or bottom border get an extra fence
+        masks[1] = (y == 0 || y == HEIGHT - 1) ? EDGES : 0;
+
+        // endregion
+
+        // region multiple fences per tile
+
+        // the edges with an empty tile above
+        masks[2] = (y != 0) ? EDGES & ~filledMap.getWord(y - 1, i) : 0;
+
+        // the edges with an empty tile below
+        masks[3] = (y != HEIGHT - 1) ? EDGES & ~filledMap.getWord(y + 1, i) : 0;
+
+        // the edges with an empty tile to their left
+        masks[4] = EDGES & HAS_LEFT_TILE & ~((FILLED_TILES << 1) | PREVIOUS_CARRY);
+
+        // the edges with an empty tile to their right
+        masks[5] = EDGES & HAS_RIGHT_TILE & ~((FILLED_TILES >>> 1) | NEXT_CARRY);
+
+        // endregion
+    }
+
+    /**
+     * Counts the fences needed around the edges of a word
+     * @param masks the masks of the word
+     * @return the number of fences
+     */
+    static long count(long[] masks) {
+        long count = 0;
+        for (long mask : masks) {
+            count += Long.bitCount(mask);
+        }
+        return count;
+    }
+
+    /**
+     * Counts the fences needed around a single edge of a word
+     * @param masks the masks of the word
+     * @param bit the bit of the edge in the word
+     * @return the number of fences, 0 if the tile isn't an edge
+     */
+    static int count(long[] masks, int bit) {
+        int count = 0;
+        for (long mask : masks) {
+            count += (int) (mask >>> bit) & 1;
+        }
+        return count;
+    }
+}
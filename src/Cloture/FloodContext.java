@@ -0,0 +1,50 @@
+package Cloture;
+
+/**
+ * The state of the floods of a single caller: the work queue, kept from one flood to the next,
+ * and the variables used to check whether the map is convex, reset at the start of every flood
+ *
+ * <p>Flood fills hold no state of their own, so that a single flood fill can be shared by many
+ * threads: each thread floods with a context of its own, which must never be shared.
+ */
+public final class FloodContext {
+
+    // region work queue
+
+    // the x and y coordinates of the seeds left to flood, stored in pairs
+    int[] queue;
+
+    // the number of coordinates currently in the queue
+    int queueSize;
+
+    // endregion
+
+    // region flood fields
+
+    // the maximum and minimum flood x and y coordinates
+    int maxFloodX, minFloodX, maxFloodY, minFloodY;
+
+    // the x-coordinates of the edge to the left and to the right of the current span
+    int leftFloodEdgeX, rightFloodEdgeX;
+
+    // the coordinates of the first span of the flood found between two edges
+    int enteringX, enteringY;
+
+    // whether the floods check if the map is convex, following the span rule
+    boolean checkConvex = true;
+
+    // endregion
+
+    // the width and height of the layer being flooded
+    int layerWidth;
+    int layerHeight;
+
+    /**
+     * Class constructor
+     */
+    public FloodContext() {
+        // initialises the work queue with room for a few spans
+        queue = new int[64];
+        queueSize = 0;
+    }
+}
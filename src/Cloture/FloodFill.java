@@ -0,0 +1,37 @@
+package Cloture;
+
+/**
+ * A strategy used to flood the layers of an edge map
+ *
+ * <p>A flood fill keeps no state between floods, so that it can be shared by many threads:
+ * whatever a flood needs is kept in its context.
+ */
+public interface FloodFill {
+
+    /**
+     * Floods the layer with a specific zone AND checks if the map is convex
+     * @param map the base map, used to find the edges surrounding the flood
+     * @param layer the layer to flood
+     * @param x the x coordinate at which to start the flood
+     * @param y the y coordinate at which to start the flood
+     * @param zone the zone which will flood the layer
+     * @throws IllegalArgumentException if the map is not convex
+     */
+    void flood(Grid map, Layer layer, int x, int y, int zone);
+
+    /**
+     * Floods the layer with a specific zone AND checks if the map is convex, keeping the
+     * state of the flood in a context which the caller may reuse for its next floods
+     * @param map the base map, used to find the edges surrounding the flood
+     * @param layer the layer to flood
+     * @param x the x coordinate at which to start the flood
+     * @param y the y coordinate at which to start the flood
+     * @param zone the zone which will flood the layer
+     * @param context the context of the flood, used by a single thread at a time
+     * @throws IllegalArgumentException if the map is not convex and the context checks it
+     */
+    default void flood(Grid map, Layer layer, int x, int y, int zone, FloodContext context) {
+        // floods the layer without the context
+        flood(map, layer, x, y, zone);
+    }
+}
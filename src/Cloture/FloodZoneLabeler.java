@@ -0,0 +1,106 @@
+package Cloture;
+
+/**
+ * A zone labeler which floods every zone one after the other
+ */
+public class FloodZoneLabeler implements ZoneLabeler {
+
+    // the flood fill used to flood the zones
+    private final FloodFill floodFill;
+
+    // whether the floods check if the map is convex, following the span rule
+    private final boolean checkConvex;
+
+    /**
+     * Class constructor
+     * @param floodFill the flood fill used to flood the zones
+     */
+    public FloodZoneLabeler(FloodFill floodFill) {
+        this(floodFill, true);
+    }
+
+    /**
+     * Class constructor
+     * @param floodFill the flood fill used to flood the zones
+     * @param checkConvex whether the floods check if the map is convex, following the span rule
+     */
+    private FloodZoneLabeler(FloodFill floodFill, boolean checkConvex) {
+        this.floodFill = floodFill;
+        this.checkConvex = checkConvex;
+    }
+
+    @Override
+    public ZoneGrid label(Grid map) {
+        // the map's width and height
+        final int MAP_HEIGHT = map.getHeight();
+        final int MAP_WIDTH = map.getWidth();
+
+        // the number of the last zone
+        int zoneCount = 1;
+
+        // the context of the floods, whose work queue is kept from one zone to the next
+        FloodContext context = new FloodContext();
+        context.checkConvex = checkConvex;
+
+        // copies the original map to a zone layer of bytes, only widened once a zone doesn't fit
+        ZoneGrid layer = ZoneGrid.create(MAP_WIDTH, MAP_HEIGHT, 0xFF);
+        for (int y = 0; y < MAP_HEIGHT; y++) {
+            for (int x = 0; x < MAP_WIDTH; x++) {
+                layer.set(x, y, map.get(x, y));
+            }
+        }
+
+        // loops through every line...
+        for (int y = 0; y < MAP_HEIGHT; y++) {
+            // loops through every tile in the line...
+            for (int x = 0; x < MAP_WIDTH; x++) {
+
+                // if the tile is unused...
+                if (layer.get(x, y) == 0) {
+                    // ...widens the layer if the next zone doesn't fit in it
+                    if (++zoneCount > layer.getZoneCount()) {
+                        layer = widen(layer, zoneCount);
+                    }
+
+                    // ...and floods it
+                    floodFill.flood(map, layer, x, y, zoneCount, context);
+                }
+            }
+        }
+
+        // copies the zones to the narrowest layer which can hold them,
+        // removing the ones for better readability
+        ZoneGrid zones = ZoneGrid.create(MAP_WIDTH, MAP_HEIGHT, zoneCount);
+        for (int y = 0; y < MAP_HEIGHT; y++) {
+            for (int x = 0; x < MAP_WIDTH; x++) {
+                int tile = layer.get(x, y);
+                if (tile != 1) zones.set(x, y, tile);
+            }
+        }
+
+        return zones;
+    }
+
+    @Override
+    public FloodZoneLabeler withoutConvexityCheck() {
+        // only the context of the floods can tell the flood fill to skip the check
+        return checkConvex ? new FloodZoneLabeler(floodFill, false) : this;
+    }
+
+    // region helper methods
+    private static ZoneGrid widen(ZoneGrid layer, int zoneCount) {
+        // the next width able to hold the zone
+        final int LAST_ZONE = (zoneCount <= 0xFFFF) ? 0xFFFF : Integer.MAX_VALUE;
+
+        // copies the tiles flooded so far to the wider layer
+        ZoneGrid widened = ZoneGrid.create(layer.getWidth(), layer.getHeight(), LAST_ZONE);
+        for (int y = 0; y < layer.getHeight(); y++) {
+            for (int x = 0; x < layer.getWidth(); x++) {
+                widened.set(x, y, layer.get(x, y));
+            }
+        }
+
+        return widened;
+    }
+    // endregion
+}
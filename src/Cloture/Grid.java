@@ -0,0 +1,54 @@
+package Cloture;
+
+/**
+ * A read-only grid of tiles, such as the base map of an edge map
+ */
+public interface Grid {
+
+    /**
+     * Width getter
+     * @return the number of tiles in each row of the grid
+     */
+    int getWidth();
+
+    /**
+     * Height getter
+     * @return the number of rows in the grid
+     */
+    int getHeight();
+
+    /**
+     * Gets the value of a tile
+     * @param x the x coordinate of the tile
+     * @param y the y coordinate of the tile
+     * @return the value of the tile
+     */
+    int get(int x, int y);
+
+    /**
+     * Stride getter
+     * @return the number of 64 tile words in each row
+     */
+    default int getStride() {
+        return (getWidth() + 63) >>> 6;
+    }
+
+    /**
+     * Gets 64 tiles of a row packed in a word, the tile at x being stored in bit {@code x % 64}
+     * @param y the y coordinate of the row
+     * @param i the index of the word in the row
+     * @return a word with a 1 for every tile which isn't 0, and no bit set past the end of the row
+     */
+    default long getWord(int y, int i) {
+        // the x coordinates of the first tile of the word and of the tile past its end
+        int fromX = i << 6;
+        int toX = Math.min(fromX + 64, getWidth());
+
+        // packs every used tile of the word
+        long word = 0;
+        for (int x = fromX; x < toX; x++) {
+            if (get(x, y) != 0) word |= 1L << x;
+        }
+        return word;
+    }
+}
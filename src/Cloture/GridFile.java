@@ -0,0 +1,231 @@
+package Cloture;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads and writes grids in a binary file format which can be memory-mapped,
+ * so that grids larger than the heap can be analysed
+ *
+ * <p>A grid file starts with a 16 byte little-endian header: the magic number
+ * {@code "CLTR"}, the width, the height and the number of bits per tile (1 or 8).
+ * The rows follow, each one starting on a new 64 bit word when there is 1 bit
+ * per tile (with the same layout as a {@link BitGrid}), or holding one byte per
+ * tile when there are 8 bits per tile.
+ */
+public final class GridFile {
+
+    // the magic number starting every grid file
+    public static final int MAGIC = 0x52544C43;
+
+    // the number of bytes in the header
+    public static final int HEADER_SIZE = 16;
+
+    private GridFile() {}
+
+    // =========================================
+    //                  WRITE
+    // =========================================
+
+    /**
+     * Writes a grid to a file, one row at a time
+     * @param path the file to write
+     * @param grid the grid to write
+     * @param bitsPerTile the number of bits per tile, 1 or 8
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path path, Grid grid, int bitsPerTile) throws IOException {
+        // the grid's width and height
+        final int WIDTH = grid.getWidth();
+        final int HEIGHT = grid.getHeight();
+
+        // the number of bytes in each row
+        final int ROW_BYTES = rowBytes(WIDTH, bitsPerTile);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+
+            // writes the header
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(WIDTH).putInt(HEIGHT).putInt(bitsPerTile).flip();
+            writeFully(channel, header);
+
+            // the buffer holding the row being written
+            ByteBuffer row = ByteBuffer.allocate(ROW_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+            // writes every row
+            for (int y = 0; y < HEIGHT; y++) {
+                row.clear();
+                if (bitsPerTile == 1) {
+                    for (int i = 0; i < grid.getStride(); i++) {
+                        row.putLong(grid.getWord(y, i));
+                    }
+                } else {
+                    for (int x = 0; x < WIDTH; x++) {
+                        row.put((byte) grid.get(x, y));
+                    }
+                }
+                row.flip();
+                writeFully(channel, row);
+            }
+        }
+    }
+
+    // =========================================
+    //                   MAP
+    // =========================================
+
+    /**
+     * Maps a grid file in memory, its tiles being read from the file as they are needed
+     * @param path the file to map
+     * @return the mapped grid
+     * @throws IOException if the file cannot be read or isn't a grid file
+     */
+    public static Grid map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+
+            // reads the header
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) break;
+            }
+            header.flip();
+
+            // if the header is incorrect...
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+                // ...throws a new error
+                throw new IOException(String.format("%s is not a grid file", path));
+            }
+
+            // the grid's width, height and number of bits per tile
+            final int WIDTH = header.getInt();
+            final int HEIGHT = header.getInt();
+            final int BITS_PER_TILE = header.getInt();
+
+            // if the header is incorrect...
+            if (WIDTH <= 0 || HEIGHT <= 0 || (BITS_PER_TILE != 1 && BITS_PER_TILE != 8)) {
+                // ...throws a new error
+                throw new IOException(String.format("%s has an incorrect header: %s x %s with %s bits per tile",
+                        path, WIDTH, HEIGHT, BITS_PER_TILE));
+            }
+
+            // the number of bytes in each row
+            final int ROW_BYTES = rowBytes(WIDTH, BITS_PER_TILE);
+
+            // if the file is too short for its rows...
+            if (channel.size() < HEADER_SIZE + (long) ROW_BYTES * HEIGHT) {
+                // ...throws a new error
+                throw new IOException(String.format("%s is truncated", path));
+            }
+
+            // maps the rows, the mapping staying valid once the channel is closed
+            MappedRows rows = new MappedRows(channel, FileChannel.MapMode.READ_ONLY, HEADER_SIZE, ROW_BYTES, HEIGHT);
+
+            return (BITS_PER_TILE == 1) ? new MappedBitGrid(rows, WIDTH, HEIGHT) : new MappedByteGrid(rows, WIDTH, HEIGHT);
+        }
+    }
+
+    // region helper methods
+    private static int rowBytes(int width, int bitsPerTile) {
+        // checks the number of bits per tile
+        if (bitsPerTile != 1 && bitsPerTile != 8) {
+            throw new IllegalArgumentException(String.format("Unsupported number of bits per tile: %s", bitsPerTile));
+        }
+
+        return (bitsPerTile == 1) ? ((width + 63) >>> 6) * Long.BYTES : width;
+    }
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+    // endregion
+
+    // =========================================
+    //              IMPLEMENTATIONS
+    // =========================================
+
+    // region mapped grids
+    private static final class MappedBitGrid implements Grid {
+        private final MappedRows rows;
+        private final int width;
+        private final int height;
+
+        // the bits of the last word of a row which are part of the row, the file's padding being ignored
+        private final long lastWordMask;
+
+        private MappedBitGrid(MappedRows rows, int width, int height) {
+            this.rows = rows;
+            this.width = width;
+            this.height = height;
+            this.lastWordMask = -1L >>> (63 - ((width - 1) & 63));
+        }
+
+        @Override
+        public int getWidth() {
+            return width;
+        }
+
+        @Override
+        public int getHeight() {
+            return height;
+        }
+
+        @Override
+        public int get(int x, int y) {
+            return (int) (getWord(y, x >>> 6) >>> x) & 1;
+        }
+
+        @Override
+        public long getWord(int y, int i) {
+            final long WORD = rows.buffer(y).getLong(rows.offset(y) + i * Long.BYTES);
+            return (i == getStride() - 1) ? WORD & lastWordMask : WORD;
+        }
+    }
+    private static final class MappedByteGrid implements Grid {
+        private final MappedRows rows;
+        private final int width;
+        private final int height;
+
+        private MappedByteGrid(MappedRows rows, int width, int height) {
+            this.rows = rows;
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        public int getWidth() {
+            return width;
+        }
+
+        @Override
+        public int getHeight() {
+            return height;
+        }
+
+        @Override
+        public int get(int x, int y) {
+            return rows.buffer(y).get(rows.offset(y) + x) != 0 ? 1 : 0;
+        }
+
+        @Override
+        public long getWord(int y, int i) {
+            // the buffer holding the row and the position of the word's first tile in it
+            ByteBuffer buffer = rows.buffer(y);
+            int from = rows.offset(y) + (i << 6);
+            int count = Math.min(64, width - (i << 6));
+
+            // packs every used tile of the word
+            long word = 0;
+            for (int bit = 0; bit < count; bit++) {
+                if (buffer.get(from + bit) != 0) word |= 1L << bit;
+            }
+            return word;
+        }
+    }
+    // endregion
+}
@@ -0,0 +1,385 @@
+package Cloture;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Renders grids as text or as images, streaming them through fixed-size buffers
+ * so that the whole rendering never needs to be held in memory
+ *
+ * <p>As text, every tile takes a single character while the grid holds no value past 61:
+ * {@code _} for an empty tile, {@code 1} to {@code 9}, then {@code a} to {@code z} and
+ * {@code A} to {@code Z}. Past 61, such as for the zones of a map with many zones, every tile
+ * is written as its value instead, right-aligned to the width of the largest value and
+ * followed by a space, an empty tile still being a {@code _}. Every row ends with a new line.
+ *
+ * <p>As an image, empty tiles are white, tiles of value 1 are black and tiles of any other value
+ * get a grey picked from their value, so that neighbouring zones stand apart. A {@link BitGrid}
+ * is written as a 1 bit image.
+ */
+public final class GridRenderer {
+
+    // the number of characters or bytes buffered before being written out
+    private static final int BUFFER_SIZE = 8192;
+
+    // the characters of the tiles up to the largest value with its own character
+    private static final char[] TILE_CHARACTERS =
+            "_123456789abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray();
+
+    // the character of the tiles past the largest value with its own character
+    private static final char OTHER_TILE_CHARACTER = '#';
+
+    // the signature starting every png file
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    private GridRenderer() {}
+
+    // =========================================
+    //                  TEXT
+    // =========================================
+
+    /**
+     * Renders a grid as text, one character per tile unless the grid holds values past 61
+     * @param grid the grid to render
+     * @param out where to append the text
+     * @throws IOException if the text cannot be appended
+     */
+    public static void render(Grid grid, Appendable out) throws IOException {
+        renderText(grid, (buffer, length) -> out.append(CharBuffer.wrap(buffer, 0, length)));
+    }
+
+    /**
+     * Renders a grid as text, one character per tile unless the grid holds values past 61
+     * @param grid the grid to render
+     * @param out where to write the text, which is left open
+     * @throws IOException if the text cannot be written
+     */
+    public static void render(Grid grid, Writer out) throws IOException {
+        renderText(grid, (buffer, length) -> out.write(buffer, 0, length));
+    }
+
+    /**
+     * Renders a grid as ascii text, one byte per tile unless the grid holds values past 61
+     * @param grid the grid to render
+     * @param out where to write the text, which is left open
+     * @throws IOException if the text cannot be written
+     */
+    public static void render(Grid grid, WritableByteChannel out) throws IOException {
+        // the buffer holding the bytes of the characters being written
+        final ByteBuffer BYTES = ByteBuffer.allocate(BUFFER_SIZE);
+
+        renderText(grid, (buffer, length) -> {
+            // every character is ascii, so it takes a single byte
+            BYTES.clear();
+            for (int i = 0; i < length; i++) {
+                BYTES.put((byte) buffer[i]);
+            }
+            BYTES.flip();
+            writeFully(out, BYTES);
+        });
+    }
+
+    /**
+     * Gets the character of a tile
+     * @param value the value of the tile
+     * @return the character rendering the tile, {@code #} for the values past 61
+     */
+    public static char toCharacter(int value) {
+        return (value >= 0 && value < TILE_CHARACTERS.length) ? TILE_CHARACTERS[value] : OTHER_TILE_CHARACTER;
+    }
+
+    // =========================================
+    //                 IMAGES
+    // =========================================
+
+    /**
+     * Writes a grid as a binary pgm image, one byte per tile
+     * @param path the file to write
+     * @param grid the grid to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void writePgm(Path path, Grid grid) throws IOException {
+        try (FileChannel channel = open(path)) {
+            writePgm(grid, channel);
+        }
+    }
+
+    /**
+     * Writes a grid as a binary pgm image, one byte per tile
+     * @param grid the grid to write
+     * @param out where to write the image, which is left open
+     * @throws IOException if the image cannot be written
+     */
+    public static void writePgm(Grid grid, WritableByteChannel out) throws IOException {
+        // the grid's width and height
+        final int WIDTH = grid.getWidth();
+        final int HEIGHT = grid.getHeight();
+
+        // writes the header
+        final String HEADER = String.format("P5\n%s %s\n255\n", WIDTH, HEIGHT);
+        writeFully(out, ByteBuffer.wrap(HEADER.getBytes(StandardCharsets.US_ASCII)));
+
+        // the buffer holding the tiles being written
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        // writes every tile, row after row
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                // if the buffer is full...
+                if (!buffer.hasRemaining()) {
+                    // ...writes it out
+                    buffer.flip();
+                    writeFully(out, buffer);
+                    buffer.clear();
+                }
+                buffer.put((byte) toGrey(grid.get(x, y)));
+            }
+        }
+
+        // writes the remaining tiles
+        buffer.flip();
+        writeFully(out, buffer);
+    }
+
+    /**
+     * Writes a grid as a greyscale png image, compressing its rows as they are read
+     * @param path the file to write
+     * @param grid the grid to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void writePng(Path path, Grid grid) throws IOException {
+        try (FileChannel channel = open(path)) {
+            writePng(grid, channel);
+        }
+    }
+
+    /**
+     * Writes a grid as a greyscale png image, compressing its rows as they are read
+     * @param grid the grid to write
+     * @param out where to write the image, which is left open
+     * @throws IOException if the image cannot be written
+     */
+    public static void writePng(Grid grid, WritableByteChannel out) throws IOException {
+        // the grid's width and height
+        final int WIDTH = grid.getWidth();
+        final int HEIGHT = grid.getHeight();
+
+        // a bit grid only holds 0s and 1s, so it takes a single bit per tile
+        final boolean IS_BINARY = grid instanceof BitGrid;
+        final int ROW_BYTES = IS_BINARY ? (WIDTH + 7) >>> 3 : WIDTH;
+
+        // writes the signature and the header
+        writeFully(out, ByteBuffer.wrap(PNG_SIGNATURE));
+        ByteBuffer header = ByteBuffer.allocate(13);
+        header.putInt(WIDTH).putInt(HEIGHT)
+                .put((byte) (IS_BINARY ? 1 : 8))    // bit depth
+                .put((byte) 0)                      // greyscale
+                .put((byte) 0)                      // deflate compression
+                .put((byte) 0)                      // adaptive filtering
+                .put((byte) 0)                      // no interlace
+                .flip();
+        writeChunk(out, "IHDR", header);
+
+        // the row being compressed, starting with its filter type, and the compressed bytes
+        final byte[] ROW = new byte[ROW_BYTES + 1];
+        final ByteBuffer COMPRESSED = ByteBuffer.allocate(BUFFER_SIZE);
+        Deflater deflater = new Deflater();
+
+        try {
+            // compresses every row...
+            for (int y = 0; y < HEIGHT; y++) {
+                if (IS_BINARY) {
+                    packBits(grid, y, ROW);
+                } else {
+                    for (int x = 0; x < WIDTH; x++) {
+                        ROW[x + 1] = (byte) toGrey(grid.get(x, y));
+                    }
+                }
+
+                // ...writing a data chunk each time the compressed bytes fill the buffer
+                deflater.setInput(ROW);
+                while (!deflater.needsInput()) {
+                    deflate(deflater, COMPRESSED, out);
+                }
+            }
+
+            // flushes the remaining compressed bytes
+            deflater.finish();
+            while (!deflater.finished()) {
+                deflate(deflater, COMPRESSED, out);
+            }
+            if (COMPRESSED.position() > 0) {
+                COMPRESSED.flip();
+                writeChunk(out, "IDAT", COMPRESSED);
+            }
+        } finally {
+            deflater.end();
+        }
+
+        writeChunk(out, "IEND", ByteBuffer.allocate(0));
+    }
+
+    // region helper methods
+    private static void renderText(Grid grid, CharSink sink) throws IOException {
+        // the grid's width and height
+        final int WIDTH = grid.getWidth();
+        final int HEIGHT = grid.getHeight();
+
+        // a bit grid only holds 0s and 1s, so its words can be read instead of its tiles
+        final BitGrid BITS = (grid instanceof BitGrid) ? (BitGrid) grid : null;
+
+        // the number of characters of each tile, 0 if each tile takes a single character without a space
+        final int CELL_WIDTH = (BITS != null) ? 0 : cellWidth(grid);
+
+        // the buffer holding the characters being written, with room for the widest tile
+        final char[] BUFFER = new char[Math.max(BUFFER_SIZE, CELL_WIDTH + 1)];
+        int length = 0;
+
+        // loops through every row...
+        for (int y = 0; y < HEIGHT; y++) {
+            long word = 0;
+
+            // ...and through every tile in the row, followed by the new line
+            for (int x = 0; x <= WIDTH; x++) {
+                // if the buffer can't hold the next tile...
+                if (length + CELL_WIDTH + 1 > BUFFER.length) {
+                    // ...writes it out
+                    sink.write(BUFFER, length);
+                    length = 0;
+                }
+
+                if (x == WIDTH) {
+                    BUFFER[length++] = '\n';
+                } else if (BITS != null) {
+                    if ((x & 63) == 0) word = BITS.getWord(y, x >>> 6);
+                    BUFFER[length++] = TILE_CHARACTERS[(int) (word >>> x) & 1];
+                } else if (CELL_WIDTH == 0) {
+                    BUFFER[length++] = toCharacter(grid.get(x, y));
+                } else {
+                    length = writeCell(grid.get(x, y), CELL_WIDTH, BUFFER, length);
+                }
+            }
+        }
+
+        // writes the remaining characters
+        if (length > 0) {
+            sink.write(BUFFER, length);
+        }
+    }
+    private static int cellWidth(Grid grid) {
+        // the largest value of the grid, known without going through a zone grid
+        int max = 0;
+        if (grid instanceof ZoneGrid) {
+            max = ((ZoneGrid) grid).getZoneCount();
+        } else {
+            for (int y = 0; y < grid.getHeight(); y++) {
+                for (int x = 0; x < grid.getWidth(); x++) {
+                    max = Math.max(max, grid.get(x, y));
+                }
+            }
+        }
+
+        // if every value has its own character, each tile takes a single one
+        if (max < TILE_CHARACTERS.length) {
+            return 0;
+        }
+
+        return Integer.toString(max).length();
+    }
+    private static int writeCell(int value, int cellWidth, char[] buffer, int length) {
+        // the end of the cell, followed by a space
+        final int END = length + cellWidth;
+        buffer[END] = ' ';
+
+        // writes the digits from the right, an empty tile being a single _
+        int position = END;
+        if (value == 0) {
+            buffer[--position] = TILE_CHARACTERS[0];
+        }
+        for (long rest = Integer.toUnsignedLong(value); rest != 0; rest /= 10) {
+            buffer[--position] = (char) ('0' + rest % 10);
+        }
+
+        // pads the cell on the left
+        while (position > length) {
+            buffer[--position] = ' ';
+        }
+
+        return END + 1;
+    }
+    private static int toGrey(int value) {
+        // empty tiles are white and tiles of value 1 black
+        if (value == 0) return 0xFF;
+        if (value == 1) return 0x00;
+
+        // spreads the other values over the greys between them
+        return (int) (((value * 0x9E3779B9L) >>> 8) % 0xE0) + 0x10;
+    }
+    private static void packBits(Grid grid, int y, byte[] row) {
+        // the filter type of the row
+        row[0] = 0;
+
+        // loops through every byte of the row, the first tile being in its highest bit
+        for (int b = 0; b < row.length - 1; b++) {
+            final long WORD = grid.getWord(y, b >>> 3);
+            final int TILES = (int) (WORD >>> ((b & 7) << 3)) & 0xFF;
+
+            // used tiles are black, so they are cleared
+            row[b + 1] = (byte) ~(Integer.reverse(TILES) >>> 24);
+        }
+    }
+    private static void deflate(Deflater deflater, ByteBuffer compressed, WritableByteChannel out) throws IOException {
+        deflater.deflate(compressed);
+
+        // if the buffer is full...
+        if (!compressed.hasRemaining()) {
+            // ...writes it out as a data chunk
+            compressed.flip();
+            writeChunk(out, "IDAT", compressed);
+            compressed.clear();
+        }
+    }
+    private static void writeChunk(WritableByteChannel out, String type, ByteBuffer data) throws IOException {
+        // the length and the type of the chunk
+        ByteBuffer header = ByteBuffer.allocate(8);
+        header.putInt(data.remaining()).put(type.getBytes(StandardCharsets.US_ASCII)).flip();
+
+        // the checksum of the type and the data
+        CRC32 crc = new CRC32();
+        crc.update(header.array(), 4, 4);
+        crc.update(data.duplicate());
+        ByteBuffer checksum = ByteBuffer.allocate(4);
+        checksum.putInt((int) crc.getValue()).flip();
+
+        writeFully(out, header);
+        writeFully(out, data);
+        writeFully(out, checksum);
+    }
+    private static FileChannel open(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    }
+    private static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+    // endregion
+
+    /**
+     * Where the rendered characters are written, a buffer at a time
+     */
+    @FunctionalInterface
+    private interface CharSink {
+        void write(char[] buffer, int length) throws IOException;
+    }
+}
@@ -0,0 +1,172 @@
+package Cloture;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A read-only view over tiles owned by the caller, stored row after row in a flat
+ * array or buffer. Nothing is copied: the view reads the caller's memory directly,
+ * so it must not be changed while an edge map is using it.
+ *
+ * <p>Every tile which isn't 0 reads as a 1, like in a packed map.
+ */
+public abstract class GridView implements Grid {
+
+    // the grid's width and height
+    protected final int width;
+    protected final int height;
+
+    /**
+     * Class constructor
+     * @param width the number of tiles in each row
+     * @param height the number of rows
+     * @param length the number of tiles in the viewed memory
+     * @throws IllegalArgumentException if the viewed memory doesn't hold every tile
+     */
+    protected GridView(int width, int height, long length) {
+        // if the viewed memory is too small for the grid...
+        if (width <= 0 || height <= 0 || (long) width * height > length) {
+            // ...throws a new error
+            String errorMessage = String.format("Grid of %sx%s tiles does not fit in %s tiles", width, height, length);
+            throw new IllegalArgumentException(errorMessage);
+        }
+
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Views a flat array of ints
+     * @param tiles the tiles, row after row
+     * @param width the number of tiles in each row
+     * @param height the number of rows
+     * @return the view
+     */
+    public static GridView of(int[] tiles, int width, int height) {
+        return new IntArrayView(tiles, width, height);
+    }
+
+    /**
+     * Views a flat array of bytes
+     * @param tiles the tiles, row after row
+     * @param width the number of tiles in each row
+     * @param height the number of rows
+     * @return the view
+     */
+    public static GridView of(byte[] tiles, int width, int height) {
+        return new ByteArrayView(tiles, width, height);
+    }
+
+    /**
+     * Views a buffer holding one byte per tile, from its current position.
+     * The buffer may be direct, so that the tiles never enter the heap.
+     * @param tiles the tiles, row after row
+     * @param width the number of tiles in each row
+     * @param height the number of rows
+     * @return the view
+     */
+    public static GridView of(ByteBuffer tiles, int width, int height) {
+        return new ByteBufferView(tiles, width, height);
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    // =========================================
+    //              IMPLEMENTATIONS
+    // =========================================
+
+    // region views
+    private static final class IntArrayView extends GridView {
+        private final int[] tiles;
+
+        private IntArrayView(int[] tiles, int width, int height) {
+            super(width, height, tiles.length);
+            this.tiles = tiles;
+        }
+
+        @Override
+        public int get(int x, int y) {
+            return tiles[y * width + x] != 0 ? 1 : 0;
+        }
+
+        @Override
+        public long getWord(int y, int i) {
+            // the indexes of the first tile of the word and of the tile past its end
+            int from = y * width + (i << 6);
+            int to = y * width + Math.min((i << 6) + 64, width);
+
+            // packs every used tile of the word
+            long word = 0;
+            for (int index = from; index < to; index++) {
+                if (tiles[index] != 0) word |= 1L << (index - from);
+            }
+            return word;
+        }
+    }
+    private static final class ByteArrayView extends GridView {
+        private final byte[] tiles;
+
+        private ByteArrayView(byte[] tiles, int width, int height) {
+            super(width, height, tiles.length);
+            this.tiles = tiles;
+        }
+
+        @Override
+        public int get(int x, int y) {
+            return tiles[y * width + x] != 0 ? 1 : 0;
+        }
+
+        @Override
+        public long getWord(int y, int i) {
+            // the indexes of the first tile of the word and of the tile past its end
+            int from = y * width + (i << 6);
+            int to = y * width + Math.min((i << 6) + 64, width);
+
+            // packs every used tile of the word
+            long word = 0;
+            for (int index = from; index < to; index++) {
+                if (tiles[index] != 0) word |= 1L << (index - from);
+            }
+            return word;
+        }
+    }
+    private static final class ByteBufferView extends GridView {
+        private final ByteBuffer tiles;
+
+        // the index of the first tile in the buffer
+        private final int offset;
+
+        private ByteBufferView(ByteBuffer tiles, int width, int height) {
+            super(width, height, tiles.remaining());
+            this.tiles = tiles;
+            this.offset = tiles.position();
+        }
+
+        @Override
+        public int get(int x, int y) {
+            return tiles.get(offset + y * width + x) != 0 ? 1 : 0;
+        }
+
+        @Override
+        public long getWord(int y, int i) {
+            // the indexes of the first tile of the word and of the tile past its end
+            int from = offset + y * width + (i << 6);
+            int to = offset + y * width + Math.min((i << 6) + 64, width);
+
+            // packs every used tile of the word
+            long word = 0;
+            for (int index = from; index < to; index++) {
+                if (tiles.get(index) != 0) word |= 1L << (index - from);
+            }
+            return word;
+        }
+    }
+    // endregion
+}
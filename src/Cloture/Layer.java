@@ -0,0 +1,28 @@
+package Cloture;
+
+/**
+ * A layer of an edge map, holding one value per tile
+ */
+public interface Layer extends Grid {
+
+    /**
+     * Sets the value of a tile
+     * @param x the x coordinate of the tile
+     * @param y the y coordinate of the tile
+     * @param value the new value of the tile
+     */
+    void set(int x, int y, int value);
+
+    /**
+     * Sets the value of a span of tiles in a row
+     * @param y the y coordinate of the row
+     * @param fromX the x coordinate of the first tile of the span (inclusive)
+     * @param toX the x coordinate of the last tile of the span (exclusive)
+     * @param value the new value of the tiles
+     */
+    default void fill(int y, int fromX, int toX, int value) {
+        for (int x = fromX; x < toX; x++) {
+            set(x, y, value);
+        }
+    }
+}
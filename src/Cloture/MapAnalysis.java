@@ -0,0 +1,101 @@
+package Cloture;
+
+/**
+ * The results of the analysis of a single map of a batch or of a cache: its fence perimeter, the number
+ * of its zones and its filled map, or the error found if the map is not convex
+ */
+public final class MapAnalysis {
+
+    // the fence perimeter of the map
+    private final double fencePerimeter;
+
+    // the number of the last zone, the first zone being numbered 2
+    private final int zoneCount;
+
+    // a copy of the filled map, in which the lakes inside the perimeter are used tiles, null if it wasn't kept
+    private final BitGrid filledMap;
+
+    // the error found while analysing the map, null if the map is convex
+    private final IllegalArgumentException error;
+
+    /**
+     * Class constructor
+     * @param fencePerimeter the fence perimeter of the map
+     * @param zoneCount the number of the last zone
+     * @param filledMap a copy of the filled map
+     */
+    MapAnalysis(double fencePerimeter, int zoneCount, BitGrid filledMap) {
+        this.fencePerimeter = fencePerimeter;
+        this.zoneCount = zoneCount;
+        this.filledMap = filledMap;
+        this.error = null;
+    }
+
+    /**
+     * Class constructor, for a map which is not convex
+     * @param error the error found while analysing the map
+     */
+    MapAnalysis(IllegalArgumentException error) {
+        this.fencePerimeter = -1;
+        this.zoneCount = 0;
+        this.filledMap = null;
+        this.error = error;
+    }
+
+    /**
+     * Checks whether the map could be analysed
+     * @return true if the map is convex, false otherwise
+     */
+    public boolean isValid() {
+        return error == null;
+    }
+
+    /**
+     * Error getter
+     * @return the error found while analysing the map, or null if the map is convex
+     */
+    public IllegalArgumentException getError() {
+        return error;
+    }
+
+    /**
+     * Perimeter getter
+     * @return the fence perimeter of the map
+     * @throws IllegalArgumentException if the map is not convex
+     */
+    public double getFencePerimeter() {
+        checkValid();
+        return fencePerimeter;
+    }
+
+    /**
+     * Zone count getter
+     * @return the number of the last zone, the first zone being numbered 2
+     * @throws IllegalArgumentException if the map is not convex
+     */
+    public int getZoneCount() {
+        checkValid();
+        return zoneCount;
+    }
+
+    /**
+     * Filled map getter
+     * @return the filled map, in which the lakes inside the perimeter are used tiles,
+     * or null if the analysis comes from a cache which doesn't keep the layers
+     * @throws IllegalArgumentException if the map is not convex
+     */
+    public BitGrid getFilledMap() {
+        checkValid();
+        return filledMap;
+    }
+
+    // region helper methods
+    private void checkValid() {
+        // if the map is not convex...
+        if (error != null) {
+            // ...throws a new error with the same message
+            throw new IllegalArgumentException(error.getMessage(), error);
+        }
+    }
+    // endregion
+}
@@ -0,0 +1,100 @@
+package Cloture;
+
+/**
+ * The result of checking whether a map is convex, before any of its layers is detected
+ */
+public final class MapValidation {
+
+    // the result of a convex map
+    private static final MapValidation VALID = new MapValidation(-1, -1);
+
+    // the coordinates of the first span of an outer zone found between two edges, -1 if the map is convex
+    private final int x;
+    private final int y;
+
+    /**
+     * Class constructor
+     * @param x the x coordinate of the first span found between two edges, -1 if the map is convex
+     * @param y the y coordinate of the first span found between two edges, -1 if the map is convex
+     */
+    private MapValidation(int x, int y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Gets the result of a convex map
+     * @return the result
+     */
+    static MapValidation valid() {
+        return VALID;
+    }
+
+    /**
+     * Gets the result of a map which is not convex
+     * @param x the x coordinate of the first span of an outer zone found between two edges
+     * @param y the y coordinate of the first span of an outer zone found between two edges
+     * @return the result
+     */
+    static MapValidation entering(int x, int y) {
+        return new MapValidation(x, y);
+    }
+
+    /**
+     * Checks whether the map is convex
+     * @return true if the map is convex, false otherwise
+     */
+    public boolean isValid() {
+        return y == -1;
+    }
+
+    // region getters
+    /**
+     * X getter
+     * @return the x coordinate of the first span of an outer zone found between two edges, -1 if the map is convex
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * Y getter
+     * @return the y coordinate of the first span of an outer zone found between two edges, -1 if the map is convex
+     */
+    public int getY() {
+        return y;
+    }
+
+    /**
+     * Message getter
+     * @return the message of the error the analysis of the map would throw, null if the map is convex
+     */
+    public String getMessage() {
+        // if the map is convex...
+        if (isValid()) {
+            // ...there is no error
+            return null;
+        }
+
+        return String.format("Map does not have correct format: exterior border is entering" +
+                "at position [%s][%s]", y, x);
+    }
+    // endregion
+
+    /**
+     * Throws the error the analysis of the map would throw, if any
+     * @throws IllegalArgumentException if the map is not convex
+     */
+    public void check() {
+        // if the map is not convex...
+        if (!isValid()) {
+            // ...throws a new error
+            throw new IllegalArgumentException(getMessage());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return isValid() ? "valid" : getMessage();
+    }
+}
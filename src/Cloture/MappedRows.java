@@ -0,0 +1,63 @@
+package Cloture;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Rows of fixed size mapped from a file, split across as few buffers as possible
+ * since a single mapped buffer cannot hold more than 2 GB
+ */
+final class MappedRows {
+
+    // the mapped buffers, each one holding whole rows
+    private final MappedByteBuffer[] chunks;
+
+    // the number of rows in each buffer
+    private final int rowsPerChunk;
+
+    // the number of bytes in each row
+    private final int rowBytes;
+
+    /**
+     * Class constructor
+     * @param channel the channel of the file to map
+     * @param mode whether the rows are mapped to be read or written
+     * @param offset the position of the first row in the file
+     * @param rowBytes the number of bytes in each row
+     * @param rowCount the number of rows
+     * @throws IOException if the file cannot be mapped
+     */
+    MappedRows(FileChannel channel, FileChannel.MapMode mode, long offset, int rowBytes, int rowCount) throws IOException {
+        this.rowBytes = rowBytes;
+        this.rowsPerChunk = Math.max(1, Integer.MAX_VALUE / Math.max(1, rowBytes));
+
+        // maps every chunk of rows
+        chunks = new MappedByteBuffer[(rowCount - 1) / rowsPerChunk + 1];
+        for (int c = 0; c < chunks.length; c++) {
+            int rows = Math.min(rowsPerChunk, rowCount - c * rowsPerChunk);
+            chunks[c] = channel.map(mode, offset + (long) c * rowsPerChunk * rowBytes, (long) rows * rowBytes);
+            chunks[c].order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    /**
+     * Gets the buffer holding a row
+     * @param y the y coordinate of the row
+     * @return the buffer holding the row
+     */
+    ByteBuffer buffer(int y) {
+        return chunks[y / rowsPerChunk];
+    }
+
+    /**
+     * Gets the position of a row in its buffer
+     * @param y the y coordinate of the row
+     * @return the index of the first byte of the row in its buffer
+     */
+    int offset(int y) {
+        return (y % rowsPerChunk) * rowBytes;
+    }
+}
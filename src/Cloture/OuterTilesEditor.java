@@ -0,0 +1,446 @@
+package Cloture;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the outer tiles of a map up to date while its tiles are edited one at a time
+ *
+ * <p>Emptying a tile can only merge zones: if the tile joins an outer zone, the lakes it
+ * opens are flooded into the outer tiles. Using a tile can split its zone: the pieces
+ * around the tile are searched side by side, and a piece which runs out of tiles before
+ * reaching the border is removed from the outer tiles. Only the tiles of the merged or
+ * split zones are ever visited.
+ */
+final class OuterTilesEditor {
+
+    // the states of a search
+    private static final int ACTIVE = 0;
+    private static final int OUTER = 1;
+    private static final int INNER = 2;
+    private static final int MERGED = 3;
+
+    // the x and y offsets of the ring of 8 tiles around a tile, starting above it and turning clockwise
+    private static final int[] RING_X = {0, 1, 1, 1, 0, -1, -1, -1};
+    private static final int[] RING_Y = {-1, -1, 0, 1, 1, 1, 0, -1};
+
+    // the edited map and its outer tiles
+    private final BitGrid map;
+    private final BitGrid outerTiles;
+
+    // the map's width and height
+    private final int width;
+    private final int height;
+
+    // the searches run from the tiles around a used tile, created on first use
+    private final Search[] searches = new Search[4];
+
+    // the x and y coordinates of the tiles left to flood, stored in pairs
+    private int[] floodQueue = new int[64];
+    private int floodQueueSize;
+
+    // region dirty rows
+
+    // whether each row has changed since the dirty rows were last taken
+    private final boolean[] isDirty;
+
+    // the rows which have changed since the dirty rows were last taken
+    private int[] dirtyRows;
+    private int dirtyRowCount;
+
+    // endregion
+
+    /**
+     * Class constructor
+     * @param map the map being edited
+     * @param outerTiles the outer tiles of the map, or null to flood them from the border
+     */
+    OuterTilesEditor(BitGrid map, BitGrid outerTiles) {
+        this.map = map;
+        this.width = map.getWidth();
+        this.height = map.getHeight();
+
+        this.isDirty = new boolean[height];
+        this.dirtyRows = new int[16];
+
+        // if the outer tiles haven't been detected yet...
+        if (outerTiles == null) {
+            // ...floods them from every empty tile of the border, without checking if the map is convex
+            outerTiles = new BitGrid(width, height);
+            this.outerTiles = outerTiles;
+            for (int x = 0; x < width; x++) {
+                floodOuterTiles(x, 0);
+                floodOuterTiles(x, height - 1);
+            }
+            for (int y = 0; y < height; y++) {
+                floodOuterTiles(0, y);
+                floodOuterTiles(width - 1, y);
+            }
+            takeDirtyRows(0);
+        } else {
+            this.outerTiles = outerTiles;
+        }
+    }
+
+    /**
+     * Outer tiles getter
+     * @return the outer tiles of the edited map
+     */
+    BitGrid getOuterTiles() {
+        return outerTiles;
+    }
+
+    // =========================================
+    //                  EDITS
+    // =========================================
+
+    /**
+     * Empties a used tile, adding it and the lakes it opens to the outer tiles if it joins an outer zone
+     * @param x the x coordinate of the tile
+     * @param y the y coordinate of the tile
+     */
+    void setEmpty(int x, int y) {
+        map.set(x, y, 0);
+        markDirty(y);
+
+        // whether the tile is on the border or next to an outer tile
+        final boolean JOINS_OUTER_ZONE = isOnBorder(x, y) ||
+                outerTiles.get(x - 1, y) == 1 || outerTiles.get(x + 1, y) == 1 ||
+                outerTiles.get(x, y - 1) == 1 || outerTiles.get(x, y + 1) == 1;
+
+        // if the tile joins an outer zone...
+        if (JOINS_OUTER_ZONE) {
+            // ...floods it along with every lake it opens
+            floodOuterTiles(x, y);
+        }
+    }
+
+    /**
+     * Uses an empty tile, removing from the outer tiles any piece of its zone which no longer reaches the border
+     * @param x the x coordinate of the tile
+     * @param y the y coordinate of the tile
+     */
+    void setUsed(int x, int y) {
+        // whether the tile was part of an outer zone
+        final boolean WAS_OUTER = outerTiles.get(x, y) == 1;
+
+        map.set(x, y, 1);
+        outerTiles.set(x, y, 0);
+        markDirty(y);
+
+        // if the tile was part of a lake...
+        if (!WAS_OUTER) {
+            // ...the outer zones haven't changed
+            return;
+        }
+
+        // if the tile isn't on the border and the outer tiles around it are still connected...
+        if (!isOnBorder(x, y) && countRingGroups(x, y) <= 1) {
+            // ...its zone hasn't been split
+            return;
+        }
+
+        // searches the pieces of the zone
+        searchPieces(x, y);
+    }
+
+    /**
+     * Takes the rows which have changed since they were last taken
+     * @param margin the number of rows around each changed row to take along with it
+     * @return the ranges of rows, as pairs of first (inclusive) and last (exclusive) rows, in order
+     */
+    int[] takeDirtyRows(int margin) {
+        // sorts the dirty rows
+        int[] rows = Arrays.copyOf(dirtyRows, dirtyRowCount);
+        Arrays.sort(rows);
+
+        // merges the rows and their margins into ranges
+        int[] ranges = new int[2 * rows.length];
+        int rangeCount = 0;
+        for (int row : rows) {
+            int from = Math.max(0, row - margin);
+            int to = Math.min(height, row + margin + 1);
+
+            // if the row's range overlaps the previous one...
+            if (rangeCount != 0 && from <= ranges[rangeCount - 1]) {
+                // ...extends the previous one
+                ranges[rangeCount - 1] = Math.max(ranges[rangeCount - 1], to);
+            } else {
+                ranges[rangeCount++] = from;
+                ranges[rangeCount++] = to;
+            }
+
+            isDirty[row] = false;
+        }
+
+        dirtyRowCount = 0;
+        return Arrays.copyOf(ranges, rangeCount);
+    }
+
+    // =========================================
+    //                 SEARCHES
+    // =========================================
+
+    /**
+     * Searches the pieces of an outer zone split by a used tile side by side, until every piece
+     * is known to reach the border, to be cut off from it or to be part of another piece
+     * @param x the x coordinate of the used tile
+     * @param y the y coordinate of the used tile
+     */
+    private void searchPieces(int x, int y) {
+
+        // starts a search from every outer tile around the used tile
+        int searchCount = 0;
+        for (int k = 0; k < RING_X.length; k += 2) {
+            int neighbourX = x + RING_X[k];
+            int neighbourY = y + RING_Y[k];
+
+            if (isInMap(neighbourX, neighbourY) && outerTiles.get(neighbourX, neighbourY) == 1) {
+                getSearch(searchCount++).start(neighbourX, neighbourY);
+            }
+        }
+
+        // if the used tile isn't on the border, its zone reached the border elsewhere,
+        // so that the last piece still searched reaches the border if none has yet
+        final boolean IS_ON_BORDER = isOnBorder(x, y);
+
+        // runs every search a tile at a time...
+        while (true) {
+            int activeCount = 0;
+            int outerCount = 0;
+
+            for (int s = 0; s < searchCount; s++) {
+                if (searches[s].state == ACTIVE) {
+                    step(s, searchCount);
+                }
+                if (searches[s].state == ACTIVE) activeCount++;
+                if (searches[s].state == OUTER) outerCount++;
+            }
+
+            // ...until every piece is known
+            if (activeCount == 0 || (!IS_ON_BORDER && activeCount == 1 && outerCount == 0)) {
+                break;
+            }
+        }
+
+        // forgets every search
+        for (int s = 0; s < searchCount; s++) {
+            searches[s].clear();
+        }
+    }
+
+    /**
+     * Visits the next tile of a search
+     * @param s the index of the search
+     * @param searchCount the number of searches
+     */
+    private void step(int s, int searchCount) {
+        Search search = searches[s];
+
+        // if the search has visited every tile of its piece...
+        if (search.head == search.size) {
+            // ...the piece is cut off from the border
+            search.state = INNER;
+            for (int i = 0; i < search.size; i += 2) {
+                outerTiles.set(search.tiles[i], search.tiles[i + 1], 0);
+                markDirty(search.tiles[i + 1]);
+            }
+            return;
+        }
+
+        // the next tile of the search
+        int x = search.tiles[search.head++];
+        int y = search.tiles[search.head++];
+
+        // if the tile is on the border...
+        if (isOnBorder(x, y)) {
+            // ...the piece reaches the border
+            search.state = OUTER;
+            return;
+        }
+
+        // loops through the tiles above, below and to the left and right of the tile...
+        for (int k = 0; k < RING_X.length; k += 2) {
+            int neighbourX = x + RING_X[k];
+            int neighbourY = y + RING_Y[k];
+
+            // if the neighbour isn't an outer tile or has already been visited...
+            if (outerTiles.get(neighbourX, neighbourY) == 0 || search.visited.get(neighbourX, neighbourY) == 1) {
+                // ...moves on to the next neighbour
+                continue;
+            }
+
+            // if another search has visited the neighbour, both searches are in the same piece
+            for (int other = 0; other < searchCount; other++) {
+                if (other == s || searches[other].visited.get(neighbourX, neighbourY) == 0) {
+                    continue;
+                }
+
+                // the search which is still searching the other search's piece
+                int root = findRoot(other);
+
+                if (root != s) {
+                    if (searches[root].state == OUTER) {
+                        search.state = OUTER;
+                    } else {
+                        search.state = MERGED;
+                        search.alias = root;
+                    }
+                    return;
+                }
+            }
+
+            search.visit(neighbourX, neighbourY);
+        }
+    }
+
+    // region helper methods
+    private void floodOuterTiles(int x, int y) {
+        // if the tile is used or is already an outer tile...
+        if (map.get(x, y) == 1 || outerTiles.get(x, y) == 1) {
+            // ...there is nothing to flood
+            return;
+        }
+
+        // floods the tile
+        outerTiles.set(x, y, 1);
+        markDirty(y);
+        pushFlood(x, y);
+
+        // while there are tiles left to flood...
+        while (floodQueueSize != 0) {
+            int tileY = floodQueue[--floodQueueSize];
+            int tileX = floodQueue[--floodQueueSize];
+
+            // ...floods the empty tiles around the next one
+            for (int k = 0; k < RING_X.length; k += 2) {
+                int neighbourX = tileX + RING_X[k];
+                int neighbourY = tileY + RING_Y[k];
+
+                if (isInMap(neighbourX, neighbourY) && map.get(neighbourX, neighbourY) == 0 &&
+                        outerTiles.get(neighbourX, neighbourY) == 0) {
+                    outerTiles.set(neighbourX, neighbourY, 1);
+                    markDirty(neighbourY);
+                    pushFlood(neighbourX, neighbourY);
+                }
+            }
+        }
+    }
+    private void pushFlood(int x, int y) {
+        // if the queue is full...
+        if (floodQueueSize + 2 > floodQueue.length) {
+            // ...doubles its capacity
+            floodQueue = Arrays.copyOf(floodQueue, floodQueue.length * 2);
+        }
+
+        floodQueue[floodQueueSize++] = x;
+        floodQueue[floodQueueSize++] = y;
+    }
+    private int countRingGroups(int x, int y) {
+        // the number of outer tiles around the tile, and the number of pairs of them connected through a corner
+        int neighbourCount = 0;
+        int linkCount = 0;
+
+        for (int k = 0; k < RING_X.length; k += 2) {
+            if (outerTiles.get(x + RING_X[k], y + RING_Y[k]) == 0) {
+                continue;
+            }
+
+            neighbourCount++;
+
+            // the corner and the next neighbour, turning clockwise
+            int corner = k + 1;
+            int next = (k + 2) % RING_X.length;
+            if (outerTiles.get(x + RING_X[corner], y + RING_Y[corner]) == 1 &&
+                    outerTiles.get(x + RING_X[next], y + RING_Y[next]) == 1) {
+                linkCount++;
+            }
+        }
+
+        // every link joins two groups, a full ring being a single group
+        return Math.max(1, neighbourCount - linkCount);
+    }
+    private int findRoot(int s) {
+        while (searches[s].state == MERGED) {
+            s = searches[s].alias;
+        }
+        return s;
+    }
+    private Search getSearch(int s) {
+        if (searches[s] == null) {
+            searches[s] = new Search(width, height);
+        }
+        return searches[s];
+    }
+    private void markDirty(int y) {
+        // if the row is already dirty...
+        if (isDirty[y]) {
+            // ...exits the method
+            return;
+        }
+
+        if (dirtyRowCount == dirtyRows.length) {
+            dirtyRows = Arrays.copyOf(dirtyRows, dirtyRows.length * 2);
+        }
+        dirtyRows[dirtyRowCount++] = y;
+        isDirty[y] = true;
+    }
+    private boolean isOnBorder(int x, int y) {
+        return (x == 0) || (y == 0) || (x == width - 1) || (y == height - 1);
+    }
+    private boolean isInMap(int x, int y) {
+        return (x >= 0) && (y >= 0) && (x < width) && (y < height);
+    }
+    // endregion
+
+    /**
+     * A breadth-first search through the outer tiles, which remembers every tile it has visited
+     */
+    private static final class Search {
+
+        // the tiles the search has visited
+        private final BitGrid visited;
+
+        // the x and y coordinates of the visited tiles, stored in pairs, those from the head on being left to visit
+        private int[] tiles = new int[64];
+        private int head;
+        private int size;
+
+        // the state of the search, and the search it was merged into
+        private int state;
+        private int alias;
+
+        private Search(int width, int height) {
+            visited = new BitGrid(width, height);
+        }
+
+        private void start(int x, int y) {
+            size = head = 0;
+            state = ACTIVE;
+            visit(x, y);
+        }
+
+        private void visit(int x, int y) {
+            visited.set(x, y, 1);
+            push(x, y);
+        }
+
+        private void push(int x, int y) {
+            // if the list of tiles is full...
+            if (size + 2 > tiles.length) {
+                // ...doubles its capacity
+                tiles = Arrays.copyOf(tiles, tiles.length * 2);
+            }
+
+            tiles[size++] = x;
+            tiles[size++] = y;
+        }
+
+        private void clear() {
+            // forgets every visited tile
+            for (int i = 0; i < size; i += 2) {
+                visited.set(tiles[i], tiles[i + 1], 0);
+            }
+            size = head = 0;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package Cloture;
+
+/**
+ * A parcel of a map: a group of used tiles touching each other by a side, along with
+ * its fence perimeter, its bounding box and the lakes it encloses
+ */
+public final class Parcel {
+
+    // the coordinates of the first tile of the parcel, row after row
+    private final int x;
+    private final int y;
+
+    // the number of used tiles of the parcel
+    private final long area;
+
+    // the number of fences around the parcel, its lakes being filled
+    private final long fenceCount;
+
+    // the number of lakes the parcel encloses, and their number of tiles
+    private final int holeCount;
+    private final long holeArea;
+
+    // the bounding box of the parcel, every coordinate being inclusive
+    private final int minX, minY, maxX, maxY;
+
+    /**
+     * Class constructor
+     * @param x the x coordinate of the first tile of the parcel
+     * @param y the y coordinate of the first tile of the parcel
+     * @param area the number of used tiles of the parcel
+     * @param fenceCount the number of fences around the parcel
+     * @param holeCount the number of lakes the parcel encloses
+     * @param holeArea the number of tiles of the lakes the parcel encloses
+     * @param minX the x coordinate of the left column of the bounding box
+     * @param minY the y coordinate of the upper row of the bounding box
+     * @param maxX the x coordinate of the right column of the bounding box
+     * @param maxY the y coordinate of the lower row of the bounding box
+     */
+    Parcel(int x, int y, long area, long fenceCount, int holeCount, long holeArea,
+           int minX, int minY, int maxX, int maxY) {
+        this.x = x;
+        this.y = y;
+        this.area = area;
+        this.fenceCount = fenceCount;
+        this.holeCount = holeCount;
+        this.holeArea = holeArea;
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+    }
+
+    // region getters
+    /**
+     * X getter
+     * @return the x coordinate of the first tile of the parcel, row after row
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * Y getter
+     * @return the y coordinate of the first tile of the parcel, row after row
+     */
+    public int getY() {
+        return y;
+    }
+
+    /**
+     * Area getter
+     * @return the number of used tiles of the parcel
+     */
+    public long getArea() {
+        return area;
+    }
+
+    /**
+     * Perimeter getter
+     * @return the fence perimeter of the parcel, its lakes being filled
+     */
+    public double getFencePerimeter() {
+        // multiplies the number of fences by their length
+        return fenceCount * 2.5;
+    }
+
+    /**
+     * Fence count getter
+     * @return the number of fences around the parcel
+     */
+    public long getFenceCount() {
+        return fenceCount;
+    }
+
+    /**
+     * Hole count getter
+     * @return the number of lakes the parcel surrounds
+     */
+    public int getHoleCount() {
+        return holeCount;
+    }
+
+    /**
+     * Hole area getter
+     * @return the number of tiles of the lakes the parcel surrounds, without their islands
+     */
+    public long getHoleArea() {
+        return holeArea;
+    }
+
+    /**
+     * Minimum x getter
+     * @return the x coordinate of the left column of the bounding box
+     */
+    public int getMinX() {
+        return minX;
+    }
+
+    /**
+     * Minimum y getter
+     * @return the y coordinate of the upper row of the bounding box
+     */
+    public int getMinY() {
+        return minY;
+    }
+
+    /**
+     * Maximum x getter
+     * @return the x coordinate of the right column of the bounding box (inclusive)
+     */
+    public int getMaxX() {
+        return maxX;
+    }
+
+    /**
+     * Maximum y getter
+     * @return the y coordinate of the lower row of the bounding box (inclusive)
+     */
+    public int getMaxY() {
+        return maxY;
+    }
+    // endregion
+
+    @Override
+    public String toString() {
+        return String.format("parcel at [%s][%s]: %s tiles, %s fences, %s holes, box [%s][%s] to [%s][%s]",
+                y, x, area, fenceCount, holeCount, minY, minX, maxY, maxX);
+    }
+}
@@ -0,0 +1,399 @@
+package Cloture;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Analyses every parcel of a map in a single sweep, labeling the parcels of used tiles
+ * and the zones of empty tiles at once
+ *
+ * <p>Only the labels of the last two rows are kept. Each label gathers the statistics of its
+ * tiles, which move to the surviving root when two labels merge, and every side between
+ * a parcel and a zone is counted under the pair of labels it separates.
+ *
+ * <p>Once the sweep is done, a zone which doesn't touch the border is a lake of the parcel
+ * surrounding it, which is the parcel above the zone's first tile: it is filled, so its sides
+ * along that parcel need no fence. The islands inside a lake are parcels of their own, fenced
+ * all around. Every other side between a parcel and a zone gets a fence, as do the sides along
+ * the border, so that a map holding a single parcel has the perimeter of its edge map. The
+ * parcels aren't checked for convexity.
+ */
+public final class ParcelAnalyzer {
+
+    // the map's width and height
+    private final int width;
+    private final int height;
+
+    // region labels
+
+    // the number of labels handed out, label 0 being unused
+    private int labelCount;
+
+    // the parent of each label, a label being its own parent if it is a root
+    private int[] parent;
+
+    // whether each label is a parcel or a zone
+    private boolean[] isParcel;
+
+    // the number of tiles of each label
+    private long[] tiles;
+
+    // the coordinates of the first tile of each label
+    private int[] firstX, firstY;
+
+    // the bounding box of each label
+    private int[] minX, minY, maxX, maxY;
+
+    // the number of fences of each parcel along the border
+    private long[] borderFences;
+
+    // whether each zone touches the border
+    private boolean[] reachesBorder;
+
+    // the parcel above the first tile of each zone, 0 if the tile is on the upper row
+    private int[] upperParcel;
+
+    // endregion
+
+    // the number of sides between a zone and a parcel, by pair of labels
+    private final SideCounts sides;
+
+    /**
+     * Class constructor
+     * @param width the map's width
+     * @param height the map's height
+     */
+    private ParcelAnalyzer(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.sides = new SideCounts();
+        grow(64);
+        labelCount = 1;
+    }
+
+    /**
+     * Analyses every parcel of a map
+     * @param map the map, with 1 for every used tile
+     * @return the parcels, ordered by their first tile row after row
+     */
+    public static List<Parcel> analyse(int[][] map) {
+        return analyse(BitGrid.of(map));
+    }
+
+    /**
+     * Analyses every parcel of a map
+     * @param map the map, every tile which isn't 0 being a used tile
+     * @return the parcels, ordered by their first tile row after row
+     */
+    public static List<Parcel> analyse(Grid map) {
+        ParcelAnalyzer analyzer = new ParcelAnalyzer(map.getWidth(), map.getHeight());
+        analyzer.sweep(map);
+        return analyzer.collectParcels();
+    }
+
+    // =========================================
+    //                  SWEEP
+    // =========================================
+
+    /**
+     * Labels every tile of the map, row after row
+     * @param map the map
+     */
+    private void sweep(Grid map) {
+        // the labels of the row above and of the current row
+        int[] upperLabels = new int[width];
+        int[] currentLabels = new int[width];
+
+        // loops through every row...
+        for (int y = 0; y < height; y++) {
+
+            // ...the current row becomes the row above
+            int[] swap = upperLabels;
+            upperLabels = currentLabels;
+            currentLabels = swap;
+
+            // loops through every tile in the row...
+            for (int x = 0; x < width; x++) {
+                final boolean IS_PARCEL = map.get(x, y) != 0;
+
+                // ...whether the tiles to the left and above are of the same kind
+                final int LEFT = (x == 0) ? 0 : currentLabels[x - 1];
+                final int UPPER = (y == 0) ? 0 : upperLabels[x];
+                final boolean LEFT_IS_SAME = LEFT != 0 && isParcel[LEFT] == IS_PARCEL;
+                final boolean UPPER_IS_SAME = UPPER != 0 && isParcel[UPPER] == IS_PARCEL;
+
+                // labels the tile after the tiles of the same kind it touches
+                int label;
+                if (LEFT_IS_SAME && UPPER_IS_SAME) {
+                    label = union(LEFT, UPPER);
+                } else if (LEFT_IS_SAME) {
+                    label = find(LEFT);
+                } else if (UPPER_IS_SAME) {
+                    label = find(UPPER);
+                } else {
+                    label = newLabel(IS_PARCEL);
+
+                    // a new zone starts below the parcel surrounding it, if it is a lake
+                    if (!IS_PARCEL) upperParcel[label] = UPPER;
+                }
+                currentLabels[x] = label;
+                addTile(label, x, y);
+
+                // counts the sides between a zone and a parcel
+                if (LEFT != 0 && !LEFT_IS_SAME) addSide(label, LEFT);
+                if (UPPER != 0 && !UPPER_IS_SAME) addSide(label, UPPER);
+            }
+        }
+    }
+
+    /**
+     * Gathers the statistics of every parcel, once every tile is labeled
+     * @return the parcels, ordered by their first tile row after row
+     */
+    private List<Parcel> collectParcels() {
+        // region zones
+
+        // the parcel surrounding each lake, 0 for the zones touching the border
+        final int[] LAKE_PARCEL = new int[labelCount];
+
+        // the first tile of a lake is its upper left tile, so the tile above it belongs to the parcel around it
+        for (int label = 1; label < labelCount; label++) {
+            if (parent[label] == label && !isParcel[label] && !reachesBorder[label]) {
+                LAKE_PARCEL[label] = find(upperParcel[label]);
+            }
+        }
+
+        // endregion
+
+        // region parcels
+
+        // the fences, lakes and lake tiles of each parcel root
+        final long[] FENCES = new long[labelCount];
+        final int[] HOLES = new int[labelCount];
+        final long[] HOLE_AREA = new long[labelCount];
+
+        // the sides of the zones which aren't lakes of the parcel get a fence
+        sides.forEach((zone, parcel, count) -> {
+            final int PARCEL_ROOT = find(parcel);
+            if (LAKE_PARCEL[find(zone)] != PARCEL_ROOT) {
+                FENCES[PARCEL_ROOT] += count;
+            }
+        });
+
+        // counts the lakes of each parcel
+        for (int label = 1; label < labelCount; label++) {
+            if (LAKE_PARCEL[label] != 0) {
+                HOLES[LAKE_PARCEL[label]]++;
+                HOLE_AREA[LAKE_PARCEL[label]] += tiles[label];
+            }
+        }
+
+        // every root is the earliest label of its parcel, so the roots are in the order of their first tile
+        List<Parcel> parcels = new ArrayList<>();
+        for (int label = 1; label < labelCount; label++) {
+            if (parent[label] == label && isParcel[label]) {
+                parcels.add(new Parcel(firstX[label], firstY[label], tiles[label],
+                        FENCES[label] + borderFences[label], HOLES[label], HOLE_AREA[label],
+                        minX[label], minY[label], maxX[label], maxY[label]));
+            }
+        }
+
+        // endregion
+
+        return parcels;
+    }
+
+    // region helper methods
+    private int newLabel(boolean parcel) {
+        // makes room for the label
+        if (labelCount == parent.length) {
+            grow(parent.length * 2);
+        }
+
+        final int LABEL = labelCount++;
+        parent[LABEL] = LABEL;
+        isParcel[LABEL] = parcel;
+        minX[LABEL] = minY[LABEL] = Integer.MAX_VALUE;
+        maxX[LABEL] = maxY[LABEL] = -1;
+        return LABEL;
+    }
+    private void addTile(int root, int x, int y) {
+        // the first tile of a label is found before any other
+        if (tiles[root]++ == 0) {
+            firstX[root] = x;
+            firstY[root] = y;
+        }
+
+        minX[root] = Math.min(minX[root], x);
+        maxX[root] = Math.max(maxX[root], x);
+        minY[root] = Math.min(minY[root], y);
+        maxY[root] = Math.max(maxY[root], y);
+
+        // the tiles along the border
+        final boolean ON_BORDER_COLUMN = (x == 0 || x == width - 1);
+        final boolean ON_BORDER_ROW = (y == 0 || y == height - 1);
+        if (isParcel[root]) {
+            // get a fence along the left or right border, and one along the upper or lower border
+            if (ON_BORDER_COLUMN) borderFences[root]++;
+            if (ON_BORDER_ROW) borderFences[root]++;
+        } else if (ON_BORDER_COLUMN || ON_BORDER_ROW) {
+            // or make their zone touch the border
+            reachesBorder[root] = true;
+        }
+    }
+    private void addSide(int label, int otherLabel) {
+        // keys the side by its zone, then its parcel
+        if (isParcel[label]) {
+            sides.increment(otherLabel, label);
+        } else {
+            sides.increment(label, otherLabel);
+        }
+    }
+    private int find(int label) {
+        // walks up to the root, halving the path along the way
+        while (parent[label] != label) {
+            parent[label] = parent[parent[label]];
+            label = parent[label];
+        }
+        return label;
+    }
+    private int union(int firstLabel, int secondLabel) {
+        int root = find(firstLabel);
+        int other = find(secondLabel);
+
+        // if the labels are already merged...
+        if (root == other) {
+            // ...there is nothing to merge
+            return root;
+        }
+
+        // the earliest label stays the root, so that it holds the first tile
+        if (other < root) {
+            int swap = root;
+            root = other;
+            other = swap;
+        }
+
+        // gathers the statistics of the other root on the root
+        parent[other] = root;
+        tiles[root] += tiles[other];
+        minX[root] = Math.min(minX[root], minX[other]);
+        maxX[root] = Math.max(maxX[root], maxX[other]);
+        minY[root] = Math.min(minY[root], minY[other]);
+        maxY[root] = Math.max(maxY[root], maxY[other]);
+        borderFences[root] += borderFences[other];
+        reachesBorder[root] |= reachesBorder[other];
+
+        return root;
+    }
+    private void grow(int capacity) {
+        parent = (parent == null) ? new int[capacity] : Arrays.copyOf(parent, capacity);
+        isParcel = (isParcel == null) ? new boolean[capacity] : Arrays.copyOf(isParcel, capacity);
+        tiles = (tiles == null) ? new long[capacity] : Arrays.copyOf(tiles, capacity);
+        firstX = (firstX == null) ? new int[capacity] : Arrays.copyOf(firstX, capacity);
+        firstY = (firstY == null) ? new int[capacity] : Arrays.copyOf(firstY, capacity);
+        minX = (minX == null) ? new int[capacity] : Arrays.copyOf(minX, capacity);
+        minY = (minY == null) ? new int[capacity] : Arrays.copyOf(minY, capacity);
+        maxX = (maxX == null) ? new int[capacity] : Arrays.copyOf(maxX, capacity);
+        maxY = (maxY == null) ? new int[capacity] : Arrays.copyOf(maxY, capacity);
+        borderFences = (borderFences == null) ? new long[capacity] : Arrays.copyOf(borderFences, capacity);
+        reachesBorder = (reachesBorder == null) ? new boolean[capacity] : Arrays.copyOf(reachesBorder, capacity);
+        upperParcel = (upperParcel == null) ? new int[capacity] : Arrays.copyOf(upperParcel, capacity);
+    }
+    // endregion
+
+    /**
+     * Counts the sides between zones and parcels by pair of labels, in an open-addressing table
+     */
+    private static final class SideCounts {
+
+        // marks an empty slot, no label being 0
+        private static final long EMPTY = 0;
+
+        // the pairs of labels, packed as the zone in the high half and the parcel in the low half
+        private long[] keys = new long[256];
+
+        // the number of sides of each pair
+        private long[] counts = new long[256];
+
+        // the number of pairs
+        private int size;
+
+        /**
+         * Adds a side between a zone and a parcel
+         * @param zone the label of the zone
+         * @param parcel the label of the parcel
+         */
+        void increment(int zone, int parcel) {
+            final long KEY = ((long) zone << 32) | parcel;
+
+            // probes the slots from the key's hash
+            final int MASK = keys.length - 1;
+            int slot = (int) mix(KEY) & MASK;
+            while (keys[slot] != EMPTY && keys[slot] != KEY) {
+                slot = (slot + 1) & MASK;
+            }
+
+            // if the pair is new...
+            if (keys[slot] == EMPTY) {
+                keys[slot] = KEY;
+
+                // ...the table grows once half full
+                if (++size * 2 > keys.length) {
+                    counts[slot]++;
+                    rehash();
+                    return;
+                }
+            }
+            counts[slot]++;
+        }
+
+        /**
+         * Calls an action for every pair
+         * @param action the action, given the zone, the parcel and their number of sides
+         */
+        void forEach(SideAction action) {
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (keys[slot] != EMPTY) {
+                    action.accept((int) (keys[slot] >>> 32), (int) keys[slot], counts[slot]);
+                }
+            }
+        }
+
+        // region helper methods
+        private static long mix(long key) {
+            // spreads the bits of both labels over the low bits
+            key *= 0x9E3779B97F4A7C15L;
+            return key ^ (key >>> 29);
+        }
+        private void rehash() {
+            final long[] OLD_KEYS = keys;
+            final long[] OLD_COUNTS = counts;
+            keys = new long[OLD_KEYS.length * 2];
+            counts = new long[OLD_KEYS.length * 2];
+
+            // moves every pair to its slot in the larger table
+            final int MASK = keys.length - 1;
+            for (int i = 0; i < OLD_KEYS.length; i++) {
+                if (OLD_KEYS[i] == EMPTY) continue;
+
+                int slot = (int) mix(OLD_KEYS[i]) & MASK;
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & MASK;
+                }
+                keys[slot] = OLD_KEYS[i];
+                counts[slot] = OLD_COUNTS[i];
+            }
+        }
+        // endregion
+    }
+
+    /**
+     * An action on a pair of labels and their number of sides
+     */
+    @FunctionalInterface
+    private interface SideAction {
+        void accept(int zone, int parcel, long count);
+    }
+}
@@ -0,0 +1,49 @@
+package Cloture;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The flight recorder event of a phase of an edge map, only committed while a recording enables it
+ */
+@Name("Cloture.EdgeMapPhase")
+@Label("Edge Map Phase")
+@Category("Cloture")
+@Description("A phase of the edge detection of a map")
+final class PhaseEvent extends Event {
+
+    // the type of the event, enabled while a recording asks for it
+    private static final EventType TYPE = EventType.getEventType(PhaseEvent.class);
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Map Width")
+    int mapWidth;
+
+    @Label("Map Height")
+    int mapHeight;
+
+    @Label("Tiles Visited")
+    long tilesVisited;
+
+    @Label("Zone Count")
+    int zoneCount;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocatedBytes;
+
+    /**
+     * Checks whether a recording asks for the event, without creating one
+     * @return true if the event is being recorded
+     */
+    static boolean isRecorded() {
+        return TYPE.isEnabled();
+    }
+}
@@ -0,0 +1,129 @@
+package Cloture;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * The metrics of a single phase of an edge map
+ */
+public final class PhaseMetrics {
+
+    /**
+     * The phases of an edge map, each one detecting a layer or the perimeter
+     */
+    public enum Phase {
+        // labels every zone
+        ZONES,
+        // finds the tiles of the zones touching the border
+        OUTER_TILES,
+        // detects the used tiles touching the outer tiles
+        OUTER_EDGES,
+        // fills the lakes inside the perimeter
+        FILL,
+        // counts the fences
+        PERIMETER
+    }
+
+    // the thread bean counting the bytes allocated by each thread, null if the virtual machine can't count them
+    private static final com.sun.management.ThreadMXBean THREADS = allocationCounter();
+
+    // the phase which was run
+    private final Phase phase;
+
+    // the wall time of the phase, in nanoseconds
+    private final long wallNanos;
+
+    // the number of tiles the phase went through
+    private final long tilesVisited;
+
+    // the number of the last zone, 0 if the zones haven't been counted yet
+    private final int zoneCount;
+
+    // the number of bytes the calling thread allocated during the phase, -1 if they can't be counted
+    private final long allocatedBytes;
+
+    /**
+     * Class constructor
+     * @param phase the phase which was run
+     * @param wallNanos the wall time of the phase, in nanoseconds
+     * @param tilesVisited the number of tiles the phase went through
+     * @param zoneCount the number of the last zone, 0 if the zones haven't been counted yet
+     * @param allocatedBytes the number of bytes the calling thread allocated during the phase
+     */
+    PhaseMetrics(Phase phase, long wallNanos, long tilesVisited, int zoneCount, long allocatedBytes) {
+        this.phase = phase;
+        this.wallNanos = wallNanos;
+        this.tilesVisited = tilesVisited;
+        this.zoneCount = zoneCount;
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    /**
+     * Gets the number of bytes the calling thread has allocated so far
+     * @return the number of bytes, or -1 if the virtual machine can't count them
+     */
+    static long allocatedBytes() {
+        return (THREADS == null) ? -1 : THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    // region getters
+    /**
+     * Phase getter
+     * @return the phase which was run
+     */
+    public Phase getPhase() {
+        return phase;
+    }
+
+    /**
+     * Wall time getter
+     * @return the wall time of the phase, in nanoseconds
+     */
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    /**
+     * Visited tiles getter
+     * @return the number of tiles the phase went through
+     */
+    public long getTilesVisited() {
+        return tilesVisited;
+    }
+
+    /**
+     * Zone count getter
+     * @return the number of the last zone, 0 if the zones haven't been counted yet
+     */
+    public int getZoneCount() {
+        return zoneCount;
+    }
+
+    /**
+     * Allocated bytes getter
+     * @return the number of bytes the calling thread allocated during the phase, -1 if they can't be counted
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+    // endregion
+
+    @Override
+    public String toString() {
+        return String.format("%s: %s ns, %s tiles, %s zones, %s bytes",
+                phase, wallNanos, tilesVisited, zoneCount, allocatedBytes);
+    }
+
+    // region helper methods
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        // only the virtual machines providing the extended thread bean count allocations
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+
+        com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean) threads;
+        return counter.isThreadAllocatedMemorySupported() ? counter : null;
+    }
+    // endregion
+}
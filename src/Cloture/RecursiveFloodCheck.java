@@ -0,0 +1,191 @@
+package Cloture;
+
+import java.util.Arrays;
+
+/**
+ * Checks whether a map is convex following {@link ConvexityRule#RECURSIVE_FLOOD}, the rule of the
+ * original edge map, which checked it while flooding every zone recursively
+ *
+ * <p>The original flood went through each zone depth first, going to the tiles above, below, to
+ * the left and to the right of every tile in this order. Every tile it entered updated the bounds of
+ * the flood and the x coordinates of the last tiles with a used tile to their left and to their right,
+ * and every tile it left checked these variables, then reset them. As they were reset whenever a tile
+ * was left, only the tiles entered since the flood last stepped back were ever checked, by the tile
+ * at which it stepped back again.
+ *
+ * <p>The same flood is run here, with an explicit stack instead of the thread's so that a large zone
+ * can't overflow it. The original also flooded the filled map with the same check, but that flood
+ * stayed inside the outer edges and never reached the border, so it never rejected a map.
+ */
+final class RecursiveFloodCheck {
+
+    // the x and y steps towards the tiles above, below, to the left and to the right of a tile, in the flood's order
+    private static final int[] STEP_X = {0, 0, -1, 1};
+    private static final int[] STEP_Y = {-1, 1, 0, 0};
+
+    // the base map and the tiles flooded so far, the used tiles being flooded from the start
+    private final Grid map;
+    private final BitGrid flooded;
+
+    // the tiles being flooded, each one stored as its x and y coordinates and the next direction to flood from it
+    private int[] stack;
+    private int stackSize;
+
+    // region flood fields
+
+    // the maximum and minimum x and y coordinates of the tiles entered since the flood last stepped back
+    private int maxFloodX, minFloodX, maxFloodY, minFloodY;
+
+    // the x coordinates of the last tiles entered with a used tile to their left and to their right
+    private int leftFloodEdgeX, rightFloodEdgeX;
+
+    // endregion
+
+    // the map's width and height
+    private final int MAP_WIDTH;
+    private final int MAP_HEIGHT;
+
+    /**
+     * Class constructor
+     * @param map the map to check
+     */
+    private RecursiveFloodCheck(Grid map) {
+        // saves the map height and length
+        MAP_HEIGHT = map.getHeight();
+        MAP_WIDTH = map.getWidth();
+
+        this.map = map;
+        this.flooded = BitGrid.copyOf(map);
+
+        // initialises the stack with room for a few tiles
+        stack = new int[192];
+        stackSize = 0;
+
+        resetConvexVars();
+    }
+
+    /**
+     * Checks whether a map is convex, flooding its zones in the order of their first tile
+     * @param map the map to check
+     * @return the result of the check, holding the position the original flood threw its error at
+     */
+    static MapValidation validate(Grid map) {
+        final RecursiveFloodCheck CHECK = new RecursiveFloodCheck(map);
+        final BitGrid FLOODED = CHECK.flooded;
+
+        // the bits of the last word of each row which are part of the row
+        final int STRIDE = FLOODED.getStride();
+        final long LAST_WORD_MASK = -1L >>> (63 - ((CHECK.MAP_WIDTH - 1) & 63));
+
+        // loops through every line...
+        for (int y = 0; y < CHECK.MAP_HEIGHT; y++) {
+            // ...and through every word of the line, 64 tiles at a time
+            for (int i = 0; i < STRIDE; i++) {
+
+                // while the word has a tile which hasn't been flooded yet...
+                long emptyTiles;
+                while ((emptyTiles = ~FLOODED.getWord(y, i) & ((i == STRIDE - 1) ? LAST_WORD_MASK : -1L)) != 0) {
+
+                    // ...floods its zone
+                    final int X = (i << 6) + Long.numberOfTrailingZeros(emptyTiles);
+                    final MapValidation VALIDATION = CHECK.flood(X, y);
+                    if (!VALIDATION.isValid()) {
+                        return VALIDATION;
+                    }
+                }
+            }
+        }
+
+        return MapValidation.valid();
+    }
+
+    /**
+     * Floods a zone depth first, checking if the map is convex whenever the flood leaves a tile
+     * @param x the x coordinate at which to start the flood
+     * @param y the y coordinate at which to start the flood
+     * @return the result of the check, holding the position of the tile the flood was leaving if the map is not convex
+     */
+    private MapValidation flood(int x, int y) {
+        // initialises the flood at the specified starting point
+        enter(x, y);
+
+        // while the flood hasn't left the starting point...
+        while (stackSize != 0) {
+
+            // the tile being flooded and the next direction to flood from it
+            final int TOP = stackSize - 3;
+            final int TILE_X = stack[TOP];
+            final int TILE_Y = stack[TOP + 1];
+            final int DIRECTION = stack[TOP + 2];
+
+            // if there is a direction left...
+            if (DIRECTION < STEP_X.length) {
+                stack[TOP + 2]++;
+
+                // ...and the tile in that direction exists and is empty, floods it
+                final int NEXT_X = TILE_X + STEP_X[DIRECTION];
+                final int NEXT_Y = TILE_Y + STEP_Y[DIRECTION];
+                if (NEXT_X >= 0 && NEXT_Y >= 0 && NEXT_X < MAP_WIDTH && NEXT_Y < MAP_HEIGHT &&
+                        flooded.get(NEXT_X, NEXT_Y) == 0) {
+                    enter(NEXT_X, NEXT_Y);
+                }
+                continue;
+            }
+
+            // checks whether the map is convex
+            final boolean FLOOD_IS_BETWEEN_EDGES = (leftFloodEdgeX <= rightFloodEdgeX) &&
+                    ((leftFloodEdgeX != -1) && (rightFloodEdgeX != -1));
+            final boolean FLOOD_HAS_REACHED_BORDER = (minFloodX == 0) || (minFloodY == 0) ||
+                    (maxFloodX == MAP_WIDTH - 1) || (maxFloodY == MAP_HEIGHT - 1);
+            if (FLOOD_IS_BETWEEN_EDGES && FLOOD_HAS_REACHED_BORDER) {
+                return MapValidation.entering(TILE_X, TILE_Y);
+            }
+
+            // leaves the tile, resetting the variables used to check if the map is convex
+            resetConvexVars();
+            stackSize -= 3;
+        }
+
+        return MapValidation.valid();
+    }
+
+    // region helper methods
+    private void enter(int x, int y) {
+        // floods the tile
+        flooded.set(x, y, 1);
+
+        // if there is no more room for the tile...
+        if (stackSize + 3 > stack.length) {
+            // ...doubles the capacity of the stack
+            stack = Arrays.copyOf(stack, stack.length * 2);
+        }
+        stack[stackSize++] = x;
+        stack[stackSize++] = y;
+        stack[stackSize++] = 0;
+
+        // updates the variables used to check if the map is convex
+        minFloodX = Math.min(minFloodX, x);
+        maxFloodX = Math.max(maxFloodX, x);
+        minFloodY = Math.min(minFloodY, y);
+        maxFloodY = Math.max(maxFloodY, y);
+
+        // if the tile to the left of the flood is used...
+        if (x != 0 && map.get(x - 1, y) != 0) {
+            // ...updates the coordinates of the edge to the left of the flood
+            leftFloodEdgeX = x;
+        }
+        // if the tile to the right of the flood is used...
+        if (x != MAP_WIDTH - 1 && map.get(x + 1, y) != 0) {
+            // ...updates the coordinates of the edge to the right of the flood
+            rightFloodEdgeX = x;
+        }
+    }
+    private void resetConvexVars() {
+        minFloodX = MAP_WIDTH;
+        minFloodY = MAP_HEIGHT;
+        maxFloodY = maxFloodX = 0;
+
+        leftFloodEdgeX = rightFloodEdgeX = -1;
+    }
+    // endregion
+}
@@ -0,0 +1,303 @@
+package Cloture;
+
+/**
+ * Counts the filled tiles, the edges and the fences inside any rectangle of a map in constant time
+ *
+ * <p>Each count is kept as a summed-area table: the entry of a tile holds the count of every
+ * tile above and to the left of it, so that a rectangle only needs four entries. The entries
+ * are stored in the narrowest width holding the count of the whole map, from a byte to a long.
+ */
+public final class RegionIndex {
+
+    // the map's width and height
+    private final int width;
+    private final int height;
+
+    // the summed-area tables of the filled tiles, of the edges and of the fences,
+    // each one holding a row and a column of 0s before the map's
+    private final Table filledTiles;
+    private final Table edgeTiles;
+    private final Table fences;
+
+    /**
+     * Class constructor, summing every tile of the layers
+     * @param filledMap the filled map layer
+     * @param outerEdges the outer edges layer
+     * @param fenceCount the number of fences of the whole map
+     * @throws IllegalArgumentException if the map has too many tiles to be indexed
+     */
+    RegionIndex(BitGrid filledMap, BitGrid outerEdges, long fenceCount) {
+        this.width = filledMap.getWidth();
+        this.height = filledMap.getHeight();
+
+        // the number of entries of each table
+        final long SIZE = (long) (width + 1) * (height + 1);
+
+        // if the tables can't be indexed...
+        if (SIZE > Integer.MAX_VALUE) {
+            // ...throws a new error
+            throw new IllegalArgumentException(String.format("Map of %sx%s tiles is too large to be indexed",
+                    width, height));
+        }
+
+        // picks the width of each table from the count of the whole map
+        filledTiles = Table.of((int) SIZE, countTiles(filledMap));
+        edgeTiles = Table.of((int) SIZE, countTiles(outerEdges));
+        fences = Table.of((int) SIZE, fenceCount);
+
+        // the masks of the fences of the current word, counted the same way as the edge map's
+        final long[] MASKS = new long[FenceMasks.COUNT];
+
+        // loops through every row...
+        for (int y = 0; y < height; y++) {
+
+            // the counts of the row up to the current tile
+            long rowFilledTiles = 0, rowEdgeTiles = 0, rowFences = 0;
+
+            // ...and sums the counts of each tile with those of the row above
+            for (int x = 0; x < width; x++) {
+                // finds the fences of the tiles of each word once
+                if ((x & 63) == 0) {
+                    FenceMasks.of(outerEdges, filledMap, y, x >>> 6, MASKS);
+                }
+
+                rowFilledTiles += filledMap.get(x, y);
+                if (outerEdges.get(x, y) == 1) {
+                    rowEdgeTiles++;
+                    rowFences += FenceMasks.count(MASKS, x & 63);
+                }
+
+                final int ENTRY = index(x + 1, y + 1);
+                final int UPPER_ENTRY = index(x + 1, y);
+                filledTiles.set(ENTRY, filledTiles.get(UPPER_ENTRY) + rowFilledTiles);
+                edgeTiles.set(ENTRY, edgeTiles.get(UPPER_ENTRY) + rowEdgeTiles);
+                fences.set(ENTRY, fences.get(UPPER_ENTRY) + rowFences);
+            }
+        }
+    }
+
+    // =========================================
+    //                 QUERIES
+    // =========================================
+
+    /**
+     * Counts the filled tiles of a rectangle, its used tiles and lakes
+     * @param fromX the x coordinate of the left column of the rectangle (inclusive)
+     * @param fromY the y coordinate of the upper row of the rectangle (inclusive)
+     * @param toX the x coordinate of the right column of the rectangle (exclusive)
+     * @param toY the y coordinate of the lower row of the rectangle (exclusive)
+     * @return the number of filled tiles
+     * @throws IndexOutOfBoundsException if the rectangle isn't inside the map
+     */
+    public long countFilledTiles(int fromX, int fromY, int toX, int toY) {
+        return sum(filledTiles, fromX, fromY, toX, toY);
+    }
+
+    /**
+     * Counts the outer edges of a rectangle
+     * @param fromX the x coordinate of the left column of the rectangle (inclusive)
+     * @param fromY the y coordinate of the upper row of the rectangle (inclusive)
+     * @param toX the x coordinate of the right column of the rectangle (exclusive)
+     * @param toY the y coordinate of the lower row of the rectangle (exclusive)
+     * @return the number of outer edges
+     * @throws IndexOutOfBoundsException if the rectangle isn't inside the map
+     */
+    public long countEdgeTiles(int fromX, int fromY, int toX, int toY) {
+        return sum(edgeTiles, fromX, fromY, toX, toY);
+    }
+
+    /**
+     * Counts the fences around the outer edges of a rectangle
+     * @param fromX the x coordinate of the left column of the rectangle (inclusive)
+     * @param fromY the y coordinate of the upper row of the rectangle (inclusive)
+     * @param toX the x coordinate of the right column of the rectangle (exclusive)
+     * @param toY the y coordinate of the lower row of the rectangle (exclusive)
+     * @return the number of fences
+     * @throws IndexOutOfBoundsException if the rectangle isn't inside the map
+     */
+    public long countFences(int fromX, int fromY, int toX, int toY) {
+        return sum(fences, fromX, fromY, toX, toY);
+    }
+
+    /**
+     * Gets the perimeter of the fences around the outer edges of a rectangle
+     * @param fromX the x coordinate of the left column of the rectangle (inclusive)
+     * @param fromY the y coordinate of the upper row of the rectangle (inclusive)
+     * @param toX the x coordinate of the right column of the rectangle (exclusive)
+     * @param toY the y coordinate of the lower row of the rectangle (exclusive)
+     * @return the fence perimeter
+     * @throws IndexOutOfBoundsException if the rectangle isn't inside the map
+     */
+    public double getFencePerimeter(int fromX, int fromY, int toX, int toY) {
+        // multiplies the number of fences by their length
+        return countFences(fromX, fromY, toX, toY) * 2.5;
+    }
+
+    /**
+     * Byte size getter
+     * @return the number of bytes taken by the tables
+     */
+    public long getByteSize() {
+        return filledTiles.getByteSize() + edgeTiles.getByteSize() + fences.getByteSize();
+    }
+
+    // region helper methods
+    private int index(int x, int y) {
+        return y * (width + 1) + x;
+    }
+    private long sum(Table table, int fromX, int fromY, int toX, int toY) {
+        // if the rectangle isn't inside the map...
+        if (fromX < 0 || fromY < 0 || toX > width || toY > height || fromX > toX || fromY > toY) {
+            // ...throws a new error
+            throw new IndexOutOfBoundsException(String.format("Rectangle [%s][%s] to [%s][%s] is outside the map",
+                    fromY, fromX, toY, toX));
+        }
+
+        // removes the tiles above and to the left of the rectangle, adding back those removed twice
+        return table.get(index(toX, toY)) - table.get(index(fromX, toY)) -
+                table.get(index(toX, fromY)) + table.get(index(fromX, fromY));
+    }
+    private static long countTiles(BitGrid layer) {
+        long count = 0;
+        for (int y = 0; y < layer.getHeight(); y++) {
+            for (int i = 0; i < layer.getStride(); i++) {
+                count += Long.bitCount(layer.getWord(y, i));
+            }
+        }
+        return count;
+    }
+    // endregion
+
+    /**
+     * The entries of a summed-area table, stored in the narrowest width holding its largest entry
+     */
+    private abstract static class Table {
+
+        /**
+         * Creates a table
+         * @param size the number of entries
+         * @param max the largest entry
+         * @return the table
+         */
+        static Table of(int size, long max) {
+            if (max <= 0xFF) return new ByteTable(size);
+            if (max <= 0xFFFF) return new CharTable(size);
+            if (max <= 0xFFFFFFFFL) return new IntTable(size);
+            return new LongTable(size);
+        }
+
+        /**
+         * Gets an entry
+         * @param i the index of the entry
+         * @return the entry
+         */
+        abstract long get(int i);
+
+        /**
+         * Sets an entry
+         * @param i the index of the entry
+         * @param entry the entry, which must fit in the width of the table
+         */
+        abstract void set(int i, long entry);
+
+        /**
+         * Byte size getter
+         * @return the number of bytes taken by the entries
+         */
+        abstract long getByteSize();
+    }
+
+    // region tables
+    private static final class ByteTable extends Table {
+        private final byte[] entries;
+
+        private ByteTable(int size) {
+            entries = new byte[size];
+        }
+
+        @Override
+        long get(int i) {
+            return entries[i] & 0xFF;
+        }
+
+        @Override
+        void set(int i, long entry) {
+            entries[i] = (byte) entry;
+        }
+
+        @Override
+        long getByteSize() {
+            return entries.length;
+        }
+    }
+
+    private static final class CharTable extends Table {
+        private final char[] entries;
+
+        private CharTable(int size) {
+            entries = new char[size];
+        }
+
+        @Override
+        long get(int i) {
+            return entries[i];
+        }
+
+        @Override
+        void set(int i, long entry) {
+            entries[i] = (char) entry;
+        }
+
+        @Override
+        long getByteSize() {
+            return (long) entries.length * Character.BYTES;
+        }
+    }
+
+    private static final class IntTable extends Table {
+        private final int[] entries;
+
+        private IntTable(int size) {
+            entries = new int[size];
+        }
+
+        @Override
+        long get(int i) {
+            return Integer.toUnsignedLong(entries[i]);
+        }
+
+        @Override
+        void set(int i, long entry) {
+            entries[i] = (int) entry;
+        }
+
+        @Override
+        long getByteSize() {
+            return (long) entries.length * Integer.BYTES;
+        }
+    }
+
+    private static final class LongTable extends Table {
+        private final long[] entries;
+
+        private LongTable(int size) {
+            entries = new long[size];
+        }
+
+        @Override
+        long get(int i) {
+            return entries[i];
+        }
+
+        @Override
+        void set(int i, long entry) {
+            entries[i] = entry;
+        }
+
+        @Override
+        long getByteSize() {
+            return (long) entries.length * Long.BYTES;
+        }
+    }
+    // endregion
+}
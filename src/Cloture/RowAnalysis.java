@@ -0,0 +1,130 @@
+package Cloture;
+
+/**
+ * The results of the analysis of a map streamed one row at a time: its fence perimeter
+ * and the classification of its zones as outer zones or lakes
+ */
+public final class RowAnalysis {
+
+    // the map's width and height
+    private final int width;
+    private final long height;
+
+    // the number of fences needed
+    private final long fenceCount;
+
+    // the number of the last zone, the first zone being numbered 2, and the number of outer zones
+    private final int zoneCount;
+    private final int outerZoneCount;
+
+    // the number of used tiles, and of tiles of the outer and of the inner zones
+    private final long usedTileCount;
+    private final long outerTileCount;
+    private final long innerTileCount;
+
+    /**
+     * Class constructor
+     * @param width the map's width
+     * @param height the map's height
+     * @param fenceCount the number of fences needed
+     * @param zoneCount the number of the last zone
+     * @param outerZoneCount the number of zones touching the border of the map
+     * @param usedTileCount the number of used tiles
+     * @param outerTileCount the number of tiles of the zones touching the border of the map
+     * @param innerTileCount the number of tiles of the lakes inside the perimeter
+     */
+    RowAnalysis(int width, long height, long fenceCount, int zoneCount, int outerZoneCount,
+                long usedTileCount, long outerTileCount, long innerTileCount) {
+        this.width = width;
+        this.height = height;
+        this.fenceCount = fenceCount;
+        this.zoneCount = zoneCount;
+        this.outerZoneCount = outerZoneCount;
+        this.usedTileCount = usedTileCount;
+        this.outerTileCount = outerTileCount;
+        this.innerTileCount = innerTileCount;
+    }
+
+    // region getters
+    /**
+     * Width getter
+     * @return the number of tiles in each row
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Height getter
+     * @return the number of rows
+     */
+    public long getHeight() {
+        return height;
+    }
+
+    /**
+     * Perimeter getter
+     * @return the fence perimeter
+     */
+    public double getFencePerimeter() {
+        // multiplies the number of fences by their length
+        return fenceCount * 2.5;
+    }
+
+    /**
+     * Fence count getter
+     * @return the number of fences needed
+     */
+    public long getFenceCount() {
+        return fenceCount;
+    }
+
+    /**
+     * Zone count getter
+     * @return the number of the last zone, the first zone being numbered 2
+     */
+    public int getZoneCount() {
+        return zoneCount;
+    }
+
+    /**
+     * Outer zone count getter
+     * @return the number of zones touching the border of the map
+     */
+    public int getOuterZoneCount() {
+        return outerZoneCount;
+    }
+
+    /**
+     * Inner zone count getter
+     * @return the number of lakes inside the perimeter
+     */
+    public int getInnerZoneCount() {
+        return zoneCount - 1 - outerZoneCount;
+    }
+
+    /**
+     * Used tile count getter
+     * @return the number of used tiles, which aren't part of any zone
+     */
+    public long getUsedTileCount() {
+        return usedTileCount;
+    }
+
+    /**
+     * Outer tile count getter
+     * @return the number of tiles of the zones touching the border of the map
+     */
+    public long getOuterTileCount() {
+        return outerTileCount;
+    }
+
+    /**
+     * Inner tile count getter
+     * @return the number of tiles of the lakes inside the perimeter
+     */
+    public long getInnerTileCount() {
+        return innerTileCount;
+    }
+    // endregion
+}
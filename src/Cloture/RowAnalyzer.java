@@ -0,0 +1,593 @@
+package Cloture;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+
+/**
+ * Analyses a map streamed one row at a time, keeping only the labels of the last row
+ * and a union-find of the zones it holds, so that its memory only grows with the map's width
+ *
+ * <p>A zone which has no tile in the last row can't grow anymore: it is classified as soon
+ * as it closes, the fences along it being counted if it touches the border, and its label
+ * is handed out again. The zones still open when the input ends touch the lower border.
+ *
+ * <p>The lakes inside the perimeter are filled, so the fences are those between the used
+ * tiles and the zones touching the border, plus those along the border itself.
+ *
+ * <p>Reading the map a row at a time, the analyzer decides whether it is convex with
+ * {@link ConvexityRule#SPANS}, which an edge map only follows when told to.
+ */
+public final class RowAnalyzer {
+
+    // the map's width
+    private final int width;
+
+    // the number of rows analysed so far
+    private long height;
+
+    // region row buffers
+
+    // the labels of the row above and of the current row, 0 for used tiles
+    private int[] upperLabels;
+    private int[] currentLabels;
+
+    // endregion
+
+    // region open zones
+
+    // the parent of each label, a label being its own parent if it is a root and 0 if it is free
+    private final int[] parent;
+
+    // the number of sides between a used tile and a tile of each zone
+    private final long[] sides;
+
+    // the number of tiles of each zone
+    private final long[] tiles;
+
+    // whether each zone touches the border of the map
+    private final boolean[] reachesBorder;
+
+    // the index of the first span of each zone found between two edges, -1 if none
+    private final long[] enteringIndex;
+
+    // the labels which can be handed out
+    private final int[] freeLabels;
+    private int freeLabelCount;
+
+    // whether each label is a root of the current row
+    private final boolean[] isOpen;
+
+    // endregion
+
+    // region totals
+
+    // the fences along the border of the map, apart from those along the last row
+    private long borderFences;
+
+    // the number of used tiles in the current row
+    private int rowUsedTiles;
+
+    // the fences between the used tiles and the closed zones touching the border
+    private long outerFences;
+
+    // the number of closed zones and of closed zones touching the border
+    private int closedZoneCount;
+    private int outerZoneCount;
+
+    // the number of used tiles, and of tiles of the outer and of the inner zones
+    private long usedTileCount;
+    private long outerTileCount;
+    private long innerTileCount;
+
+    // the first span between two edges of a zone touching the border, -1 if none
+    private long firstEntering;
+
+    // endregion
+
+    // whether the end of the input has been reached
+    private boolean finished;
+
+    /**
+     * Class constructor
+     * @param width the number of tiles in each row
+     */
+    public RowAnalyzer(int width) {
+        // if the rows are empty...
+        if (width <= 0) {
+            // ...throws a new error
+            throw new IllegalArgumentException(String.format("Rows must have at least one tile, not %s", width));
+        }
+
+        this.width = width;
+
+        upperLabels = new int[width];
+        currentLabels = new int[width];
+
+        // a row holds at most one zone every two tiles, and the next row as many new ones
+        final int CAPACITY = width + 2;
+        parent = new int[CAPACITY];
+        sides = new long[CAPACITY];
+        tiles = new long[CAPACITY];
+        reachesBorder = new boolean[CAPACITY];
+        enteringIndex = new long[CAPACITY];
+        isOpen = new boolean[CAPACITY];
+
+        // every label but 0 is free
+        freeLabels = new int[CAPACITY];
+        for (int label = CAPACITY - 1; label > 0; label--) {
+            freeLabels[freeLabelCount++] = label;
+        }
+
+        firstEntering = -1;
+    }
+
+    // =========================================
+    //                 SOURCES
+    // =========================================
+
+    /**
+     * Analyses the rows of an iterator, the first row giving the map's width
+     * @param rows the rows of the map, with 1 for every used tile
+     * @return the analysis of the map
+     * @throws IllegalArgumentException if the map is empty, if its rows don't have the same width or if it is not convex
+     */
+    public static RowAnalysis analyse(Iterator<int[]> rows) {
+        // if there is no row...
+        if (!rows.hasNext()) {
+            // ...throws a new error
+            throw new IllegalArgumentException("A map must have at least one row");
+        }
+
+        // the first row gives the width
+        int[] row = rows.next();
+        RowAnalyzer analyzer = new RowAnalyzer(row.length);
+        analyzer.addRow(row);
+
+        // adds every other row
+        while (rows.hasNext()) {
+            analyzer.addRow(rows.next());
+        }
+
+        return analyzer.finish();
+    }
+
+    /**
+     * Analyses a grid file read from a stream, one row at a time
+     * @param in the stream holding the grid file, which isn't closed
+     * @return the analysis of the map
+     * @throws IOException if the stream cannot be read or doesn't hold a grid file
+     * @throws IllegalArgumentException if the map is not convex
+     * @see GridFile
+     */
+    public static RowAnalysis analyse(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+
+        // reads the header
+        ByteBuffer header = ByteBuffer.allocate(GridFile.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(data, header.array());
+
+        // if the header is incorrect...
+        if (header.getInt() != GridFile.MAGIC) {
+            // ...throws a new error
+            throw new IOException("The stream does not hold a grid file");
+        }
+
+        // the grid's width, height and number of bits per tile
+        final int WIDTH = header.getInt();
+        final int HEIGHT = header.getInt();
+        final int BITS_PER_TILE = header.getInt();
+
+        // if the grid is empty or the number of bits per tile unsupported...
+        if (WIDTH <= 0 || HEIGHT <= 0 || (BITS_PER_TILE != 1 && BITS_PER_TILE != 8)) {
+            // ...throws a new error
+            throw new IOException(String.format("The grid file header is incorrect: %s x %s with %s bits per tile",
+                    WIDTH, HEIGHT, BITS_PER_TILE));
+        }
+
+        // the bytes of the row being read, and its tiles
+        final ByteBuffer ROW_BYTES = ByteBuffer.allocate(BITS_PER_TILE == 1 ?
+                ((WIDTH + 63) >>> 6) * Long.BYTES : WIDTH).order(ByteOrder.LITTLE_ENDIAN);
+        final int[] ROW = new int[WIDTH];
+
+        RowAnalyzer analyzer = new RowAnalyzer(WIDTH);
+
+        // loops through every row...
+        for (int y = 0; y < HEIGHT; y++) {
+
+            // ...reads its bytes
+            readFully(data, ROW_BYTES.array());
+
+            // unpacks its tiles
+            for (int x = 0; x < WIDTH; x++) {
+                ROW[x] = (BITS_PER_TILE == 1) ?
+                        (int) (ROW_BYTES.getLong((x >>> 6) * Long.BYTES) >>> x) & 1 : ROW_BYTES.get(x);
+            }
+
+            analyzer.addRow(ROW);
+        }
+
+        return analyzer.finish();
+    }
+
+    /**
+     * Analyses the rows of a publisher, asking for one row at a time
+     * @param rows the publisher of the rows of the map, with 1 for every used tile
+     * @return the analysis of the map, completed once the publisher completes, or completed
+     * exceptionally if the publisher fails or the map is empty, uneven or not convex
+     */
+    public static CompletableFuture<RowAnalysis> analyse(Flow.Publisher<int[]> rows) {
+        final CompletableFuture<RowAnalysis> ANALYSIS = new CompletableFuture<>();
+
+        rows.subscribe(new Flow.Subscriber<>() {
+
+            // the subscription asking for the rows, and the analyzer created from the first row
+            private Flow.Subscription subscription;
+            private RowAnalyzer analyzer;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(int[] row) {
+                // if the analysis has already failed...
+                if (ANALYSIS.isDone()) {
+                    // ...ignores the rows still on their way
+                    return;
+                }
+
+                try {
+                    if (analyzer == null) {
+                        analyzer = new RowAnalyzer(row.length);
+                    }
+                    analyzer.addRow(row);
+                } catch (RuntimeException e) {
+                    subscription.cancel();
+                    ANALYSIS.completeExceptionally(e);
+                    return;
+                }
+
+                // asks for the next row
+                subscription.request(1);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                ANALYSIS.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                try {
+                    // if there was no row...
+                    if (analyzer == null) {
+                        // ...throws a new error
+                        throw new IllegalArgumentException("A map must have at least one row");
+                    }
+                    ANALYSIS.complete(analyzer.finish());
+                } catch (RuntimeException e) {
+                    ANALYSIS.completeExceptionally(e);
+                }
+            }
+        });
+
+        return ANALYSIS;
+    }
+
+    // =========================================
+    //                   ROWS
+    // =========================================
+
+    /**
+     * Adds the next row of the map
+     * @param row the tiles of the row, any value but 0 being a used tile
+     * @throws IllegalArgumentException if the row doesn't have the map's width
+     * @throws IllegalStateException if the analysis is already finished
+     */
+    public void addRow(int[] row) {
+        // if the end of the input has already been reached...
+        if (finished) {
+            // ...throws a new error
+            throw new IllegalStateException("The analysis is already finished");
+        }
+
+        // if the row doesn't have the map's width...
+        if (row.length != width) {
+            // ...throws a new error
+            throw new IllegalArgumentException(String.format("Row %s has %s tiles instead of %s",
+                    height, row.length, width));
+        }
+
+        // the y coordinate of the row
+        final long Y = height;
+
+        // the current row becomes the row above
+        int[] swap = upperLabels;
+        upperLabels = currentLabels;
+        currentLabels = swap;
+
+        rowUsedTiles = 0;
+
+        // the x coordinate at which the current span started
+        int spanStart = 0;
+
+        // loops through every tile in the row...
+        for (int x = 0; x < width; x++) {
+
+            // whether the tiles above and to the left are used, the tiles outside the map counting as used
+            final boolean UPPER_IS_USED = (Y == 0) || upperLabels[x] == 0;
+            final boolean LEFT_IS_USED = (x == 0) || currentLabels[x - 1] == 0;
+
+            // region used tile
+
+            // if the tile is used...
+            if (row[x] != 0) {
+                currentLabels[x] = 0;
+                usedTileCount++;
+                rowUsedTiles++;
+
+                // the tiles along the left and right columns get a fence along the border
+                if (x == 0 || x == width - 1) {
+                    borderFences++;
+                }
+
+                // the zones above and to the left of the tile touch one of its sides
+                if (!UPPER_IS_USED) sides[find(upperLabels[x])]++;
+                if (!LEFT_IS_USED) sides[find(currentLabels[x - 1])]++;
+                continue;
+            }
+
+            // endregion
+
+            // region zone tile
+
+            // if the tile starts a new span...
+            if (LEFT_IS_USED) {
+                // ...saves where it started
+                spanStart = x;
+            }
+
+            // labels the tile after the tiles it touches
+            int label;
+            if (LEFT_IS_USED && UPPER_IS_USED) {
+                label = newLabel();
+            } else if (LEFT_IS_USED) {
+                label = find(upperLabels[x]);
+            } else {
+                label = find(currentLabels[x - 1]);
+                if (!UPPER_IS_USED) label = union(label, upperLabels[x]);
+            }
+            currentLabels[x] = label;
+            tiles[label]++;
+
+            // the used tiles above and to the left of the tile touch one of the zone's sides
+            if (Y != 0 && upperLabels[x] == 0) sides[label]++;
+            if (x != 0 && currentLabels[x - 1] == 0) sides[label]++;
+
+            // the tiles along the upper row and the left and right columns touch the border
+            if (Y == 0 || x == 0 || x == width - 1) {
+                reachesBorder[label] = true;
+            }
+
+            // if the tile ends a span between two edges...
+            if (spanStart != 0 && x != width - 1 && row[x + 1] != 0 && enteringIndex[label] == -1) {
+                // ...remembers the first one found
+                enteringIndex[label] = Y * width + spanStart;
+            }
+
+            // endregion
+        }
+
+        // the tiles along the upper row get a fence along the border
+        if (Y == 0) {
+            borderFences += rowUsedTiles;
+        }
+
+        closeZones();
+        height++;
+    }
+
+    /**
+     * Ends the input, classifying the zones still open as touching the lower border
+     * @return the analysis of the map
+     * @throws IllegalArgumentException if the map is not convex
+     * @throws IllegalStateException if no row has been added or the analysis is already finished
+     */
+    public RowAnalysis finish() {
+        // closes the zones still open
+        final MapValidation VALIDATION = finishValidation();
+
+        // the tiles along the lower row get a fence along the border, once if it is also the upper row
+        if (height > 1) {
+            borderFences += rowUsedTiles;
+        }
+
+        // if a zone reaches the border AND is between two edges, the map is not convex
+        VALIDATION.check();
+
+        return new RowAnalysis(width, height, borderFences + outerFences, closedZoneCount + 1, outerZoneCount,
+                usedTileCount, outerTileCount, innerTileCount);
+    }
+
+    // =========================================
+    //                VALIDATION
+    // =========================================
+
+    /**
+     * Checks whether the rows added so far make the map not convex, whatever the rows to come
+     * @return the first span of an outer zone found between two edges, once no row to come can
+     * find an earlier one, or null if the rows to come are needed
+     */
+    MapValidation findEntering() {
+        // the first span between two edges of the zones known to touch the border
+        long entering = firstEntering;
+        for (int x = 0; x < width; x++) {
+            int label = currentLabels[x];
+            if (label != 0 && reachesBorder[label] && enteringIndex[label] != -1 &&
+                    (entering == -1 || enteringIndex[label] < entering)) {
+                entering = enteringIndex[label];
+            }
+        }
+
+        // if no zone touching the border is between two edges yet...
+        if (entering == -1) {
+            // ...the rows to come are needed
+            return null;
+        }
+
+        // if an open zone could still touch the border with an earlier span...
+        for (int x = 0; x < width; x++) {
+            int label = currentLabels[x];
+            if (label != 0 && !reachesBorder[label] && enteringIndex[label] != -1 && enteringIndex[label] < entering) {
+                // ...the rows to come are needed
+                return null;
+            }
+        }
+
+        return MapValidation.entering((int) (entering % width), (int) (entering / width));
+    }
+
+    /**
+     * Ends the input, classifying the zones still open as touching the lower border, and only
+     * checks whether the map is convex
+     * @return the result of the check
+     * @throws IllegalStateException if no row has been added or the analysis is already finished
+     */
+    MapValidation finishValidation() {
+        // if the analysis can't be finished...
+        if (finished || height == 0) {
+            // ...throws a new error
+            throw new IllegalStateException(finished ?
+                    "The analysis is already finished" : "A map must have at least one row");
+        }
+        finished = true;
+
+        // every zone still open touches the lower border
+        for (int x = 0; x < width; x++) {
+            if (currentLabels[x] != 0) {
+                reachesBorder[currentLabels[x]] = true;
+            }
+        }
+
+        // closes them
+        for (int x = 0; x < width; x++) {
+            int label = currentLabels[x];
+            if (label != 0 && parent[label] == label) {
+                closeZone(label);
+                parent[label] = 0;
+            }
+        }
+
+        return (firstEntering == -1) ? MapValidation.valid() :
+                MapValidation.entering((int) (firstEntering % width), (int) (firstEntering / width));
+    }
+
+    // region helper methods
+    private int newLabel() {
+        // hands out a free label as a new root
+        int label = freeLabels[--freeLabelCount];
+        parent[label] = label;
+        sides[label] = 0;
+        tiles[label] = 0;
+        reachesBorder[label] = false;
+        enteringIndex[label] = -1;
+        return label;
+    }
+    private int find(int label) {
+        // walks up to the root, halving the path along the way
+        while (parent[label] != label) {
+            parent[label] = parent[parent[label]];
+            label = parent[label];
+        }
+        return label;
+    }
+    private int union(int firstLabel, int secondLabel) {
+        int root = find(firstLabel);
+        int other = find(secondLabel);
+
+        // if the labels are already in the same zone...
+        if (root == other) {
+            // ...there is nothing to merge
+            return root;
+        }
+
+        // gathers the fields of the other root on the root
+        parent[other] = root;
+        sides[root] += sides[other];
+        tiles[root] += tiles[other];
+        reachesBorder[root] |= reachesBorder[other];
+        if (enteringIndex[other] != -1 && (enteringIndex[root] == -1 || enteringIndex[other] < enteringIndex[root])) {
+            enteringIndex[root] = enteringIndex[other];
+        }
+
+        return root;
+    }
+    private void closeZones() {
+        // points every tile of the row to its root, which stays open
+        for (int x = 0; x < width; x++) {
+            if (currentLabels[x] != 0) {
+                currentLabels[x] = find(currentLabels[x]);
+                isOpen[currentLabels[x]] = true;
+            }
+        }
+
+        // loops through every label in use...
+        for (int label = 1; label < parent.length; label++) {
+            if (parent[label] == 0) {
+                continue;
+            }
+
+            // ...keeps the open roots
+            if (isOpen[label]) {
+                isOpen[label] = false;
+                continue;
+            }
+
+            // closes the other roots, whose zone can't grow anymore
+            if (parent[label] == label) {
+                closeZone(label);
+            }
+
+            // frees every other label, no tile being left under it
+            parent[label] = 0;
+            freeLabels[freeLabelCount++] = label;
+        }
+    }
+    private void closeZone(int root) {
+        closedZoneCount++;
+
+        // if the zone doesn't touch the border...
+        if (!reachesBorder[root]) {
+            // ...it is a lake, which is filled
+            innerTileCount += tiles[root];
+            return;
+        }
+
+        // the used tiles along the zone need a fence on every side they share with it
+        outerZoneCount++;
+        outerTileCount += tiles[root];
+        outerFences += sides[root];
+
+        // remembers the first span between two edges
+        if (enteringIndex[root] != -1 && (firstEntering == -1 || enteringIndex[root] < firstEntering)) {
+            firstEntering = enteringIndex[root];
+        }
+    }
+    private static void readFully(DataInputStream in, byte[] bytes) throws IOException {
+        try {
+            in.readFully(bytes);
+        } catch (EOFException e) {
+            throw new IOException("The grid file is truncated", e);
+        }
+    }
+    // endregion
+}
@@ -0,0 +1,433 @@
+package Cloture;
+
+import java.util.Arrays;
+
+/**
+ * Detects the edges of a run-length map, going through its runs rather than its tiles
+ *
+ * <p>The zones are labeled run by run: each run of 0s is merged with the runs of 0s it
+ * overlaps in the row above, so the work grows with the number of runs rather than with
+ * the size of the map. The layers are run-length grids of their own.
+ *
+ * <p>The lakes inside the perimeter are filled, so the fences are those between the used
+ * tiles and the zones touching the border, plus those along the border itself.
+ *
+ * <p>Going through the runs, the edge map decides whether the map is convex with
+ * {@link ConvexityRule#SPANS}, which an edge map only follows when told to.
+ */
+public class RunLengthEdgeMap {
+
+    // the map whose edges are detected
+    private final RunLengthGrid map;
+
+    // region zones
+
+    // the first tile of every run of 0s and the tile past its end, and the index of the first run of 0s of each row
+    private int[] zoneRunStarts;
+    private int[] zoneRunEnds;
+    private int[] zoneRowOffsets;
+
+    // whether each run of 0s belongs to a zone touching the border, null until the zones are detected
+    private boolean[] isOuterRun;
+
+    // the number of the last zone, the first zone being numbered 2
+    private int zoneCount;
+
+    // endregion
+
+    // region layers
+
+    // the tiles of the zones touching the border, the used tiles touching them and the map without lakes
+    private RunLengthGrid outerTiles;
+    private RunLengthGrid outerEdges;
+    private RunLengthGrid filledMap;
+
+    // the number of fences needed, -1 until they are counted
+    private long fenceCount = -1;
+
+    // endregion
+
+    /**
+     * Class constructor
+     * @param map the map to detect the edges of
+     */
+    public RunLengthEdgeMap(RunLengthGrid map) {
+        this.map = map;
+    }
+
+    /**
+     * Class constructor, encoding the map as runs
+     * @param map the map to detect the edges of
+     */
+    public RunLengthEdgeMap(int[][] map) {
+        this(RunLengthGrid.encode(map));
+    }
+
+    // =========================================
+    //                  ZONES
+    // =========================================
+
+    /**
+     * Zone count getter, labeling the zones on first call
+     * @return the number of the last zone, the first zone being numbered 2
+     * @throws IllegalArgumentException if the map is not convex
+     */
+    public int getZoneCount() {
+        detectZones();
+        return zoneCount;
+    }
+
+    /**
+     * Labels the runs of 0s, classifies their zones and checks whether the map is convex
+     */
+    private void detectZones() {
+        // if the zones have already been detected...
+        if (isOuterRun != null) {
+            // ...exits the method
+            return;
+        }
+
+        final int WIDTH = map.getWidth();
+        final int HEIGHT = map.getHeight();
+
+        // region runs of 0s
+
+        // a row holds at most one run of 0s more than its runs of 1s
+        zoneRunStarts = new int[map.getRunCount() + HEIGHT];
+        zoneRunEnds = new int[zoneRunStarts.length];
+        zoneRowOffsets = new int[HEIGHT + 1];
+
+        // the runs of 0s are the gaps between the runs of 1s
+        int zoneRuns = 0;
+        for (int y = 0; y < HEIGHT; y++) {
+            int x = 0;
+            for (int run = map.getRowOffset(y); run < map.getRowOffset(y + 1); run++) {
+                if (x < map.getRunStart(run)) {
+                    zoneRunStarts[zoneRuns] = x;
+                    zoneRunEnds[zoneRuns++] = map.getRunStart(run);
+                }
+                x = map.getRunEnd(run);
+            }
+            if (x < WIDTH) {
+                zoneRunStarts[zoneRuns] = x;
+                zoneRunEnds[zoneRuns++] = WIDTH;
+            }
+            zoneRowOffsets[y + 1] = zoneRuns;
+        }
+
+        // endregion
+
+        // region labeling
+
+        // every run of 0s starts as a zone of its own
+        final int[] PARENT = new int[zoneRuns];
+        for (int run = 0; run < zoneRuns; run++) {
+            PARENT[run] = run;
+        }
+
+        // merges the runs of 0s overlapping a run of 0s of the row above
+        for (int y = 1; y < HEIGHT; y++) {
+            int upper = zoneRowOffsets[y - 1], lower = zoneRowOffsets[y];
+
+            while (upper < zoneRowOffsets[y] && lower < zoneRowOffsets[y + 1]) {
+                if (zoneRunStarts[upper] < zoneRunEnds[lower] && zoneRunStarts[lower] < zoneRunEnds[upper]) {
+                    union(PARENT, upper, lower);
+                }
+
+                // moves past the run ending first
+                if (zoneRunEnds[upper] < zoneRunEnds[lower]) {
+                    upper++;
+                } else {
+                    lower++;
+                }
+            }
+        }
+
+        // endregion
+
+        // region classification
+
+        // the zones with a run along the border touch it
+        final boolean[] REACHES_BORDER = new boolean[zoneRuns];
+        zoneCount = 0;
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int run = zoneRowOffsets[y]; run < zoneRowOffsets[y + 1]; run++) {
+                int root = find(PARENT, run);
+                if (root == run) {
+                    zoneCount++;
+                }
+                if (y == 0 || y == HEIGHT - 1 || zoneRunStarts[run] == 0 || zoneRunEnds[run] == WIDTH) {
+                    REACHES_BORDER[root] = true;
+                }
+            }
+        }
+
+        // the first zone being numbered 2
+        zoneCount++;
+
+        // classifies every run of 0s, checking whether a run of a zone touching the border is between two edges
+        isOuterRun = new boolean[zoneRuns];
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int run = zoneRowOffsets[y]; run < zoneRowOffsets[y + 1]; run++) {
+                isOuterRun[run] = REACHES_BORDER[find(PARENT, run)];
+
+                // if the zone reaches the border AND is between two edges, the map is not convex
+                if (isOuterRun[run] && zoneRunStarts[run] != 0 && zoneRunEnds[run] != WIDTH) {
+                    isOuterRun = null;
+                    MapValidation.entering(zoneRunStarts[run], y).check();
+                }
+            }
+        }
+
+        // endregion
+    }
+
+    // =========================================
+    //                  LAYERS
+    // =========================================
+
+    /**
+     * Outer tiles getter, detecting them on first call
+     * @return the tiles of the zones touching the border of the map
+     * @throws IllegalArgumentException if the map is not convex
+     */
+    public RunLengthGrid getOuterTiles() {
+        // if the outer tiles haven't been detected yet...
+        if (outerTiles == null) {
+            detectZones();
+
+            // ...keeps the runs of 0s of the outer zones
+            RunLengthGrid.Builder builder = new RunLengthGrid.Builder(map.getWidth(), map.getHeight());
+            for (int y = 0; y < map.getHeight(); y++) {
+                for (int run = zoneRowOffsets[y]; run < zoneRowOffsets[y + 1]; run++) {
+                    if (isOuterRun[run]) builder.addRun(zoneRunStarts[run], zoneRunEnds[run]);
+                }
+                builder.endRow();
+            }
+            outerTiles = builder.build();
+        }
+        return outerTiles;
+    }
+
+    /**
+     * Filled map getter, filling the map on first call
+     * @return the map in which the lakes inside the perimeter are used tiles
+     * @throws IllegalArgumentException if the map is not convex
+     */
+    public RunLengthGrid getFilledMap() {
+        // if the map hasn't been filled yet...
+        if (filledMap == null) {
+            final RunLengthGrid OUTER_TILES = getOuterTiles();
+
+            // ...keeps the gaps between the outer tiles
+            RunLengthGrid.Builder builder = new RunLengthGrid.Builder(map.getWidth(), map.getHeight());
+            for (int y = 0; y < map.getHeight(); y++) {
+                int x = 0;
+                for (int run = OUTER_TILES.getRowOffset(y); run < OUTER_TILES.getRowOffset(y + 1); run++) {
+                    builder.addRun(x, OUTER_TILES.getRunStart(run));
+                    x = OUTER_TILES.getRunEnd(run);
+                }
+                builder.addRun(x, map.getWidth());
+                builder.endRow();
+            }
+            filledMap = builder.build();
+        }
+        return filledMap;
+    }
+
+    /**
+     * Outer edges getter, detecting them on first call
+     * @return the used tiles along the border or touching a tile of a zone touching the border
+     * @throws IllegalArgumentException if the map is not convex
+     */
+    public RunLengthGrid getOuterEdges() {
+        // if the outer edges haven't been detected yet...
+        if (outerEdges == null) {
+            // ...detects them
+            detectOuterEdges();
+        }
+        return outerEdges;
+    }
+
+    /**
+     * Detects the used tiles along the border or touching an outer tile, row by row
+     */
+    private void detectOuterEdges() {
+        final RunLengthGrid OUTER_TILES = getOuterTiles();
+        final int WIDTH = map.getWidth();
+        final int HEIGHT = map.getHeight();
+
+        RunLengthGrid.Builder builder = new RunLengthGrid.Builder(WIDTH, HEIGHT);
+
+        // the edges of the runs of a row, packed as their first tile and the tile past their end
+        long[] edges = new long[16];
+
+        // loops through every row...
+        for (int y = 0; y < HEIGHT; y++) {
+
+            // ...the rows along the border are edges from end to end
+            if (y == 0 || y == HEIGHT - 1) {
+                for (int run = map.getRowOffset(y); run < map.getRowOffset(y + 1); run++) {
+                    builder.addRun(map.getRunStart(run), map.getRunEnd(run));
+                }
+                builder.endRow();
+                continue;
+            }
+
+            // makes room for the edges of every run
+            final int RUN_COUNT = map.getRunCount(y);
+            final int CAPACITY = 4 * RUN_COUNT + 2 * (OUTER_TILES.getRunCount(y - 1) + OUTER_TILES.getRunCount(y + 1));
+            if (edges.length < CAPACITY) {
+                edges = new long[CAPACITY];
+            }
+            int edgeCount = 0;
+
+            for (int run = map.getRowOffset(y); run < map.getRowOffset(y + 1); run++) {
+                final int START = map.getRunStart(run);
+                final int END = map.getRunEnd(run);
+
+                // the tiles along the left and right columns, or next to an outer tile in the row
+                if (START == 0 || OUTER_TILES.get(START - 1, y) != 0) edges[edgeCount++] = pack(START, START + 1);
+                if (END == WIDTH || OUTER_TILES.get(END, y) != 0) edges[edgeCount++] = pack(END - 1, END);
+            }
+
+            // the tiles under or over the outer tiles of the rows above and below
+            edgeCount = addOverlaps(OUTER_TILES, y - 1, y, edges, edgeCount);
+            edgeCount = addOverlaps(OUTER_TILES, y + 1, y, edges, edgeCount);
+
+            // adds the edges from left to right, merging those which overlap
+            Arrays.sort(edges, 0, edgeCount);
+            for (int i = 0; i < edgeCount; i++) {
+                builder.addRun((int) (edges[i] >>> 32), (int) edges[i]);
+            }
+            builder.endRow();
+        }
+
+        outerEdges = builder.build();
+    }
+
+    // =========================================
+    //                 PERIMETER
+    // =========================================
+
+    /**
+     * Perimeter getter, counting the fences on first call
+     * @return the fence perimeter
+     * @throws IllegalArgumentException if the map is not convex
+     */
+    public double getFencePerimeter() {
+        // multiplies the number of fences by their length
+        return getFenceCount() * 2.5;
+    }
+
+    /**
+     * Fence count getter, counting the fences on first call
+     * @return the number of fences needed
+     * @throws IllegalArgumentException if the map is not convex
+     */
+    public long getFenceCount() {
+        // if the fences have already been counted...
+        if (fenceCount != -1) {
+            // ...returns them
+            return fenceCount;
+        }
+
+        final RunLengthGrid OUTER_TILES = getOuterTiles();
+        final int WIDTH = map.getWidth();
+        final int HEIGHT = map.getHeight();
+
+        long fences = 0;
+
+        // loops through every row...
+        for (int y = 0; y < HEIGHT; y++) {
+
+            // ...the used tiles along the left and right columns get a fence along the border,
+            // once if both columns are the same
+            for (int run = map.getRowOffset(y); run < map.getRowOffset(y + 1); run++) {
+                if (map.getRunStart(run) == 0) fences++;
+                if (map.getRunEnd(run) == WIDTH && WIDTH > 1) fences++;
+
+                // the used tiles along the upper and lower rows get a fence along the border, once if both rows are the same
+                if (y == 0 || y == HEIGHT - 1) fences += map.getRunEnd(run) - map.getRunStart(run);
+            }
+
+            // the outer tiles get a fence on each side touching a used tile of the row
+            for (int run = OUTER_TILES.getRowOffset(y); run < OUTER_TILES.getRowOffset(y + 1); run++) {
+                if (OUTER_TILES.getRunStart(run) != 0) fences++;
+                if (OUTER_TILES.getRunEnd(run) != WIDTH) fences++;
+            }
+
+            // and on each side touching a used tile of the row above, or an outer tile of the row above
+            if (y > 0) {
+                fences += countOverlap(OUTER_TILES, y - 1, map, y) + countOverlap(map, y - 1, OUTER_TILES, y);
+            }
+        }
+
+        fenceCount = fences;
+        return fenceCount;
+    }
+
+    // region helper methods
+    private static int find(int[] parent, int run) {
+        // walks up to the root, halving the path along the way
+        while (parent[run] != run) {
+            parent[run] = parent[parent[run]];
+            run = parent[run];
+        }
+        return run;
+    }
+    private static void union(int[] parent, int first, int second) {
+        // the earliest root stays the root
+        int firstRoot = find(parent, first);
+        int secondRoot = find(parent, second);
+        if (firstRoot < secondRoot) {
+            parent[secondRoot] = firstRoot;
+        } else {
+            parent[firstRoot] = secondRoot;
+        }
+    }
+    private static long pack(int start, int end) {
+        return ((long) start << 32) | end;
+    }
+    private int addOverlaps(RunLengthGrid outerTiles, int outerY, int y, long[] edges, int edgeCount) {
+        int outer = outerTiles.getRowOffset(outerY), run = map.getRowOffset(y);
+
+        // keeps the part of every run overlapping an outer run
+        while (outer < outerTiles.getRowOffset(outerY + 1) && run < map.getRowOffset(y + 1)) {
+            final int START = Math.max(outerTiles.getRunStart(outer), map.getRunStart(run));
+            final int END = Math.min(outerTiles.getRunEnd(outer), map.getRunEnd(run));
+            if (START < END) {
+                edges[edgeCount++] = pack(START, END);
+            }
+
+            // moves past the run ending first
+            if (outerTiles.getRunEnd(outer) < map.getRunEnd(run)) {
+                outer++;
+            } else {
+                run++;
+            }
+        }
+
+        return edgeCount;
+    }
+    private static long countOverlap(RunLengthGrid first, int firstY, RunLengthGrid second, int secondY) {
+        int firstRun = first.getRowOffset(firstY), secondRun = second.getRowOffset(secondY);
+        long overlap = 0;
+
+        // adds up the tiles in both runs
+        while (firstRun < first.getRowOffset(firstY + 1) && secondRun < second.getRowOffset(secondY + 1)) {
+            overlap += Math.max(0, Math.min(first.getRunEnd(firstRun), second.getRunEnd(secondRun)) -
+                    Math.max(first.getRunStart(firstRun), second.getRunStart(secondRun)));
+
+            // moves past the run ending first
+            if (first.getRunEnd(firstRun) < second.getRunEnd(secondRun)) {
+                firstRun++;
+            } else {
+                secondRun++;
+            }
+        }
+
+        return overlap;
+    }
+    // endregion
+}
@@ -0,0 +1,383 @@
+package Cloture;
+
+import java.util.Arrays;
+
+/**
+ * A read-only grid storing each row as the runs of its used tiles
+ *
+ * <p>Maps made of long horizontal runs of 0s and 1s take a few ints per row instead of
+ * a tile or a bit per tile, and the analysis of a run-length edge map goes through
+ * their runs rather than their tiles. Every tile which isn't 0 reads as a 1.
+ *
+ * <p>The runs are kept row after row as pairs of x coordinates: the first tile of the run
+ * and the tile past its end. The runs of a row are sorted, and never empty nor touching.
+ */
+public final class RunLengthGrid implements Grid {
+
+    // the grid's width and height
+    private final int width;
+    private final int height;
+
+    // the first tile of every run and the tile past its end, row after row
+    private final int[] runs;
+
+    // the index of the first run of each row, and the number of runs at the end
+    private final int[] rowOffsets;
+
+    /**
+     * Class constructor
+     * @param width the number of tiles in each row
+     * @param height the number of rows
+     * @param runs the first tile of every run and the tile past its end, row after row
+     * @param rowOffsets the index of the first run of each row, and the number of runs at the end
+     */
+    RunLengthGrid(int width, int height, int[] runs, int[] rowOffsets) {
+        this.width = width;
+        this.height = height;
+        this.runs = runs;
+        this.rowOffsets = rowOffsets;
+    }
+
+    // region converters
+
+    /**
+     * Creates a grid from the length of its runs, each row alternating between runs of 0s and runs of 1s.
+     * The first run of a row is a run of 0s, which may be empty.
+     * @param width the number of tiles in each row
+     * @param runLengths the length of the runs of each row
+     * @return the grid
+     * @throws IllegalArgumentException if a length is negative or the lengths of a row don't add up to the width
+     */
+    public static RunLengthGrid of(int width, int[][] runLengths) {
+        Builder builder = new Builder(width, runLengths.length);
+
+        // loops through every row...
+        for (int y = 0; y < runLengths.length; y++) {
+            int x = 0;
+
+            // ...and adds each of its runs of 1s
+            for (int i = 0; i < runLengths[y].length; i++) {
+                final int LENGTH = runLengths[y][i];
+
+                // if the run is out of the row...
+                if (LENGTH < 0 || LENGTH > width - x) {
+                    // ...throws a new error
+                    throw new IllegalArgumentException(String.format("Run %s of row %s does not fit in %s tiles",
+                            i, y, width));
+                }
+
+                if ((i & 1) == 1) {
+                    builder.addRun(x, x + LENGTH);
+                }
+                x += LENGTH;
+            }
+
+            // if the runs don't cover the row...
+            if (x != width) {
+                // ...throws a new error
+                throw new IllegalArgumentException(String.format("The runs of row %s cover %s tiles instead of %s",
+                        y, x, width));
+            }
+
+            builder.endRow();
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Encodes a map as runs
+     * @param map the map to encode
+     * @return the grid
+     */
+    public static RunLengthGrid encode(int[][] map) {
+        final int WIDTH = map[0].length;
+        Builder builder = new Builder(WIDTH, map.length);
+
+        // loops through every row...
+        for (int[] row : map) {
+            // ...and adds each of its runs of used tiles
+            for (int x = 0; x < WIDTH; x++) {
+                if (row[x] == 0) continue;
+
+                int start = x;
+                while (x < WIDTH && row[x] != 0) x++;
+                builder.addRun(start, x);
+            }
+            builder.endRow();
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Encodes any grid as runs, 64 tiles at a time
+     * @param grid the grid to encode
+     * @return the run-length grid
+     */
+    public static RunLengthGrid encode(Grid grid) {
+        final int WIDTH = grid.getWidth();
+        final int STRIDE = grid.getStride();
+        Builder builder = new Builder(WIDTH, grid.getHeight());
+
+        // loops through every row...
+        for (int y = 0; y < grid.getHeight(); y++) {
+
+            // the first tile of the run being read, -1 if none
+            int start = -1;
+
+            // ...and finds the bits where the words switch between 0s and 1s
+            for (int i = 0; i < STRIDE; i++) {
+                long word = grid.getWord(y, i);
+
+                // the bits of the word which differ from the tile before them
+                long carry = (start != -1) ? 1 : 0;
+                long switches = word ^ ((word << 1) | carry);
+
+                while (switches != 0) {
+                    final int X = (i << 6) + Long.numberOfTrailingZeros(switches);
+                    if (start == -1) {
+                        start = X;
+                    } else {
+                        builder.addRun(start, X);
+                        start = -1;
+                    }
+                    switches &= switches - 1;
+                }
+            }
+
+            // a run reaching the end of the row ends there
+            if (start != -1) {
+                builder.addRun(start, WIDTH);
+            }
+            builder.endRow();
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Decodes the grid as a map
+     * @return the map, with 1 for every used tile
+     */
+    public int[][] toArray() {
+        final int[][] MAP = new int[height][width];
+
+        // fills every run of every row
+        for (int y = 0; y < height; y++) {
+            for (int i = rowOffsets[y]; i < rowOffsets[y + 1]; i++) {
+                Arrays.fill(MAP[y], getRunStart(i), getRunEnd(i), 1);
+            }
+        }
+
+        return MAP;
+    }
+
+    /**
+     * Gets the length of the runs of each row, alternating between runs of 0s and runs of 1s
+     * @return the length of the runs of each row, the first one being a run of 0s which may be empty
+     */
+    public int[][] toRunLengths() {
+        final int[][] RUN_LENGTHS = new int[height][];
+
+        // loops through every row...
+        for (int y = 0; y < height; y++) {
+            final int RUN_COUNT = getRunCount(y);
+            final int[] LENGTHS = new int[RUN_COUNT * 2 + 1];
+
+            // ...and measures the gap before each run, then the run itself
+            int x = 0;
+            for (int i = 0; i < RUN_COUNT; i++) {
+                final int RUN = rowOffsets[y] + i;
+                LENGTHS[2 * i] = getRunStart(RUN) - x;
+                LENGTHS[2 * i + 1] = getRunEnd(RUN) - getRunStart(RUN);
+                x = getRunEnd(RUN);
+            }
+            LENGTHS[RUN_COUNT * 2] = width - x;
+
+            RUN_LENGTHS[y] = LENGTHS;
+        }
+
+        return RUN_LENGTHS;
+    }
+
+    // endregion
+
+    // region runs
+
+    /**
+     * Run count getter
+     * @return the number of runs of used tiles in the grid
+     */
+    public int getRunCount() {
+        return rowOffsets[height];
+    }
+
+    /**
+     * Gets the number of runs of a row
+     * @param y the y coordinate of the row
+     * @return the number of runs of used tiles in the row
+     */
+    int getRunCount(int y) {
+        return rowOffsets[y + 1] - rowOffsets[y];
+    }
+
+    /**
+     * Gets the index of the first run of a row
+     * @param y the y coordinate of the row, or the height for the number of runs
+     * @return the index of the first run of the row
+     */
+    int getRowOffset(int y) {
+        return rowOffsets[y];
+    }
+
+    /**
+     * Gets the first tile of a run
+     * @param run the index of the run
+     * @return the x coordinate of the first tile of the run
+     */
+    int getRunStart(int run) {
+        return runs[2 * run];
+    }
+
+    /**
+     * Gets the tile past the end of a run
+     * @param run the index of the run
+     * @return the x coordinate of the tile past the end of the run
+     */
+    int getRunEnd(int run) {
+        return runs[2 * run + 1];
+    }
+
+    // endregion
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public int get(int x, int y) {
+        // finds the last run starting at or before the tile
+        int run = findRun(y, x);
+        return (run != -1 && x < getRunEnd(run)) ? 1 : 0;
+    }
+
+    @Override
+    public long getWord(int y, int i) {
+        // the x coordinates of the first tile of the word and of the tile past its end
+        final int FROM_X = i << 6;
+        final int TO_X = Math.min(FROM_X + 64, width);
+
+        // starts from the last run starting at or before the word
+        int run = findRun(y, FROM_X);
+        if (run == -1) run = rowOffsets[y];
+
+        // sets the bits of every run overlapping the word
+        long word = 0;
+        for (; run < rowOffsets[y + 1] && getRunStart(run) < TO_X; run++) {
+            final int START = Math.max(getRunStart(run), FROM_X);
+            final int END = Math.min(getRunEnd(run), TO_X);
+            if (START < END) {
+                word |= (-1L >>> (64 - (END - START))) << START;
+            }
+        }
+
+        return word;
+    }
+
+    // region helper methods
+    private int findRun(int y, int x) {
+        // binary searches the last run of the row starting at or before x
+        int low = rowOffsets[y], high = rowOffsets[y + 1] - 1, found = -1;
+        while (low <= high) {
+            final int MIDDLE = (low + high) >>> 1;
+            if (getRunStart(MIDDLE) <= x) {
+                found = MIDDLE;
+                low = MIDDLE + 1;
+            } else {
+                high = MIDDLE - 1;
+            }
+        }
+        return found;
+    }
+    // endregion
+
+    /**
+     * Builds a run-length grid row after row
+     */
+    static final class Builder {
+
+        // the grid's width and height
+        private final int width;
+        private final int height;
+
+        // the runs added so far, and the number of coordinates they take
+        private int[] runs;
+        private int size;
+
+        // the index of the first run of each row, and the number of rows ended so far
+        private final int[] rowOffsets;
+        private int rowCount;
+
+        /**
+         * Class constructor
+         * @param width the number of tiles in each row
+         * @param height the number of rows
+         */
+        Builder(int width, int height) {
+            this.width = width;
+            this.height = height;
+            this.runs = new int[16];
+            this.rowOffsets = new int[height + 1];
+        }
+
+        /**
+         * Adds a run to the current row, after its other runs, merging it with a run it touches
+         * @param start the x coordinate of the first tile of the run
+         * @param end the x coordinate of the tile past its end
+         */
+        void addRun(int start, int end) {
+            // if the run is empty...
+            if (start >= end) {
+                // ...there is nothing to add
+                return;
+            }
+
+            // if the run touches the last run of the row...
+            if (size > 2 * rowOffsets[rowCount] && runs[size - 1] >= start) {
+                // ...extends it
+                runs[size - 1] = Math.max(runs[size - 1], end);
+                return;
+            }
+
+            // makes room for the run
+            if (size + 2 > runs.length) {
+                runs = Arrays.copyOf(runs, runs.length * 2);
+            }
+
+            runs[size++] = start;
+            runs[size++] = end;
+        }
+
+        /**
+         * Ends the current row
+         */
+        void endRow() {
+            rowOffsets[++rowCount] = size / 2;
+        }
+
+        /**
+         * Builds the grid, once every row has ended
+         * @return the grid
+         */
+        RunLengthGrid build() {
+            return new RunLengthGrid(width, height, Arrays.copyOf(runs, size), rowOffsets);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package Cloture;
+
+import java.util.Arrays;
+
+/**
+ * A flood fill which floods a layer one horizontal span at a time, keeping the
+ * spans left to flood in an explicit work queue instead of on the thread's stack
+ *
+ * <p>The work queue and the flood fields are kept in the context of each flood,
+ * so that the flood fill can be shared by any number of threads.
+ */
+public class ScanlineFloodFill implements FloodFill {
+
+    @Override
+    public void flood(Grid map, Layer layer, int x, int y, int zone) {
+        // floods the layer with a context of its own
+        flood(map, layer, x, y, zone, new FloodContext());
+    }
+
+    @Override
+    public void flood(Grid map, Layer layer, int x, int y, int zone, FloodContext context) {
+
+        // saves the layer height and length
+        context.layerHeight = layer.getHeight();
+        context.layerWidth = layer.getWidth();
+
+        // resets the variables used to check if the map is convex
+        resetConvexVars(context);
+
+        // empties the work queue, which a flood stopped by an error may have left full
+        context.queueSize = 0;
+
+        // floods the span containing the starting point, even if it is already used
+        floodSpan(map, layer, x, y, zone, context);
+
+        // while there are still seeds left to flood...
+        while (context.queueSize != 0) {
+
+            // ...gets the next seed
+            int seedY = context.queue[--context.queueSize];
+            int seedX = context.queue[--context.queueSize];
+
+            // if the seed has been flooded since it was queued...
+            if (layer.get(seedX, seedY) != 0) {
+                // ...moves on to the next seed
+                continue;
+            }
+
+            // floods the span containing the seed
+            floodSpan(map, layer, seedX, seedY, zone, context);
+        }
+    }
+
+    // region helper methods
+    private static void floodSpan(Grid map, Layer layer, int x, int y, int zone, FloodContext context) {
+        // extends the span to the left as far as possible
+        int spanStart = x;
+        while (spanStart > 0 && layer.get(spanStart - 1, y) == 0) {
+            spanStart--;
+        }
+
+        // extends the span to the right as far as possible
+        int spanEnd = x;
+        while (spanEnd < context.layerWidth - 1 && layer.get(spanEnd + 1, y) == 0) {
+            spanEnd++;
+        }
+
+        // floods the whole span at once
+        layer.fill(y, spanStart, spanEnd + 1, zone);
+
+        // updates the variables used to check if the map is convex
+        updateConvexVars(map, spanStart, spanEnd, y, context);
+
+        // checks whether the map is convex
+        checkConvex(context);
+
+        // if the upper row exists, queues its empty spans
+        if (y != 0) {
+            queueSpans(layer, spanStart, spanEnd, y - 1, context);
+        }
+
+        // if the lower row exists, queues its empty spans
+        if (y < context.layerHeight - 1) {
+            queueSpans(layer, spanStart, spanEnd, y + 1, context);
+        }
+    }
+    private static void queueSpans(Layer layer, int spanStart, int spanEnd, int y, FloodContext context) {
+        // whether the previous tile was empty
+        boolean previousWasEmpty = false;
+
+        // loops through the tiles adjacent to the span...
+        for (int x = spanStart; x <= spanEnd; x++) {
+
+            // whether the current tile is empty
+            boolean isEmpty = layer.get(x, y) == 0;
+
+            // if the tile starts a new empty span...
+            if (isEmpty && !previousWasEmpty) {
+                // ...queues it as a seed
+                push(x, y, context);
+            }
+
+            previousWasEmpty = isEmpty;
+        }
+    }
+    private static void push(int x, int y, FloodContext context) {
+        // if the queue is full...
+        if (context.queueSize + 2 > context.queue.length) {
+            // ...doubles its capacity
+            context.queue = Arrays.copyOf(context.queue, context.queue.length * 2);
+        }
+
+        context.queue[context.queueSize++] = x;
+        context.queue[context.queueSize++] = y;
+    }
+    private static void updateConvexVars(Grid map, int spanStart, int spanEnd, int y, FloodContext context) {
+        if (y < context.minFloodY) {
+            context.minFloodY = y;
+        }
+        if (y > context.maxFloodY) {
+            context.maxFloodY = y;
+        }
+        if (spanStart < context.minFloodX) {
+            context.minFloodX = spanStart;
+        }
+        if (spanEnd > context.maxFloodX) {
+            context.maxFloodX = spanEnd;
+        }
+
+        // updates the coordinates of the edges to the left and to the right of the span
+        context.leftFloodEdgeX = (spanStart != 0 && map.get(spanStart - 1, y) == 1) ? spanStart : -1;
+        context.rightFloodEdgeX = (spanEnd != context.layerWidth - 1 && map.get(spanEnd + 1, y) == 1) ? spanEnd : -1;
+
+        // checks whether the span is between two edges
+        final boolean SPAN_IS_BETWEEN_EDGES = (context.leftFloodEdgeX <= context.rightFloodEdgeX) &&
+                ((context.leftFloodEdgeX != -1) && (context.rightFloodEdgeX != -1));
+
+        // remembers the first span found between two edges
+        if (SPAN_IS_BETWEEN_EDGES && context.enteringY == -1) {
+            context.enteringX = spanStart;
+            context.enteringY = y;
+        }
+    }
+    private static void checkConvex(FloodContext context) {
+        // checks whether the flood is between two edges
+        final boolean FLOOD_IS_BETWEEN_EDGES = context.enteringY != -1;
+
+        final boolean FLOOD_HAS_REACHED_BORDER = (context.minFloodX == 0) || (context.minFloodY == 0) ||
+                (context.maxFloodX == context.layerWidth-1) || (context.maxFloodY == context.layerHeight-1);
+
+        // if the flood is not convex and its context checks it
+        if (FLOOD_IS_BETWEEN_EDGES && FLOOD_HAS_REACHED_BORDER && context.checkConvex) {
+            // throws a new error
+            MapValidation.entering(context.enteringX, context.enteringY).check();
+        }
+    }
+    private static void resetConvexVars(FloodContext context) {
+        context.minFloodX = context.layerWidth;
+        context.minFloodY = context.layerHeight;
+        context.maxFloodY = context.maxFloodX = 0;
+
+        context.leftFloodEdgeX = context.rightFloodEdgeX = -1;
+        context.enteringX = context.enteringY = -1;
+    }
+    // endregion
+}
@@ -0,0 +1,87 @@
+package Cloture;
+
+import java.util.Arrays;
+
+/**
+ * The buffers of an edge map, kept from one map to the next so that analysing many maps
+ * in a row allocates next to nothing: the layers are laid over words which only grow,
+ * and the zone stripe keeps its own buffers
+ *
+ * <p>A scratch must only be used by one edge map at a time, and every layer it lends
+ * is only valid until the same layer is borrowed again.
+ */
+final class Scratch {
+
+    // region layers
+
+    // the layers which can be borrowed
+    static final int MAP = 0;
+    static final int OUTER_TILES = 1;
+    static final int OUTER_EDGES = 2;
+    static final int FILLED_MAP = 3;
+    static final int CROPPED_OUTER_TILES = 4;
+
+    // the words of every layer, null until first borrowed
+    private final long[][] layerWords = new long[5][];
+
+    // endregion
+
+    // the zone labeler labeling the outer tiles in the calling thread, and the stripe it labels the map with
+    private final UnionFindZoneLabeler zoneLabeler = new UnionFindZoneLabeler();
+    private final UnionFindZoneLabeler uncheckedZoneLabeler = zoneLabeler.withoutConvexityCheck();
+    private final ZoneStripe stripe = new ZoneStripe();
+
+    /**
+     * Borrows a cleared layer
+     * @param layer the layer to borrow
+     * @param width the number of tiles in each row
+     * @param height the number of rows
+     * @return the layer, valid until it is borrowed again
+     */
+    BitGrid borrow(int layer, int width, int height) {
+        // the number of words of the layer
+        final int SIZE = ((width + 63) >>> 6) * height;
+
+        // if the words of the layer are too small...
+        if (layerWords[layer] == null || layerWords[layer].length < SIZE) {
+            // ...grows them
+            layerWords[layer] = new long[SIZE];
+        } else {
+            // ...else clears the words of the previous map
+            Arrays.fill(layerWords[layer], 0, SIZE, 0);
+        }
+
+        return new BitGrid(width, height, layerWords[layer]);
+    }
+
+    /**
+     * Packs a map into the map layer, every tile which isn't 0 becoming a 1
+     * @param map the map to pack
+     * @return the packed map, valid until the map layer is borrowed again
+     */
+    BitGrid pack(int[][] map) {
+        BitGrid packed = borrow(MAP, map[0].length, map.length);
+        packed.pack(map);
+        return packed;
+    }
+
+    /**
+     * Labels the tiles of the zones touching the border of the map into the outer tiles layer
+     * @param map the base map
+     * @param outerTiles the cleared outer tiles layer
+     * @param checkConvex whether to check if the map is convex, following the span rule
+     * @return the number of the last zone
+     * @throws IllegalArgumentException if the map is not convex and it is checked
+     */
+    int labelOuterTiles(Grid map, BitGrid outerTiles, boolean checkConvex) {
+        return (checkConvex ? zoneLabeler : uncheckedZoneLabeler).labelOuterTiles(map, outerTiles, stripe);
+    }
+
+    /**
+     * Zone labeler getter
+     * @return the zone labeler labeling the zones in the calling thread
+     */
+    ZoneLabeler getZoneLabeler() {
+        return zoneLabeler;
+    }
+}
@@ -0,0 +1,107 @@
+package Cloture;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Splits the rows of a map into horizontal stripes processed side by side
+ */
+final class Stripes {
+
+    // the smallest number of rows worth processing in a stripe of its own
+    private static final int MIN_STRIPE_HEIGHT = 16;
+
+    /**
+     * A task run over a stripe of rows
+     */
+    interface StripeTask {
+
+        /**
+         * Runs the task over a stripe
+         * @param stripe the index of the stripe
+         * @param fromY the y coordinate of the first row of the stripe (inclusive)
+         * @param toY the y coordinate of the last row of the stripe (exclusive)
+         * @return the result of the task over the stripe, summed with the results of the other stripes
+         */
+        long run(int stripe, int fromY, int toY);
+    }
+
+    private Stripes() {}
+
+    /**
+     * Gets the number of stripes to split the rows in
+     * @param pool the pool processing the stripes, null to process the rows in a single stripe
+     * @param height the number of rows
+     * @return the number of stripes
+     */
+    static int count(ForkJoinPool pool, int height) {
+        // if the rows aren't processed in parallel...
+        if (pool == null) {
+            // ...keeps them in a single stripe
+            return 1;
+        }
+
+        // splits the rows in a few stripes per thread, so that uneven stripes can be balanced
+        return Math.max(1, Math.min(pool.getParallelism() * 4, height / MIN_STRIPE_HEIGHT));
+    }
+
+    /**
+     * Gets the first row of a stripe
+     * @param stripe the index of the stripe
+     * @param stripeCount the number of stripes
+     * @param height the number of rows
+     * @return the y coordinate of the first row of the stripe
+     */
+    static int fromY(int stripe, int stripeCount, int height) {
+        return (int) ((long) height * stripe / stripeCount);
+    }
+
+    /**
+     * Runs a task over every stripe and sums the results
+     * @param pool the pool processing the stripes, null to run the task in the calling thread
+     * @param stripeCount the number of stripes
+     * @param height the number of rows
+     * @param task the task to run over each stripe
+     * @return the sum of the results of the task over every stripe
+     */
+    static long sum(ForkJoinPool pool, int stripeCount, int height, StripeTask task) {
+        // if there is a single stripe...
+        if (pool == null || stripeCount == 1) {
+            // ...runs the task over every stripe in the calling thread
+            long sum = 0;
+            for (int stripe = 0; stripe < stripeCount; stripe++) {
+                sum += task.run(stripe, fromY(stripe, stripeCount, height), fromY(stripe + 1, stripeCount, height));
+            }
+            return sum;
+        }
+
+        // the task over each stripe
+        List<Callable<Long>> tasks = new ArrayList<>(stripeCount);
+        for (int stripe = 0; stripe < stripeCount; stripe++) {
+            final int STRIPE = stripe;
+            tasks.add(() -> task.run(STRIPE, fromY(STRIPE, stripeCount, height), fromY(STRIPE + 1, stripeCount, height)));
+        }
+
+        // runs the tasks and sums their results
+        long sum = 0;
+        for (Future<Long> result : pool.invokeAll(tasks)) {
+            try {
+                sum += result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } catch (ExecutionException e) {
+                // rethrows the error of the task as it is
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                if (cause instanceof Error) throw (Error) cause;
+                throw new IllegalStateException(cause);
+            }
+        }
+        return sum;
+    }
+}
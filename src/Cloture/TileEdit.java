@@ -0,0 +1,50 @@
+package Cloture;
+
+/**
+ * A change of a single tile of a map
+ */
+public final class TileEdit {
+
+    // the coordinates of the tile
+    private final int x;
+    private final int y;
+
+    // the new value of the tile
+    private final int value;
+
+    /**
+     * Class constructor
+     * @param x the x coordinate of the tile
+     * @param y the y coordinate of the tile
+     * @param value the new value of the tile, any value but 0 being a used tile
+     */
+    public TileEdit(int x, int y, int value) {
+        this.x = x;
+        this.y = y;
+        this.value = value;
+    }
+
+    /**
+     * X coordinate getter
+     * @return the x coordinate of the tile
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * Y coordinate getter
+     * @return the y coordinate of the tile
+     */
+    public int getY() {
+        return y;
+    }
+
+    /**
+     * Value getter
+     * @return the new value of the tile
+     */
+    public int getValue() {
+        return value;
+    }
+}
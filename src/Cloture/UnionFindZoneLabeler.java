@@ -0,0 +1,402 @@
+package Cloture;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A zone labeler which labels every zone in two passes over the map (Hoshen-Kopelman),
+ * merging the temporary labels of connected tiles with a union-find
+ *
+ * <p>Only the temporary labels of two rows are ever kept: the second pass replays
+ * the first one row by row to find them again, then numbers each zone.
+ *
+ * <p>Given a pool, the rows are split into stripes labeled side by side, the labels
+ * meeting at the boundary of two stripes being merged before the second pass.
+ * The zones are numbered exactly as they would be without a pool.
+ */
+public class UnionFindZoneLabeler implements ZoneLabeler {
+
+    // the directory in which the zones layer is mapped, null to keep it on the heap
+    private final Path scratchDirectory;
+
+    // the pool labeling the stripes, null to label the map in the calling thread
+    private final ForkJoinPool pool;
+
+    // whether the labeler checks if the map is convex, following the span rule
+    private final boolean checkConvex;
+
+    /**
+     * Class constructor, keeping the zones layer on the heap
+     */
+    public UnionFindZoneLabeler() {
+        this(null, null);
+    }
+
+    /**
+     * Class constructor
+     * @param scratchDirectory the directory of the scratch files in which the zones layer
+     *                         is mapped, or null to keep the zones layer on the heap
+     */
+    public UnionFindZoneLabeler(Path scratchDirectory) {
+        this(scratchDirectory, null);
+    }
+
+    /**
+     * Class constructor, keeping the zones layer on the heap
+     * @param pool the pool labeling stripes of the map in parallel, or null to label the map sequentially
+     */
+    public UnionFindZoneLabeler(ForkJoinPool pool) {
+        this(null, pool);
+    }
+
+    /**
+     * Class constructor
+     * @param scratchDirectory the directory of the scratch files in which the zones layer
+     *                         is mapped, or null to keep the zones layer on the heap
+     * @param pool the pool labeling stripes of the map in parallel, or null to label the map sequentially
+     */
+    public UnionFindZoneLabeler(Path scratchDirectory, ForkJoinPool pool) {
+        this(scratchDirectory, pool, true);
+    }
+
+    /**
+     * Class constructor
+     * @param scratchDirectory the directory of the scratch files in which the zones layer
+     *                         is mapped, or null to keep the zones layer on the heap
+     * @param pool the pool labeling stripes of the map in parallel, or null to label the map sequentially
+     * @param checkConvex whether to check if the map is convex, following the span rule
+     */
+    private UnionFindZoneLabeler(Path scratchDirectory, ForkJoinPool pool, boolean checkConvex) {
+        this.scratchDirectory = scratchDirectory;
+        this.pool = pool;
+        this.checkConvex = checkConvex;
+    }
+
+    @Override
+    public ZoneGrid label(Grid map) {
+
+        // the map's width and height
+        final int MAP_HEIGHT = map.getHeight();
+        final int MAP_WIDTH = map.getWidth();
+
+        // labels every tile and resolves the convexity of every zone
+        final Labels LABELS = firstPass(map, createStripes(MAP_HEIGHT));
+
+        // region numbering
+
+        // the final number of every temporary label
+        final int[] ZONE_NUMBERS = new int[LABELS.parent.length];
+
+        // the number of the last zone
+        int zoneCount = 1;
+
+        // the temporary labels are in the order in which they were created, and every root
+        // is the zone's first label: numbers the zones in the order of their first tile
+        for (int label = 1; label < ZONE_NUMBERS.length; label++) {
+            int root = find(LABELS.parent, label);
+            ZONE_NUMBERS[label] = (root == label) ? ++zoneCount : ZONE_NUMBERS[root];
+        }
+
+        // endregion
+
+        // region second pass
+
+        // the zones layer
+        final ZoneGrid ZONES = createZones(MAP_WIDTH, MAP_HEIGHT, zoneCount);
+
+        // numbers the tiles of every stripe
+        Stripes.sum(pool, LABELS.stripes.length, MAP_HEIGHT, (s, fromY, toY) -> {
+            ZoneStripe stripe = LABELS.stripes[s];
+            stripe.startReplay();
+
+            // loops through every line...
+            for (int y = fromY; y < toY; y++) {
+
+                // ...finds the same temporary labels as in the first pass
+                int[] row = stripe.replayRow(map, y);
+
+                // loops through every tile in the line...
+                for (int x = 0; x < MAP_WIDTH; x++) {
+                    // if the tile is part of a zone...
+                    if (row[x] != 0) {
+                        // ...numbers it
+                        ZONES.set(x, y, ZONE_NUMBERS[LABELS.offsets[s] + row[x]]);
+                    }
+                }
+            }
+
+            stripe.release();
+            return 0;
+        });
+
+        // endregion
+
+        return ZONES;
+    }
+
+    @Override
+    public int labelOuterTiles(Grid map, BitGrid outerTiles) {
+        return labelOuterTiles(map, outerTiles, createStripes(map.getHeight()), true);
+    }
+
+    @Override
+    public UnionFindZoneLabeler withoutConvexityCheck() {
+        return checkConvex ? new UnionFindZoneLabeler(scratchDirectory, pool, false) : this;
+    }
+
+    /**
+     * Labels the tiles of the zones touching the border of the map into a cleared layer,
+     * labeling the whole map in the calling thread with a stripe whose buffers are kept
+     * @param map the base map
+     * @param outerTiles the cleared layer in which to mark the outer tiles
+     * @param stripe the stripe labeling the map
+     * @return the number of the last zone
+     * @throws IllegalArgumentException if the map is not convex
+     */
+    int labelOuterTiles(Grid map, BitGrid outerTiles, ZoneStripe stripe) {
+        return labelOuterTiles(map, outerTiles, new ZoneStripe[] {stripe}, false);
+    }
+
+    // =========================================
+    //               OUTER TILES
+    // =========================================
+
+    /**
+     * Labels the tiles of the zones touching the border of the map into a cleared layer
+     * @param map the base map
+     * @param outerTiles the cleared layer in which to mark the outer tiles
+     * @param stripes the stripes labeling the map
+     * @param release whether to release the buffers of the stripes once done
+     * @return the number of the last zone
+     * @throws IllegalArgumentException if the map is not convex
+     */
+    private int labelOuterTiles(Grid map, BitGrid outerTiles, ZoneStripe[] stripes, boolean release) {
+
+        // the map's width and height
+        final int MAP_HEIGHT = map.getHeight();
+        final int MAP_WIDTH = map.getWidth();
+
+        // labels every tile and resolves the convexity of every zone
+        final Labels LABELS = firstPass(map, stripes);
+
+        // whether every temporary label is part of a zone touching the border
+        final boolean[] IS_OUTER = new boolean[LABELS.parent.length];
+        for (int label = 1; label < IS_OUTER.length; label++) {
+            IS_OUTER[label] = LABELS.reachesBorder[find(LABELS.parent, label)];
+        }
+
+        // region second pass
+
+        // marks the outer tiles of every stripe, each row having words of its own
+        Stripes.sum(pool, LABELS.stripes.length, MAP_HEIGHT, (s, fromY, toY) -> {
+            ZoneStripe stripe = LABELS.stripes[s];
+            stripe.startReplay();
+
+            // loops through every line...
+            for (int y = fromY; y < toY; y++) {
+
+                // ...finds the same temporary labels as in the first pass
+                int[] row = stripe.replayRow(map, y);
+
+                // loops through every tile in the line...
+                for (int x = 0; x < MAP_WIDTH; x++) {
+                    // if the tile is part of a zone touching the border...
+                    if (row[x] != 0 && IS_OUTER[LABELS.offsets[s] + row[x]]) {
+                        // ...adds it to the outer tiles
+                        outerTiles.set(x, y, 1);
+                    }
+                }
+            }
+
+            if (release) {
+                stripe.release();
+            }
+            return 0;
+        });
+
+        // endregion
+
+        return LABELS.zoneCount;
+    }
+
+    // =========================================
+    //                FIRST PASS
+    // =========================================
+
+    /**
+     * The temporary labels of every stripe, merged into a single union-find
+     * in which a stripe's label is found at the stripe's offset plus the label
+     */
+    private static final class Labels {
+        private ZoneStripe[] stripes;
+        private int[] offsets;
+        private int[] parent;
+        private boolean[] reachesBorder;
+        private int zoneCount;
+    }
+
+    /**
+     * Labels every stripe of the map, merges the labels meeting between two stripes,
+     * then checks if the map is convex unless the labeler leaves it to its caller
+     * @param map the base map
+     * @param stripes the stripes labeling the map, one per stripe of rows
+     * @return the temporary labels of every stripe
+     * @throws IllegalArgumentException if the map is not convex
+     */
+    private Labels firstPass(Grid map, ZoneStripe[] stripes) {
+
+        // the map's width
+        final int MAP_WIDTH = map.getWidth();
+
+        // region labeling the stripes
+
+        final ZoneStripe[] STRIPES = stripes;
+        final int STRIPE_COUNT = STRIPES.length;
+
+        // labels every stripe
+        Stripes.sum(pool, STRIPE_COUNT, map.getHeight(), (s, fromY, toY) -> {
+            STRIPES[s].firstPass(map, fromY, toY);
+            return 0;
+        });
+
+        // endregion
+
+        // region merging the stripes
+
+        Labels labels = new Labels();
+        labels.stripes = STRIPES;
+
+        // gives the labels of every stripe a range of their own, label 0 being unused
+        labels.offsets = new int[STRIPE_COUNT];
+        int labelCount = 1;
+        for (int s = 0; s < STRIPE_COUNT; s++) {
+            labels.offsets[s] = labelCount - 1;
+            labelCount += STRIPES[s].getLabelCount() - 1;
+        }
+
+        // every label starts under its root in its own stripe
+        int[] parent = new int[labelCount];
+        for (int s = 0; s < STRIPE_COUNT; s++) {
+            for (int label = 1; label < STRIPES[s].getLabelCount(); label++) {
+                parent[labels.offsets[s] + label] = labels.offsets[s] + STRIPES[s].find(label);
+            }
+        }
+        labels.parent = parent;
+
+        // merges the labels of the tiles touching across the boundary of two stripes
+        for (int s = 1; s < STRIPE_COUNT; s++) {
+            int[] upperRow = STRIPES[s - 1].getBottomRow();
+            int[] lowerRow = STRIPES[s].getTopRow();
+
+            for (int x = 0; x < MAP_WIDTH; x++) {
+                if (upperRow[x] != 0 && lowerRow[x] != 0) {
+                    union(parent, labels.offsets[s - 1] + upperRow[x], labels.offsets[s] + lowerRow[x]);
+                }
+            }
+        }
+
+        // endregion
+
+        // region checking convexity
+
+        // whether each zone touches the border of the map, and the index of its first span between two edges
+        labels.reachesBorder = new boolean[labelCount];
+        long[] enteringIndex = new long[labelCount];
+        Arrays.fill(enteringIndex, -1);
+
+        // gathers the convexity variables of every stripe's roots on the zone's root
+        for (int s = 0; s < STRIPE_COUNT; s++) {
+            ZoneStripe stripe = STRIPES[s];
+
+            for (int label = 1; label < stripe.getLabelCount(); label++) {
+                // if the label isn't a root in its stripe...
+                if (stripe.find(label) != label) {
+                    // ...its variables are already on its root
+                    continue;
+                }
+
+                int root = find(parent, labels.offsets[s] + label);
+                long entering = stripe.getEnteringIndex(label);
+
+                if (stripe.reachesBorder(label)) {
+                    labels.reachesBorder[root] = true;
+                }
+                if (entering != -1 && (enteringIndex[root] == -1 || entering < enteringIndex[root])) {
+                    enteringIndex[root] = entering;
+                }
+            }
+        }
+
+        // the first span between two edges of a zone reaching the border, -1 if none
+        long firstEntering = -1;
+        for (int label = 1; label < labelCount; label++) {
+            // counts the zones, every root being a zone of its own
+            if (parent[label] == label) {
+                labels.zoneCount++;
+            }
+            if (parent[label] == label && labels.reachesBorder[label] && enteringIndex[label] != -1 &&
+                    (firstEntering == -1 || enteringIndex[label] < firstEntering)) {
+                firstEntering = enteringIndex[label];
+            }
+        }
+
+        // if a zone reaches the border AND is between two edges, the map is not convex
+        if (checkConvex && firstEntering != -1) {
+            // throws a new error
+            MapValidation.entering((int) (firstEntering % MAP_WIDTH), (int) (firstEntering / MAP_WIDTH)).check();
+        }
+
+        // endregion
+
+        // the first zone being numbered 2
+        labels.zoneCount++;
+
+        return labels;
+    }
+
+    // region helper methods
+    private ZoneStripe[] createStripes(int height) {
+        // splits the map in stripes
+        ZoneStripe[] stripes = new ZoneStripe[Stripes.count(pool, height)];
+        for (int s = 0; s < stripes.length; s++) {
+            stripes[s] = new ZoneStripe();
+        }
+        return stripes;
+    }
+    private ZoneGrid createZones(int width, int height, int zoneCount) {
+        // if the zones layer is kept on the heap...
+        if (scratchDirectory == null) {
+            // ...creates it there
+            return ZoneGrid.create(width, height, zoneCount);
+        }
+
+        try {
+            return ZoneGrid.createMapped(scratchDirectory, width, height, zoneCount);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    private static int find(int[] parent, int label) {
+        // walks up to the root, halving the path along the way
+        while (parent[label] != label) {
+            parent[label] = parent[parent[label]];
+            label = parent[label];
+        }
+        return label;
+    }
+    private static void union(int[] parent, int firstLabel, int secondLabel) {
+        int firstRoot = find(parent, firstLabel);
+        int secondRoot = find(parent, secondLabel);
+
+        // attaches the later root under the earlier one, so that every root stays the zone's first label
+        if (firstRoot < secondRoot) {
+            parent[secondRoot] = firstRoot;
+        } else if (secondRoot < firstRoot) {
+            parent[firstRoot] = secondRoot;
+        }
+    }
+    // endregion
+}
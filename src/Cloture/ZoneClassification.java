@@ -0,0 +1,192 @@
+package Cloture;
+
+/**
+ * Classifies every zone of a zones layer as an outer zone, which touches the border of the map,
+ * or an inner zone, a lake inside the perimeter, and counts the tiles of every zone
+ *
+ * <p>Zones are looked up by their number, in constant time and without boxing.
+ */
+public final class ZoneClassification {
+
+    // the number of the last zone, the first zone being numbered 2
+    private final int zoneCount;
+
+    // whether each zone is an outer zone, one bit per zone number
+    private final long[] outerZones;
+
+    // the number of tiles of each zone
+    private final long[] tileCounts;
+
+    // the number of outer zones
+    private final int outerZoneCount;
+
+    // the number of tiles of the outer and of the inner zones
+    private final long outerTileCount;
+    private final long innerTileCount;
+
+    /**
+     * Class constructor
+     * @param zones the zones layer to classify
+     */
+    private ZoneClassification(ZoneGrid zones) {
+        // the layer's width and height
+        final int WIDTH = zones.getWidth();
+        final int HEIGHT = zones.getHeight();
+
+        zoneCount = zones.getZoneCount();
+        outerZones = new long[(zoneCount >>> 6) + 1];
+        tileCounts = new long[zoneCount + 1];
+
+        // region outer zones
+
+        // marks the zones of the tiles along the top and bottom rows
+        for (int x = 0; x < WIDTH; x++) {
+            markOuter(zones.get(x, 0));
+            markOuter(zones.get(x, HEIGHT - 1));
+        }
+
+        // marks the zones of the tiles along the left and right columns
+        for (int y = 0; y < HEIGHT; y++) {
+            markOuter(zones.get(0, y));
+            markOuter(zones.get(WIDTH - 1, y));
+        }
+
+        // endregion
+
+        // counts the tiles of every zone
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                tileCounts[zones.get(x, y)]++;
+            }
+        }
+
+        // region totals
+
+        int outerZoneCount = 0;
+        long outerTileCount = 0;
+        long innerTileCount = 0;
+
+        for (int zone = 2; zone <= zoneCount; zone++) {
+            if (isOuter(zone)) {
+                outerZoneCount++;
+                outerTileCount += tileCounts[zone];
+            } else {
+                innerTileCount += tileCounts[zone];
+            }
+        }
+
+        this.outerZoneCount = outerZoneCount;
+        this.outerTileCount = outerTileCount;
+        this.innerTileCount = innerTileCount;
+
+        // endregion
+    }
+
+    /**
+     * Classifies every zone of a zones layer
+     * @param zones the zones layer, land tiles being 0 and zones being numbered from 2
+     * @return the classification of the zones
+     */
+    public static ZoneClassification of(ZoneGrid zones) {
+        return new ZoneClassification(zones);
+    }
+
+    // =========================================
+    //              CLASSIFICATION
+    // =========================================
+
+    /**
+     * Checks whether a zone touches the border of the map
+     * @param zone the number of the zone
+     * @return true if the zone is an outer zone, false if it is an inner zone or isn't a zone
+     */
+    public boolean isOuter(int zone) {
+        return zone > 1 && zone <= zoneCount && (outerZones[zone >>> 6] & (1L << zone)) != 0;
+    }
+
+    /**
+     * Checks whether a zone is a lake inside the perimeter
+     * @param zone the number of the zone
+     * @return true if the zone is an inner zone, false if it is an outer zone or isn't a zone
+     */
+    public boolean isInner(int zone) {
+        return zone > 1 && zone <= zoneCount && (outerZones[zone >>> 6] & (1L << zone)) == 0;
+    }
+
+    // =========================================
+    //               STATISTICS
+    // =========================================
+
+    /**
+     * Zone count getter
+     * @return the number of the last zone
+     */
+    public int getZoneCount() {
+        return zoneCount;
+    }
+
+    /**
+     * Outer zone count getter
+     * @return the number of zones touching the border of the map
+     */
+    public int getOuterZoneCount() {
+        return outerZoneCount;
+    }
+
+    /**
+     * Inner zone count getter
+     * @return the number of lakes inside the perimeter
+     */
+    public int getInnerZoneCount() {
+        return zoneCount - 1 - outerZoneCount;
+    }
+
+    /**
+     * Gets the number of tiles of a zone
+     * @param zone the number of the zone
+     * @return the number of tiles of the zone
+     * @throws IndexOutOfBoundsException if the zone doesn't exist
+     */
+    public long getTileCount(int zone) {
+        // if the zone doesn't exist...
+        if (zone < 2 || zone > zoneCount) {
+            // ...throws a new error
+            throw new IndexOutOfBoundsException(String.format("Zone %s does not exist", zone));
+        }
+        return tileCounts[zone];
+    }
+
+    /**
+     * Used tile count getter
+     * @return the number of used tiles, which aren't part of any zone
+     */
+    public long getUsedTileCount() {
+        return tileCounts[0];
+    }
+
+    /**
+     * Outer tile count getter
+     * @return the number of tiles of the zones touching the border of the map
+     */
+    public long getOuterTileCount() {
+        return outerTileCount;
+    }
+
+    /**
+     * Inner tile count getter
+     * @return the number of tiles of the lakes inside the perimeter
+     */
+    public long getInnerTileCount() {
+        return innerTileCount;
+    }
+
+    // region helper methods
+    private void markOuter(int zone) {
+        // if the tile is part of a zone...
+        if (zone > 1) {
+            // ...marks the zone as an outer zone
+            outerZones[zone >>> 6] |= 1L << zone;
+        }
+    }
+    // endregion
+}
@@ -0,0 +1,190 @@
+package Cloture;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A layer holding the zone of every tile, stored in the narrowest primitive type
+ * which fits the number of the last zone
+ */
+public abstract class ZoneGrid implements Layer {
+
+    // the layer's width and height
+    protected final int width;
+    protected final int height;
+
+    // the number of the last zone
+    private final int zoneCount;
+
+    /**
+     * Class constructor
+     * @param width the number of tiles in each row
+     * @param height the number of rows
+     * @param zoneCount the number of the last zone
+     */
+    protected ZoneGrid(int width, int height, int zoneCount) {
+        this.width = width;
+        this.height = height;
+        this.zoneCount = zoneCount;
+    }
+
+    /**
+     * Creates an empty zone grid able to hold every zone up to the last one
+     * @param width the number of tiles in each row
+     * @param height the number of rows
+     * @param zoneCount the number of the last zone
+     * @return the zone grid
+     */
+    public static ZoneGrid create(int width, int height, int zoneCount) {
+        if (zoneCount <= 0xFF) {
+            return new ByteZoneGrid(width, height, zoneCount);
+        }
+        if (zoneCount <= 0xFFFF) {
+            return new ShortZoneGrid(width, height, zoneCount);
+        }
+        return new IntZoneGrid(width, height, zoneCount);
+    }
+
+    /**
+     * Creates an empty zone grid able to hold every zone up to the last one,
+     * stored in a scratch file mapped in memory instead of on the heap
+     * @param directory the directory in which to create the scratch file
+     * @param width the number of tiles in each row
+     * @param height the number of rows
+     * @param zoneCount the number of the last zone
+     * @return the zone grid
+     * @throws IOException if the scratch file cannot be created
+     */
+    public static ZoneGrid createMapped(Path directory, int width, int height, int zoneCount) throws IOException {
+        // the number of bytes needed to hold the last zone
+        int bytesPerTile = (zoneCount <= 0xFF) ? 1 : (zoneCount <= 0xFFFF) ? 2 : 4;
+
+        // creates the scratch file
+        Path scratch = Files.createTempFile(directory, "zones", ".bin");
+
+        try (FileChannel channel = FileChannel.open(scratch, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // maps the rows, the mapping staying valid once the channel is closed
+            MappedRows rows = new MappedRows(channel, FileChannel.MapMode.READ_WRITE, 0, width * bytesPerTile, height);
+            return new MappedZoneGrid(rows, bytesPerTile, width, height, zoneCount);
+        } finally {
+            // removes the scratch file, or waits for the end of the program if it cannot be removed while mapped
+            try {
+                Files.delete(scratch);
+            } catch (IOException e) {
+                scratch.toFile().deleteOnExit();
+            }
+        }
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Zone count getter
+     * @return the number of the last zone
+     */
+    public int getZoneCount() {
+        return zoneCount;
+    }
+
+    // =========================================
+    //              IMPLEMENTATIONS
+    // =========================================
+
+    // region zone grids
+    private static final class ByteZoneGrid extends ZoneGrid {
+        private final byte[] tiles;
+
+        private ByteZoneGrid(int width, int height, int zoneCount) {
+            super(width, height, zoneCount);
+            tiles = new byte[width * height];
+        }
+
+        @Override
+        public int get(int x, int y) {
+            return tiles[y * width + x] & 0xFF;
+        }
+
+        @Override
+        public void set(int x, int y, int value) {
+            tiles[y * width + x] = (byte) value;
+        }
+    }
+    private static final class ShortZoneGrid extends ZoneGrid {
+        private final short[] tiles;
+
+        private ShortZoneGrid(int width, int height, int zoneCount) {
+            super(width, height, zoneCount);
+            tiles = new short[width * height];
+        }
+
+        @Override
+        public int get(int x, int y) {
+            return tiles[y * width + x] & 0xFFFF;
+        }
+
+        @Override
+        public void set(int x, int y, int value) {
+            tiles[y * width + x] = (short) value;
+        }
+    }
+    private static final class IntZoneGrid extends ZoneGrid {
+        private final int[] tiles;
+
+        private IntZoneGrid(int width, int height, int zoneCount) {
+            super(width, height, zoneCount);
+            tiles = new int[width * height];
+        }
+
+        @Override
+        public int get(int x, int y) {
+            return tiles[y * width + x];
+        }
+
+        @Override
+        public void set(int x, int y, int value) {
+            tiles[y * width + x] = value;
+        }
+    }
+    private static final class MappedZoneGrid extends ZoneGrid {
+        private final MappedRows rows;
+        private final int bytesPerTile;
+
+        private MappedZoneGrid(MappedRows rows, int bytesPerTile, int width, int height, int zoneCount) {
+            super(width, height, zoneCount);
+            this.rows = rows;
+            this.bytesPerTile = bytesPerTile;
+        }
+
+        @Override
+        public int get(int x, int y) {
+            int index = rows.offset(y) + x * bytesPerTile;
+            switch (bytesPerTile) {
+                case 1: return rows.buffer(y).get(index) & 0xFF;
+                case 2: return rows.buffer(y).getShort(index) & 0xFFFF;
+                default: return rows.buffer(y).getInt(index);
+            }
+        }
+
+        @Override
+        public void set(int x, int y, int value) {
+            int index = rows.offset(y) + x * bytesPerTile;
+            switch (bytesPerTile) {
+                case 1: rows.buffer(y).put(index, (byte) value); break;
+                case 2: rows.buffer(y).putShort(index, (short) value); break;
+                default: rows.buffer(y).putInt(index, value);
+            }
+        }
+    }
+    // endregion
+}
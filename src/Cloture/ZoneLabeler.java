@@ -0,0 +1,79 @@
+package Cloture;
+
+/**
+ * A strategy used to detect the zones that compose a map
+ */
+public interface ZoneLabeler {
+
+    /**
+     * Labels the zones of the map, numbering them from 2 in the order their
+     * first tile is met when reading the map row by row
+     * @param map the base map
+     * @return the zones layer, with 0 for every used tile
+     * @throws IllegalArgumentException if the map is not convex
+     */
+    ZoneGrid label(Grid map);
+
+    /**
+     * Finds the tiles of the zones which touch the border of the map
+     * @param map the base map
+     * @return a layer with a 1 for every tile of a zone touching the border
+     * @throws IllegalArgumentException if the map is not convex
+     */
+    default BitGrid labelOuterTiles(Grid map) {
+        // the outer tiles layer
+        BitGrid outerTiles = new BitGrid(map.getWidth(), map.getHeight());
+
+        labelOuterTiles(map, outerTiles);
+
+        return outerTiles;
+    }
+
+    /**
+     * Marks the tiles of the zones which touch the border of the map into a cleared layer,
+     * counting the zones along the way
+     * @param map the base map
+     * @param outerTiles the cleared layer in which to mark the outer tiles
+     * @return the number of the last zone, the first zone being numbered 2
+     * @throws IllegalArgumentException if the map is not convex
+     */
+    default int labelOuterTiles(Grid map, BitGrid outerTiles) {
+        // the map's width and height
+        final int MAP_HEIGHT = map.getHeight();
+        final int MAP_WIDTH = map.getWidth();
+
+        // labels every zone
+        ZoneGrid zones = label(map);
+
+        // finds the zones along the upper and lower rows and the left and right columns
+        boolean[] isOuterZone = new boolean[zones.getZoneCount() + 1];
+        for (int x = 0; x < MAP_WIDTH; x++) {
+            isOuterZone[zones.get(x, 0)] = true;
+            isOuterZone[zones.get(x, MAP_HEIGHT - 1)] = true;
+        }
+        for (int y = 0; y < MAP_HEIGHT; y++) {
+            isOuterZone[zones.get(0, y)] = true;
+            isOuterZone[zones.get(MAP_WIDTH - 1, y)] = true;
+        }
+
+        // marks the tiles of these zones, used tiles being in no zone
+        for (int y = 0; y < MAP_HEIGHT; y++) {
+            for (int x = 0; x < MAP_WIDTH; x++) {
+                int tile = zones.get(x, y);
+                if (tile > 1 && isOuterZone[tile]) outerTiles.set(x, y, 1);
+            }
+        }
+
+        return zones.getZoneCount();
+    }
+
+    /**
+     * Gets a labeler labeling the zones the same way, but leaving the check of whether the map is convex
+     * to its caller, as an edge map following {@link ConvexityRule#RECURSIVE_FLOOD} does
+     * @return the labeler, or this labeler if it can't skip its check, in which case an edge map
+     *         rejects the maps either its rule or the labeler rejects
+     */
+    default ZoneLabeler withoutConvexityCheck() {
+        return this;
+    }
+}
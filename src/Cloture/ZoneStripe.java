@@ -0,0 +1,287 @@
+package Cloture;
+
+import java.util.Arrays;
+
+/**
+ * The first pass of a union-find zone labeling over a stripe of rows: every tile
+ * gets a temporary label, the labels of connected tiles being merged with a union-find
+ *
+ * <p>Only the temporary labels of two rows are ever kept, plus those of the first and
+ * last rows so that the stripe can be joined to its neighbours. The labels of any row
+ * are found again by replaying the first pass.
+ */
+final class ZoneStripe {
+
+    // the first (inclusive) and last (exclusive) rows of the stripe
+    private int fromY;
+    private int toY;
+
+    // region union-find
+
+    // the parent of each temporary label, a label being its own parent if it is a root,
+    // and every root being the first label of its tree
+    private int[] parent;
+
+    // endregion
+
+    // region convexity fields
+
+    // whether each temporary label touches the border of the map
+    private boolean[] reachesBorder;
+
+    // the index of the first span of each temporary label found between two edges, -1 if none
+    private long[] enteringIndex;
+
+    // endregion
+
+    // region row buffers
+
+    // the temporary labels of the row above and of the current row
+    private int[] upperRow;
+    private int[] currentRow;
+
+    // the temporary labels of the first and last rows of the stripe
+    private int[] topRow;
+    private int[] bottomRow;
+
+    // endregion
+
+    // the number of temporary labels, label 0 being unused
+    private int labelCount;
+
+    // the next temporary label to hand out while replaying the first pass
+    private int replayedLabel;
+
+    // =========================================
+    //                FIRST PASS
+    // =========================================
+
+    /**
+     * Labels every tile of a stripe, merging the labels of connected tiles,
+     * then gathers the fields of every label on its root. The buffers of the
+     * previous stripe are reused unless they have been released.
+     * @param map the base map
+     * @param fromY the first row of the stripe (inclusive)
+     * @param toY the last row of the stripe (exclusive)
+     */
+    void firstPass(Grid map, int fromY, int toY) {
+        // the map's width
+        final int MAP_WIDTH = map.getWidth();
+
+        this.fromY = fromY;
+        this.toY = toY;
+
+        // initialises the union-find with room for a few labels
+        if (parent == null) {
+            parent = new int[64];
+            reachesBorder = new boolean[64];
+            enteringIndex = new long[64];
+        }
+        labelCount = 1;
+
+        // initialises the row buffers
+        if (upperRow == null || upperRow.length < MAP_WIDTH) {
+            upperRow = new int[MAP_WIDTH];
+            currentRow = new int[MAP_WIDTH];
+            topRow = new int[MAP_WIDTH];
+            bottomRow = new int[MAP_WIDTH];
+        }
+
+        // loops through every line...
+        for (int y = fromY; y < toY; y++) {
+
+            // ...labels its tiles
+            swapRows();
+            labelRow(map, y, true);
+
+            // keeps the labels of the first row
+            if (y == fromY) {
+                System.arraycopy(currentRow, 0, topRow, 0, MAP_WIDTH);
+            }
+        }
+
+        // keeps the labels of the last row
+        System.arraycopy(currentRow, 0, bottomRow, 0, MAP_WIDTH);
+
+        // gathers the fields of every label on its root
+        for (int label = 1; label < labelCount; label++) {
+            int root = find(label);
+
+            if (reachesBorder[label]) {
+                reachesBorder[root] = true;
+            }
+            if (enteringIndex[label] != -1 &&
+                    (enteringIndex[root] == -1 || enteringIndex[label] < enteringIndex[root])) {
+                enteringIndex[root] = enteringIndex[label];
+            }
+        }
+    }
+
+    // =========================================
+    //                  REPLAY
+    // =========================================
+
+    /**
+     * Starts replaying the first pass from the first row of the stripe
+     */
+    void startReplay() {
+        Arrays.fill(currentRow, 0);
+        replayedLabel = 1;
+    }
+
+    /**
+     * Finds the temporary labels of the next row again, rows being replayed in order
+     * @param map the base map
+     * @param y the y coordinate of the row
+     * @return the temporary labels of the row, valid until the next row is replayed
+     */
+    int[] replayRow(Grid map, int y) {
+        swapRows();
+        labelRow(map, y, false);
+        return currentRow;
+    }
+
+    /**
+     * Releases the union-find and the row buffers
+     */
+    void release() {
+        parent = null;
+        reachesBorder = null;
+        enteringIndex = null;
+        upperRow = currentRow = topRow = bottomRow = null;
+    }
+
+    // =========================================
+    //                 GETTERS
+    // =========================================
+
+    // region label getters
+    int getLabelCount() {
+        return labelCount;
+    }
+    int[] getTopRow() {
+        return topRow;
+    }
+    int[] getBottomRow() {
+        return bottomRow;
+    }
+    boolean reachesBorder(int root) {
+        return reachesBorder[root];
+    }
+    long getEnteringIndex(int root) {
+        return enteringIndex[root];
+    }
+    // endregion
+
+    // region union-find
+    int find(int label) {
+        // walks up to the root, halving the path along the way
+        while (parent[label] != label) {
+            parent[label] = parent[parent[label]];
+            label = parent[label];
+        }
+        return label;
+    }
+    private void union(int firstLabel, int secondLabel) {
+        int firstRoot = find(firstLabel);
+        int secondRoot = find(secondLabel);
+
+        // attaches the later root under the earlier one, so that every root stays the first label of its tree
+        if (firstRoot < secondRoot) {
+            parent[secondRoot] = firstRoot;
+        } else if (secondRoot < firstRoot) {
+            parent[firstRoot] = secondRoot;
+        }
+    }
+    // endregion
+
+    // region helper methods
+    private void labelRow(Grid map, int y, boolean firstPass) {
+        // the map's width
+        final int MAP_WIDTH = map.getWidth();
+
+        // the x coordinate at which the current span started
+        int spanStart = 0;
+
+        // loops through every tile in the line...
+        for (int x = 0; x < MAP_WIDTH; x++) {
+
+            // if the tile is used...
+            if (map.get(x, y) != 0) {
+                // ...it isn't part of any zone
+                currentRow[x] = 0;
+                continue;
+            }
+
+            // the labels of the tiles to the left and above, the row above the stripe being ignored
+            int leftLabel = (x == 0) ? 0 : currentRow[x - 1];
+            int upperLabel = (y == fromY) ? 0 : upperRow[x];
+
+            // if the tile starts a new span...
+            if (leftLabel == 0) {
+                // ...saves where it started
+                spanStart = x;
+            }
+
+            // labels the tile after the tiles it touches
+            int label;
+            if (leftLabel == 0 && upperLabel == 0) {
+                label = firstPass ? newLabel() : replayedLabel++;
+            } else if (leftLabel == 0) {
+                label = upperLabel;
+            } else {
+                label = leftLabel;
+                if (firstPass && upperLabel != 0) union(leftLabel, upperLabel);
+            }
+            currentRow[x] = label;
+
+            // if the tile ends the span...
+            if (firstPass && (x == MAP_WIDTH - 1 || map.get(x + 1, y) != 0)) {
+                // ...updates the variables used to check if the map is convex
+                updateConvexVars(map, label, spanStart, x, y);
+            }
+        }
+    }
+    private int newLabel() {
+        // if there is no more room for a label...
+        if (labelCount == parent.length) {
+            // ...doubles the capacity of the union-find
+            int capacity = parent.length * 2;
+            parent = Arrays.copyOf(parent, capacity);
+            reachesBorder = Arrays.copyOf(reachesBorder, capacity);
+            enteringIndex = Arrays.copyOf(enteringIndex, capacity);
+        }
+
+        // the new label starts as its own root
+        parent[labelCount] = labelCount;
+        reachesBorder[labelCount] = false;
+        enteringIndex[labelCount] = -1;
+
+        return labelCount++;
+    }
+    private void swapRows() {
+        int[] swap = upperRow;
+        upperRow = currentRow;
+        currentRow = swap;
+    }
+    private void updateConvexVars(Grid map, int label, int spanStart, int spanEnd, int y) {
+        // the map's width and height
+        final int MAP_HEIGHT = map.getHeight();
+        final int MAP_WIDTH = map.getWidth();
+
+        // checks whether the span touches the border of the map
+        if ((spanStart == 0) || (y == 0) || (spanEnd == MAP_WIDTH-1) || (y == MAP_HEIGHT-1)) {
+            reachesBorder[label] = true;
+        }
+
+        // checks whether the span is between two edges
+        final boolean SPAN_IS_BETWEEN_EDGES = (spanStart != 0 && map.get(spanStart - 1, y) == 1) &&
+                (spanEnd != MAP_WIDTH - 1 && map.get(spanEnd + 1, y) == 1);
+
+        // remembers the first span found between two edges
+        if (SPAN_IS_BETWEEN_EDGES && enteringIndex[label] == -1) {
+            enteringIndex[label] = (long) y * MAP_WIDTH + spanStart;
+        }
+    }
+    // endregion
+}
@@ -0,0 +1,26 @@
+package Cloture;
+
+/**
+ * Runs every test, stopping at the first failure
+ */
+final class AllTests {
+
+    private AllTests() {}
+
+    public static void main(String[] args) throws Exception {
+        FloodZoneLabelerTest.main(args);
+        UnionFindZoneLabelerTest.main(args);
+        FilledMapTest.main(args);
+        OuterEdgesTest.main(args);
+        ContourTracerTest.main(args);
+        ParallelEdgeMapTest.main(args);
+        RegionIndexTest.main(args);
+        RowAnalyzerTest.main(args);
+        RunLengthEdgeMapTest.main(args);
+        ParcelAnalyzerTest.main(args);
+        DisplayTest.main(args);
+        PhaseMetricsTest.main(args);
+        EditTest.main(args);
+        System.out.println("All tests passed");
+    }
+}
@@ -0,0 +1,39 @@
+package Cloture;
+
+import java.util.Objects;
+
+/**
+ * The checks of the tests, which throw an error as soon as one of them fails
+ * so that the tests need nothing more than the JDK to run
+ */
+final class Check {
+
+    private Check() {}
+
+    /**
+     * Checks that a value is the one expected
+     * @param expected the expected value
+     * @param actual the value
+     * @param what what the value is, for the error message
+     * @throws AssertionError if the values differ
+     */
+    static void equal(Object expected, Object actual, String what) {
+        // if the values differ...
+        if (!Objects.equals(expected, actual)) {
+            // ...throws a new error
+            throw new AssertionError(String.format("%s: expected %s but was %s", what, expected, actual));
+        }
+    }
+
+    /**
+     * Checks that a condition holds
+     * @param condition the condition
+     * @param what what the condition is, for the error message
+     * @throws AssertionError if the condition doesn't hold
+     */
+    static void isTrue(boolean condition, String what) {
+        if (!condition) {
+            throw new AssertionError(what);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package Cloture;
+
+import java.util.ArrayDeque;
+import java.util.Random;
+
+/**
+ * Tests the contour tracer against the reference analysis on maps holding a single parcel
+ */
+final class ContourTracerTest {
+
+    // a parcel whose two halves only touch by a corner
+    private static final int[][] DIAGONAL = {
+            {1,1,0},
+            {1,1,0},
+            {0,0,1},
+    };
+
+    // two parcels side by side
+    private static final int[][] TWO_PARCELS = {
+            {1,1,0,0},
+            {1,1,0,1},
+            {0,0,0,1},
+    };
+
+    // a parcel around a lake holding an island, which is inside the parcel's contour
+    private static final int[][] ISLAND = {
+            {1,1,1,1,1},
+            {1,0,0,0,1},
+            {1,0,1,0,1},
+            {1,0,0,0,1},
+            {1,1,1,1,1},
+    };
+
+    private ContourTracerTest() {}
+
+    public static void main(String[] args) {
+        cornerJoinsParcel();
+        secondParcelIsRejected();
+        randomMapsMatchReference();
+        sideBySideParcelsAreRejected();
+        System.out.println("ContourTracerTest passed");
+    }
+
+    // =========================================
+    //                  TESTS
+    // =========================================
+
+    static void cornerJoinsParcel() {
+        Check.equal(1, countParcels(DIAGONAL), "parcels");
+        Check.equal(12L, ContourTracer.countFences(BitGrid.of(DIAGONAL)), "fence count");
+        Check.equal(new EdgeMap(DIAGONAL).getFencePerimeter(), new EdgeMap(DIAGONAL).getContourPerimeter(), "perimeter");
+    }
+
+    static void secondParcelIsRejected() {
+        Check.equal("Map does not have correct format: tile [1][3] is part of a second parcel",
+                Outcome.error(() -> ContourTracer.countFences(BitGrid.of(TWO_PARCELS))), "two parcels");
+
+        // an island stays part of the parcel around its lake
+        Check.equal(new Reference(ISLAND).perimeter(), Outcome.of(() -> ContourTracer.getFencePerimeter(BitGrid.of(ISLAND))),
+                "island");
+    }
+
+    static void randomMapsMatchReference() {
+        final Random RANDOM = new Random(7);
+        int parcels = 0;
+
+        for (int i = 0; i < 5000; i++) {
+            final int[][] MAP = (i % 2 == 0)
+                    ? TestMaps.lakes(RANDOM, 3 + RANDOM.nextInt(70), 3 + RANDOM.nextInt(20))
+                    : TestMaps.random(RANDOM, 1 + RANDOM.nextInt(16), 1 + RANDOM.nextInt(16));
+
+            // the tracer only measures maps holding a single parcel
+            if (countParcels(MAP) != 1) continue;
+            parcels++;
+
+            Check.equal(new Reference(MAP).perimeter(), Outcome.of(() -> ContourTracer.getFencePerimeter(BitGrid.of(MAP))),
+                    TestMaps.toString(MAP));
+        }
+        Check.isTrue(parcels > 1000, "single parcel maps");
+    }
+
+    static void sideBySideParcelsAreRejected() {
+        final Random RANDOM = new Random(8);
+
+        for (int i = 0; i < 1000; i++) {
+            // lays two parcels side by side, with empty columns between them
+            final int[][] LEFT = TestMaps.lakes(RANDOM, 3 + RANDOM.nextInt(40), 3 + RANDOM.nextInt(20));
+            final int[][] RIGHT = TestMaps.lakes(RANDOM, 3 + RANDOM.nextInt(40), 3 + RANDOM.nextInt(20));
+            final int GAP = 1 + RANDOM.nextInt(3);
+            final int[][] MAP = new int[Math.max(LEFT.length, RIGHT.length)][LEFT[0].length + GAP + RIGHT[0].length];
+            for (int y = 0; y < LEFT.length; y++) {
+                System.arraycopy(LEFT[y], 0, MAP[y], 0, LEFT[y].length);
+            }
+            for (int y = 0; y < RIGHT.length; y++) {
+                System.arraycopy(RIGHT[y], 0, MAP[y], LEFT[0].length + GAP, RIGHT[y].length);
+            }
+            if (countParcels(MAP) < 2) continue;
+
+            Check.isTrue(Outcome.error(() -> ContourTracer.countFences(BitGrid.of(MAP))) != null, TestMaps.toString(MAP));
+        }
+    }
+
+    // region helper methods
+    private static int countParcels(int[][] map) {
+        final int HEIGHT = map.length;
+        final int WIDTH = map[0].length;
+
+        // floods the used tiles, those touching by a corner being part of the same parcel
+        final boolean[][] SEEN = new boolean[HEIGHT][WIDTH];
+        int parcels = 0;
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                if (map[y][x] == 0 || SEEN[y][x]) continue;
+
+                parcels++;
+                ArrayDeque<int[]> queue = new ArrayDeque<>();
+                SEEN[y][x] = true;
+                queue.add(new int[] {x, y});
+                while (!queue.isEmpty()) {
+                    final int[] TILE = queue.poll();
+                    for (int dy = -1; dy <= 1; dy++) {
+                        for (int dx = -1; dx <= 1; dx++) {
+                            final int NX = TILE[0] + dx, NY = TILE[1] + dy;
+                            if (NX < 0 || NY < 0 || NX >= WIDTH || NY >= HEIGHT) continue;
+                            if (map[NY][NX] == 0 || SEEN[NY][NX]) continue;
+                            SEEN[NY][NX] = true;
+                            queue.add(new int[] {NX, NY});
+                        }
+                    }
+                }
+            }
+        }
+        return parcels;
+    }
+    // endregion
+}
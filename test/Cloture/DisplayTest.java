@@ -0,0 +1,81 @@
+package Cloture;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Tests that the displays of the edge map keep the array format of the original displays
+ */
+final class DisplayTest {
+
+    // a map with a lake and four outer zones, one in each corner
+    private static final int[][] CORNERS = {
+            {0, 1, 1, 1, 0},
+            {1, 1, 0, 1, 1},
+            {1, 1, 1, 1, 0}
+    };
+
+    private DisplayTest() {}
+
+    public static void main(String[] args) {
+        cornersArePinned();
+        randomMapsMatchReference();
+        System.out.println("DisplayTest passed");
+    }
+
+    // =========================================
+    //                  TESTS
+    // =========================================
+
+    static void cornersArePinned() {
+        final EdgeMap EDGE_MAP = new EdgeMap(CORNERS);
+
+        Check.equal("[_, 1, 1, 1, _]\n[1, 1, _, 1, 1]\n[1, 1, 1, 1, _]\n" + System.lineSeparator(),
+                capture(EDGE_MAP::displayMap), "map");
+        Check.equal("[2, _, _, _, 3]\n[_, _, 4, _, _]\n[_, _, _, _, 5]\n" + System.lineSeparator(),
+                capture(EDGE_MAP::displayZones), "zones");
+        Check.equal("[_, 1, 1, 1, _]\n[1, _, _, _, 1]\n[1, 1, 1, 1, _]\n" + System.lineSeparator(),
+                capture(EDGE_MAP::displayOuterEdges), "outer edges");
+        Check.equal("[_, 1, 1, 1, _]\n[1, 1, 1, 1, 1]\n[1, 1, 1, 1, _]\n" + System.lineSeparator(),
+                capture(EDGE_MAP::displayFilledMap), "filled map");
+    }
+
+    static void randomMapsMatchReference() {
+        final Random RANDOM = new Random(13);
+
+        for (int i = 0; i < 300; i++) {
+            final int[][] MAP = TestMaps.lakes(RANDOM, 3 + RANDOM.nextInt(70), 3 + RANDOM.nextInt(20));
+            final Reference REFERENCE = new Reference(MAP);
+            final EdgeMap EDGE_MAP = new EdgeMap(MAP);
+            final String WHAT = TestMaps.toString(MAP);
+
+            Check.equal(display(MAP), capture(EDGE_MAP::displayMap), WHAT);
+            Check.equal(display(REFERENCE.outerEdges()), capture(EDGE_MAP::displayOuterEdges), WHAT);
+            Check.equal(display(REFERENCE.filledMap()), capture(EDGE_MAP::displayFilledMap), WHAT);
+        }
+    }
+
+    // region helper methods
+    private static String display(int[][] layer) {
+        // the original display: each row as an array, zeros replaced by "_", then an empty line
+        final StringBuilder TEXT = new StringBuilder();
+        for (int[] row : layer) {
+            TEXT.append(Arrays.toString(row)).append('\n');
+        }
+        return TEXT.toString().replace("0", "_") + System.lineSeparator();
+    }
+    private static String capture(Runnable display) {
+        final PrintStream OUT = System.out;
+        final ByteArrayOutputStream CAPTURED = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(CAPTURED, true));
+        try {
+            display.run();
+        } finally {
+            System.setOut(OUT);
+        }
+        return CAPTURED.toString();
+    }
+    // endregion
+}
@@ -0,0 +1,100 @@
+package Cloture;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests that an edited edge map gives the same analysis as a new edge map of the edited map
+ */
+final class EditTest {
+
+    private EditTest() {}
+
+    public static void main(String[] args) {
+        editsMatchReference();
+        zonesAreLabeledAgain();
+        System.out.println("EditTest passed");
+    }
+
+    // =========================================
+    //                  TESTS
+    // =========================================
+
+    static void editsMatchReference() {
+        final Random RANDOM = new Random(16);
+
+        for (int i = 0; i < 300; i++) {
+            // an edge map following each rule, edited the same way
+            final int[][] MAP = TestMaps.lakes(RANDOM, 3 + RANDOM.nextInt(40), 3 + RANDOM.nextInt(20));
+            final ConvexityRule[] RULES = ConvexityRule.values();
+            final EdgeMap[] EDGE_MAPS = new EdgeMap[RULES.length];
+            for (int r = 0; r < RULES.length; r++) {
+                EDGE_MAPS[r] = new EdgeMap(MAP);
+                EDGE_MAPS[r].setConvexityRule(RULES[r]);
+            }
+
+            for (int e = 0; e < 10; e++) {
+                // sets a single tile, or a few tiles at once
+                final List<TileEdit> EDITS = new ArrayList<>();
+                for (int t = RANDOM.nextInt(5); t >= 0; t--) {
+                    EDITS.add(randomEdit(RANDOM, MAP));
+                }
+                for (EdgeMap edgeMap : EDGE_MAPS) {
+                    if (EDITS.size() == 1) {
+                        edgeMap.set(EDITS.get(0).getX(), EDITS.get(0).getY(), EDITS.get(0).getValue());
+                    } else {
+                        edgeMap.apply(EDITS);
+                    }
+                }
+
+                final Reference REFERENCE = new Reference(MAP);
+                final String WHAT = TestMaps.toString(MAP);
+                for (int r = 0; r < RULES.length; r++) {
+                    final EdgeMap EDGE_MAP = EDGE_MAPS[r];
+                    Check.equal(REFERENCE.perimeter(RULES[r]), Outcome.of(EDGE_MAP::getFencePerimeter), WHAT);
+
+                    // the other layers are only compared on convex maps
+                    if (REFERENCE.error(RULES[r]) != null) continue;
+                    Check.isTrue(Arrays.deepEquals(REFERENCE.filledMap(), Outcome.tiles(EDGE_MAP.copyFilledMap())),
+                            WHAT);
+                    Check.equal(REFERENCE.zoneCount(), EDGE_MAP.getZoneCount(), WHAT);
+                    Check.equal(REFERENCE.zoneCount(), EDGE_MAP.getZoneClassification().getZoneCount(), WHAT);
+                }
+            }
+        }
+    }
+
+    static void zonesAreLabeledAgain() {
+        // a map with a lake, whose zones are labeled before it is edited
+        final int[][] MAP = {
+                {1, 1, 1, 0},
+                {1, 0, 1, 0},
+                {1, 1, 1, 0},
+        };
+        final EdgeMap EDGE_MAP = new EdgeMap(MAP);
+        Check.equal(3, EDGE_MAP.getZoneCount(), "before");
+        Check.equal(3, EDGE_MAP.getZoneClassification().getZoneCount(), "before");
+
+        // opening the lake merges it with the outer zone, the zones being numbered again
+        EDGE_MAP.set(2, 1, 0);
+        Check.equal(2, EDGE_MAP.getZoneCount(), "merged");
+        Check.equal(2, EDGE_MAP.getZoneClassification().getZoneCount(), "merged");
+
+        // closing it again splits them
+        EDGE_MAP.set(2, 1, 1);
+        Check.equal(3, EDGE_MAP.getZoneCount(), "split");
+        Check.equal(3, EDGE_MAP.getZoneClassification().getZoneCount(), "split");
+    }
+
+    // region helper methods
+    private static TileEdit randomEdit(Random random, int[][] map) {
+        // flips a tile of the map, editing the array the reference is checked against as well
+        final int X = random.nextInt(map[0].length);
+        final int Y = random.nextInt(map.length);
+        map[Y][X] = 1 - map[Y][X];
+        return new TileEdit(X, Y, map[Y][X]);
+    }
+    // endregion
+}
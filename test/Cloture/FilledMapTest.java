@@ -0,0 +1,105 @@
+package Cloture;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Tests the filled map and the perimeter of the edge map against the reference analysis
+ */
+final class FilledMapTest {
+
+    // maps whose lakes were once flooded through the corners of their tiles, giving a larger perimeter
+    private static final int[][] CORNER_LAKES = {
+            {1,1,1},
+            {1,0,1},
+            {0,1,1},
+            {1,1,1},
+            {1,0,1},
+            {0,1,0},
+            {1,1,1},
+    };
+    private static final int[][] CORNER_BAY = {
+            {1,1,0},
+            {0,1,1},
+            {1,1,1},
+            {0,1,1},
+            {1,1,1},
+            {1,1,1},
+            {1,1,1},
+    };
+    private static final int[][] CORNER_NOTCHES = {
+            {1,1,1},
+            {1,1,1},
+            {0,1,0},
+            {1,0,1},
+            {1,1,0},
+            {1,1,1},
+    };
+
+    private FilledMapTest() {}
+
+    public static void main(String[] args) {
+        cornersDoNotJoinZones();
+        randomMapsMatchReference();
+        System.out.println("FilledMapTest passed");
+    }
+
+    // =========================================
+    //                  TESTS
+    // =========================================
+
+    static void cornersDoNotJoinZones() {
+        checkPinned(CORNER_LAKES, "65.0");
+        checkPinned(CORNER_BAY, "60.0");
+        checkPinned(CORNER_NOTCHES, "60.0");
+    }
+
+    static void randomMapsMatchReference() {
+        final Random RANDOM = new Random(13);
+        final Scratch SCRATCH = new Scratch();
+
+        for (int i = 0; i < 3000; i++) {
+            final int[][] MAP = (i % 2 == 0)
+                    ? TestMaps.lakes(RANDOM, 3 + RANDOM.nextInt(100), 3 + RANDOM.nextInt(20))
+                    : TestMaps.random(RANDOM, 1 + RANDOM.nextInt(16), 1 + RANDOM.nextInt(16));
+            final Reference REFERENCE = new Reference(MAP);
+            final String ERROR = REFERENCE.error(ConvexityRule.RECURSIVE_FLOOD);
+            final String WHAT = TestMaps.toString(MAP);
+
+            // the edge maps reading the map in every way, the scratch being kept from one map to the next
+            final EdgeMap[] EDGE_MAPS = {
+                    new EdgeMap(MAP),
+                    new EdgeMap(MAP, SCRATCH),
+                    EdgeMap.wrap(flatten(MAP), MAP[0].length, MAP.length),
+            };
+
+            for (EdgeMap edgeMap : EDGE_MAPS) {
+                Check.equal(REFERENCE.perimeter(ConvexityRule.RECURSIVE_FLOOD), Outcome.of(edgeMap::getFencePerimeter),
+                        WHAT);
+                Check.equal(ERROR, Outcome.error(edgeMap::copyFilledMap), WHAT);
+
+                // only the convex maps have a filled map to compare
+                if (ERROR == null) {
+                    Check.isTrue(Arrays.deepEquals(REFERENCE.filledMap(), Outcome.tiles(edgeMap.copyFilledMap())), WHAT);
+                }
+            }
+        }
+    }
+
+    // region helper methods
+    private static void checkPinned(int[][] map, String perimeter) {
+        final String WHAT = TestMaps.toString(map);
+        Check.equal(perimeter, new Reference(map).perimeter(ConvexityRule.RECURSIVE_FLOOD), WHAT);
+        Check.equal(perimeter, Outcome.of(() -> new EdgeMap(map).getFencePerimeter()), WHAT);
+        Check.isTrue(Arrays.deepEquals(new Reference(map).filledMap(), Outcome.tiles(new EdgeMap(map).copyFilledMap())), WHAT);
+    }
+    private static int[] flatten(int[][] map) {
+        final int WIDTH = map[0].length;
+        final int[] TILES = new int[map.length * WIDTH];
+        for (int y = 0; y < map.length; y++) {
+            System.arraycopy(map[y], 0, TILES, y * WIDTH, WIDTH);
+        }
+        return TILES;
+    }
+    // endregion
+}
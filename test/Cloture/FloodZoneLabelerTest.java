@@ -0,0 +1,201 @@
+package Cloture;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * Tests the flood zone labeler and the convexity rules of the edge map against the reference analysis
+ */
+final class FloodZoneLabelerTest {
+
+    // a map the recursive flood rejects, but the span rule accepts as it has no outer tiles with land on both sides
+    private static final int[][] OPEN_CORNER = {
+            {1,1,1},
+            {1,1,1},
+            {1,1,1},
+            {1,1,0},
+            {1,0,0},
+            {0,0,1},
+    };
+
+    // a map whose outer zone enters it through a hole in the border, which only the span rule rejects
+    private static final int[][] ENTERING_BAY = {
+            {1,1,1,1,0,0},
+            {1,1,1,1,1,1},
+            {1,0,1,1,0,0},
+            {0,0,1,1,1,0},
+            {0,1,1,1,0,0},
+    };
+
+    // a map whose outer zone enters it from the upper border, which only the span rule rejects
+    private static final int[][] ENTERING_CHANNEL = {
+            {0,1,1,1,1,1,1},
+            {1,1,1,0,0,0,0},
+            {1,1,1,1,1,0,1},
+            {1,0,1,1,1,1,1},
+            {1,1,1,1,1,1,1},
+    };
+
+    private FloodZoneLabelerTest() {}
+
+    public static void main(String[] args) {
+        convexityIsPinned();
+        spanRuleIsOptIn();
+        largeZoneDoesNotOverflow();
+        manyZonesWidenTheLayer();
+        randomMapsMatchReference();
+        rulesMatchReference();
+        System.out.println("FloodZoneLabelerTest passed");
+    }
+
+    // =========================================
+    //                  TESTS
+    // =========================================
+
+    static void convexityIsPinned() {
+        // an edge map follows the rule of the original recursive flood by default
+        Check.equal(MapValidation.entering(0, 5).getMessage(),
+                Outcome.of(() -> new EdgeMap(OPEN_CORNER).getFencePerimeter()), "open corner");
+        Check.equal("70.0", Outcome.of(() -> new EdgeMap(ENTERING_BAY).getFencePerimeter()), "entering bay");
+        Check.equal("85.0", Outcome.of(() -> new EdgeMap(ENTERING_CHANNEL).getFencePerimeter()), "entering channel");
+
+        // the span rule accepts and rejects the other way around
+        Check.equal("50.0", Outcome.of(() -> spans(OPEN_CORNER).getFencePerimeter()), "open corner spans");
+        Check.equal(MapValidation.entering(1, 2).getMessage(),
+                Outcome.of(() -> spans(ENTERING_BAY).getFencePerimeter()), "entering bay spans");
+        Check.equal(MapValidation.entering(5, 2).getMessage(),
+                Outcome.of(() -> spans(ENTERING_CHANNEL).getFencePerimeter()), "entering channel spans");
+
+        // the validation agrees with the analysis
+        Check.equal(MapValidation.entering(0, 5).getMessage(), EdgeMap.validate(OPEN_CORNER).getMessage(),
+                "open corner validation");
+        Check.isTrue(EdgeMap.validate(ENTERING_BAY).isValid(), "entering bay validation");
+        Check.isTrue(EdgeMap.validate(ENTERING_CHANNEL).isValid(), "entering channel validation");
+        Check.isTrue(EdgeMap.validate(OPEN_CORNER, ConvexityRule.SPANS).isValid(), "open corner spans validation");
+        Check.equal(MapValidation.entering(1, 2).getMessage(),
+                EdgeMap.validate(ENTERING_BAY, ConvexityRule.SPANS).getMessage(), "entering bay spans validation");
+        Check.equal(MapValidation.entering(5, 2).getMessage(),
+                EdgeMap.validate(ENTERING_CHANNEL, ConvexityRule.SPANS).getMessage(), "entering channel spans validation");
+    }
+
+    static void spanRuleIsOptIn() {
+        // the rule can't change once the map has been checked with the other one
+        final EdgeMap EDGE_MAP = new EdgeMap(ENTERING_BAY);
+        Check.equal(ConvexityRule.RECURSIVE_FLOOD, EDGE_MAP.getConvexityRule(), "default rule");
+        EDGE_MAP.getFencePerimeter();
+        boolean isRejected = false;
+        try {
+            EDGE_MAP.setConvexityRule(ConvexityRule.SPANS);
+        } catch (IllegalStateException e) {
+            isRejected = true;
+        }
+        Check.isTrue(isRejected, "rule set after the analysis");
+    }
+
+    static void largeZoneDoesNotOverflow() {
+        // a single used tile in the middle of a zone far too large to be flooded recursively
+        final int[][] MAP = new int[2000][2000];
+        MAP[1000][1000] = 1;
+
+        Check.equal(10.0, new EdgeMap(MAP, new FloodZoneLabeler(new ScanlineFloodFill())).getFencePerimeter(), "perimeter");
+    }
+
+    static void manyZonesWidenTheLayer() {
+        // maps holding a lake on every other tile of every other row, past the zones a byte and a short can hold
+        for (int size : new int[] {21, 41, 601}) {
+            final int[][] MAP = new int[size][size];
+            for (int y = 0; y < size; y++) {
+                for (int x = 0; x < size; x++) {
+                    MAP[y][x] = (y % 2 == 1 && x % 2 == 1) ? 0 : 1;
+                }
+            }
+
+            // the flood labels the same zones as the union-find
+            final ZoneGrid FLOODED = new FloodZoneLabeler(new ScanlineFloodFill()).label(BitGrid.of(MAP));
+            final ZoneGrid EXPECTED = new UnionFindZoneLabeler().label(BitGrid.of(MAP));
+            final String WHAT = String.format("%s lakes", (size / 2) * (size / 2));
+            Check.equal(1 + (size / 2) * (size / 2), FLOODED.getZoneCount(), WHAT);
+            Check.equal(EXPECTED.getZoneCount(), FLOODED.getZoneCount(), WHAT);
+            Check.isTrue(Arrays.deepEquals(Outcome.tiles(EXPECTED), Outcome.tiles(FLOODED)), WHAT);
+        }
+    }
+
+    static void randomMapsMatchReference() {
+        final Random RANDOM = new Random(2);
+        final ZoneLabeler LABELER = new FloodZoneLabeler(new ScanlineFloodFill());
+
+        for (int i = 0; i < 3000; i++) {
+            final int[][] MAP = TestMaps.random(RANDOM, 1 + RANDOM.nextInt(16), 1 + RANDOM.nextInt(16));
+            final Reference REFERENCE = new Reference(MAP);
+            final String WHAT = TestMaps.toString(MAP);
+
+            Check.equal(REFERENCE.perimeter(ConvexityRule.RECURSIVE_FLOOD),
+                    Outcome.of(() -> new EdgeMap(MAP, LABELER).getFencePerimeter()), WHAT);
+
+            // the flooded zones are checked in the order they are flooded, so only the rejection is compared
+            final String FLOODED = Outcome.of(() -> spans(MAP, LABELER).getFencePerimeter());
+            if (REFERENCE.error() == null) {
+                Check.equal(REFERENCE.perimeter(), FLOODED, WHAT);
+            } else {
+                Check.isTrue(FLOODED.contains("exterior border is entering"), WHAT);
+            }
+
+            // only the convex maps have zones to compare
+            if (REFERENCE.error() != null) continue;
+
+            final ZoneGrid ZONES = LABELER.label(BitGrid.of(MAP));
+            Check.equal(REFERENCE.zoneCount(), ZONES.getZoneCount(), WHAT);
+            Check.isTrue(TestMaps.sameZones(REFERENCE.zones(), Outcome.tiles(ZONES)), WHAT);
+        }
+    }
+
+    static void rulesMatchReference() {
+        final Random RANDOM = new Random(3);
+        final Scratch SCRATCH = new Scratch();
+        int disagreements = 0;
+
+        for (int i = 0; i < 3000; i++) {
+            // lays a map somewhere inside a larger empty map, which the edge map may crop
+            final int[][] TILES = (i % 2 == 0)
+                    ? TestMaps.lakes(RANDOM, 3 + RANDOM.nextInt(40), 3 + RANDOM.nextInt(20))
+                    : TestMaps.random(RANDOM, 1 + RANDOM.nextInt(16), 1 + RANDOM.nextInt(16));
+            final int[][] MAP = new int[TILES.length + RANDOM.nextInt(3)][TILES[0].length + RANDOM.nextInt(3)];
+            final int FROM_Y = RANDOM.nextInt(MAP.length - TILES.length + 1);
+            final int FROM_X = RANDOM.nextInt(MAP[0].length - TILES[0].length + 1);
+            for (int y = 0; y < TILES.length; y++) {
+                System.arraycopy(TILES[y], 0, MAP[FROM_Y + y], FROM_X, TILES[y].length);
+            }
+            final Reference REFERENCE = new Reference(MAP);
+            final String WHAT = TestMaps.toString(MAP);
+
+            for (ConvexityRule rule : ConvexityRule.values()) {
+                final EdgeMap[] EDGE_MAPS = {new EdgeMap(MAP), new EdgeMap(MAP, SCRATCH)};
+                for (EdgeMap edgeMap : EDGE_MAPS) {
+                    edgeMap.setConvexityRule(rule);
+                    Check.equal(REFERENCE.perimeter(rule), Outcome.of(edgeMap::getFencePerimeter), WHAT);
+                }
+                Check.equal(REFERENCE.error(rule), EdgeMap.validate(MAP, rule).getMessage(), WHAT);
+            }
+
+            if (!Objects.equals(REFERENCE.error(ConvexityRule.RECURSIVE_FLOOD), REFERENCE.error(ConvexityRule.SPANS))) {
+                disagreements++;
+            }
+        }
+
+        // the rules must disagree on enough maps for the test to tell them apart
+        Check.isTrue(disagreements > 30, "maps the rules disagree on: " + disagreements);
+    }
+
+    // region helper methods
+    private static EdgeMap spans(int[][] map) {
+        return spans(map, new UnionFindZoneLabeler());
+    }
+    private static EdgeMap spans(int[][] map, ZoneLabeler zoneLabeler) {
+        // an edge map following the span rule
+        final EdgeMap EDGE_MAP = new EdgeMap(map, zoneLabeler);
+        EDGE_MAP.setConvexityRule(ConvexityRule.SPANS);
+        return EDGE_MAP;
+    }
+    // endregion
+}
@@ -0,0 +1,53 @@
+package Cloture;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * Records the outcome of an analysis, so that the outcomes of two engines can be compared
+ */
+final class Outcome {
+
+    private Outcome() {}
+
+    /**
+     * Runs an analysis
+     * @param analysis the analysis, giving a perimeter
+     * @return the perimeter, or the message of the error if the map is not convex
+     */
+    static String of(DoubleSupplier analysis) {
+        try {
+            return String.valueOf(analysis.getAsDouble());
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+    }
+
+    /**
+     * Runs an analysis which only gives layers
+     * @param analysis the analysis
+     * @return the message of the error if the map is not convex, null otherwise
+     */
+    static String error(Runnable analysis) {
+        try {
+            analysis.run();
+            return null;
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+    }
+
+    /**
+     * Reads a layer into an array
+     * @param layer the layer
+     * @return the value of every tile
+     */
+    static int[][] tiles(Grid layer) {
+        final int[][] TILES = new int[layer.getHeight()][layer.getWidth()];
+        for (int y = 0; y < layer.getHeight(); y++) {
+            for (int x = 0; x < layer.getWidth(); x++) {
+                TILES[y][x] = layer.get(x, y);
+            }
+        }
+        return TILES;
+    }
+}
@@ -0,0 +1,80 @@
+package Cloture;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Tests the outer edges and the fence count of the edge map against the reference analysis
+ */
+final class OuterEdgesTest {
+
+    // a map one tile wide, whose tiles are on both the left and right borders
+    private static final int[][] COLUMN = {{1}, {1}, {1}};
+
+    private OuterEdgesTest() {}
+
+    public static void main(String[] args) {
+        singleColumn();
+        randomMapsMatchReference();
+        framedMapsMatchReference();
+        System.out.println("OuterEdgesTest passed");
+    }
+
+    // =========================================
+    //                  TESTS
+    // =========================================
+
+    static void singleColumn() {
+        final EdgeMap EDGE_MAP = new EdgeMap(COLUMN);
+
+        // the left and right borders give a single fence, the upper and lower ones one more at each end
+        Check.isTrue(Arrays.deepEquals(COLUMN, Outcome.tiles(EDGE_MAP.getOuterEdges())), "outer edges");
+        Check.equal(5.0, EDGE_MAP.getFenceCount(), "fence count");
+        Check.equal(12.5, EDGE_MAP.getFencePerimeter(), "perimeter");
+    }
+
+    static void randomMapsMatchReference() {
+        final Random RANDOM = new Random(5);
+
+        for (int i = 0; i < 3000; i++) {
+            final int[][] MAP = (i % 2 == 0)
+                    ? TestMaps.lakes(RANDOM, 3 + RANDOM.nextInt(100), 3 + RANDOM.nextInt(20))
+                    : TestMaps.random(RANDOM, 1 + RANDOM.nextInt(100), 1 + RANDOM.nextInt(20));
+            checkMatchesReference(MAP);
+        }
+    }
+
+    static void framedMapsMatchReference() {
+        final Random RANDOM = new Random(6);
+
+        for (int i = 0; i < 1000; i++) {
+            // lays a convex map somewhere inside a larger empty map, which the edge map crops
+            final int[][] LAKES = TestMaps.lakes(RANDOM, 3 + RANDOM.nextInt(70), 3 + RANDOM.nextInt(20));
+            final int[][] MAP = new int[LAKES.length + RANDOM.nextInt(5)][LAKES[0].length + RANDOM.nextInt(80)];
+            final int FROM_X = RANDOM.nextInt(MAP[0].length - LAKES[0].length + 1);
+            final int FROM_Y = RANDOM.nextInt(MAP.length - LAKES.length + 1);
+            for (int y = 0; y < LAKES.length; y++) {
+                System.arraycopy(LAKES[y], 0, MAP[FROM_Y + y], FROM_X, LAKES[y].length);
+            }
+            checkMatchesReference(MAP);
+        }
+    }
+
+    // region helper methods
+    private static void checkMatchesReference(int[][] map) {
+        final Reference REFERENCE = new Reference(map);
+        final String WHAT = TestMaps.toString(map);
+
+        final String ERROR = REFERENCE.error(ConvexityRule.RECURSIVE_FLOOD);
+
+        final EdgeMap EDGE_MAP = new EdgeMap(map);
+        Check.equal(ERROR, Outcome.error(EDGE_MAP::getOuterEdges), WHAT);
+
+        // only the convex maps have edges to compare
+        if (ERROR != null) return;
+
+        Check.isTrue(Arrays.deepEquals(REFERENCE.outerEdges(), Outcome.tiles(EDGE_MAP.getOuterEdges())), WHAT);
+        Check.equal((double) REFERENCE.fenceCount(), EDGE_MAP.getFenceCount(), WHAT);
+    }
+    // endregion
+}
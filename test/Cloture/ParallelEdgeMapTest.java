@@ -0,0 +1,61 @@
+package Cloture;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Tests that the edge maps processing stripes in parallel give the same results as the sequential ones
+ */
+final class ParallelEdgeMapTest {
+
+    private ParallelEdgeMapTest() {}
+
+    public static void main(String[] args) {
+        final ForkJoinPool POOL = new ForkJoinPool(4);
+        try {
+            stripedMapsMatchSequential(POOL);
+        } finally {
+            POOL.shutdown();
+        }
+        System.out.println("ParallelEdgeMapTest passed");
+    }
+
+    // =========================================
+    //                  TESTS
+    // =========================================
+
+    static void stripedMapsMatchSequential(ForkJoinPool pool) {
+        final Random RANDOM = new Random(4);
+
+        for (int i = 0; i < 200; i++) {
+            // tall enough maps to be split in several stripes, half of them always convex
+            final int WIDTH = 1 + RANDOM.nextInt(150);
+            final int HEIGHT = 32 + RANDOM.nextInt(200);
+            final int[][] MAP = (i % 2 == 0)
+                    ? TestMaps.lakes(RANDOM, Math.max(WIDTH, 3), HEIGHT)
+                    : TestMaps.random(RANDOM, WIDTH, HEIGHT);
+            final Reference REFERENCE = new Reference(MAP);
+            final String WHAT = TestMaps.toString(MAP);
+            Check.isTrue(Stripes.count(pool, MAP.length) > 1, "stripe count");
+
+            final EdgeMap SEQUENTIAL = new EdgeMap(MAP, new UnionFindZoneLabeler());
+            final EdgeMap PARALLEL = EdgeMap.parallel(BitGrid.of(MAP), pool);
+            final EdgeMap LABELED = new EdgeMap(BitGrid.of(MAP), new UnionFindZoneLabeler(pool), pool);
+
+            final String PERIMETER = REFERENCE.perimeter(ConvexityRule.RECURSIVE_FLOOD);
+            Check.equal(PERIMETER, Outcome.of(SEQUENTIAL::getFencePerimeter), WHAT);
+            Check.equal(PERIMETER, Outcome.of(PARALLEL::getFencePerimeter), WHAT);
+            Check.equal(PERIMETER, Outcome.of(LABELED::getFencePerimeter), WHAT);
+
+            // only the convex maps have layers to compare
+            if (REFERENCE.error(ConvexityRule.RECURSIVE_FLOOD) != null) continue;
+
+            Check.equal(REFERENCE.zoneCount(), SEQUENTIAL.getZoneCount(), WHAT);
+            Check.equal(REFERENCE.zoneCount(), PARALLEL.getZoneCount(), WHAT);
+            Check.isTrue(Arrays.deepEquals(REFERENCE.filledMap(), Outcome.tiles(SEQUENTIAL.copyFilledMap())), WHAT);
+            Check.isTrue(Arrays.deepEquals(REFERENCE.filledMap(), Outcome.tiles(PARALLEL.copyFilledMap())), WHAT);
+            Check.isTrue(Arrays.deepEquals(REFERENCE.filledMap(), Outcome.tiles(LABELED.copyFilledMap())), WHAT);
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package Cloture;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests the parcel analyzer on hand-made maps, then against a brute-force analysis of random maps
+ */
+final class ParcelAnalyzerTest {
+
+    // a ring holding a lake, with a one-tile island in the middle of the lake
+    private static final int[][] RING_WITH_ISLAND = {
+            {0,0,0,0,0,0,0,0,0},
+            {0,1,1,1,1,1,1,1,0},
+            {0,1,0,0,0,0,0,1,0},
+            {0,1,0,0,1,0,0,1,0},
+            {0,1,0,0,0,0,0,1,0},
+            {0,1,1,1,1,1,1,1,0},
+            {0,0,0,0,0,0,0,0,0},
+    };
+
+    private ParcelAnalyzerTest() {}
+
+    public static void main(String[] args) {
+        ringWithLake();
+        lakeWithIsland();
+        singleParcelMatchesEdgeMap();
+        randomMapsMatchReference();
+        System.out.println("ParcelAnalyzerTest passed");
+    }
+
+    // =========================================
+    //                  TESTS
+    // =========================================
+
+    static void ringWithLake() {
+        // removes the island
+        final int[][] MAP = copy(RING_WITH_ISLAND);
+        MAP[3][4] = 0;
+
+        final List<Parcel> PARCELS = ParcelAnalyzer.analyse(MAP);
+        Check.equal(1, PARCELS.size(), "parcels");
+        Check.equal(24L, PARCELS.get(0).getFenceCount(), "ring fences");
+        Check.equal(1, PARCELS.get(0).getHoleCount(), "ring holes");
+        Check.equal(15L, PARCELS.get(0).getHoleArea(), "ring hole area");
+        Check.equal(60.0, new EdgeMap(MAP).getFencePerimeter(), "edge map perimeter");
+    }
+
+    static void lakeWithIsland() {
+        final List<Parcel> PARCELS = ParcelAnalyzer.analyse(RING_WITH_ISLAND);
+        Check.equal(2, PARCELS.size(), "parcels");
+
+        // the ring keeps its lake, the island inside it being filled along with it
+        final Parcel RING = PARCELS.get(0);
+        Check.equal(24L, RING.getFenceCount(), "ring fences");
+        Check.equal(1, RING.getHoleCount(), "ring holes");
+        Check.equal(14L, RING.getHoleArea(), "ring hole area");
+        Check.equal(new EdgeMap(RING_WITH_ISLAND).getFencePerimeter(), RING.getFencePerimeter(), "ring perimeter");
+
+        // the island is fenced all around
+        final Parcel ISLAND = PARCELS.get(1);
+        Check.equal(4, ISLAND.getX(), "island x");
+        Check.equal(3, ISLAND.getY(), "island y");
+        Check.equal(4L, ISLAND.getFenceCount(), "island fences");
+        Check.equal(0, ISLAND.getHoleCount(), "island holes");
+    }
+
+    static void singleParcelMatchesEdgeMap() {
+        final Random RANDOM = new Random(1);
+
+        for (int i = 0; i < 2000; i++) {
+            final int[][] MAP = TestMaps.random(RANDOM, 1 + RANDOM.nextInt(20), 1 + RANDOM.nextInt(20));
+            final List<Parcel> PARCELS = ParcelAnalyzer.analyse(MAP);
+
+            // only the convex maps holding a single parcel have a perimeter to compare with
+            if (PARCELS.size() != 1 || !EdgeMap.validate(MAP).isValid()) continue;
+
+            Check.equal(new EdgeMap(MAP).getFencePerimeter(), PARCELS.get(0).getFencePerimeter(),
+                    "perimeter of " + TestMaps.toString(MAP));
+        }
+    }
+
+    static void randomMapsMatchReference() {
+        final Random RANDOM = new Random(2);
+
+        for (int i = 0; i < 2000; i++) {
+            final int[][] MAP = TestMaps.random(RANDOM, 1 + RANDOM.nextInt(20), 1 + RANDOM.nextInt(20));
+            Check.equal(reference(MAP), describe(ParcelAnalyzer.analyse(MAP)), "parcels of " + TestMaps.toString(MAP));
+        }
+    }
+
+    // region helper methods
+    private static List<String> describe(List<Parcel> parcels) {
+        List<String> descriptions = new ArrayList<>();
+        for (Parcel parcel : parcels) {
+            descriptions.add(describe(parcel.getX(), parcel.getY(), parcel.getArea(), parcel.getFenceCount(),
+                    parcel.getHoleCount(), parcel.getHoleArea(),
+                    parcel.getMinX(), parcel.getMinY(), parcel.getMaxX(), parcel.getMaxY()));
+        }
+        return descriptions;
+    }
+    private static String describe(long... values) {
+        StringBuilder description = new StringBuilder();
+        for (long value : values) {
+            description.append(value).append(' ');
+        }
+        return description.toString();
+    }
+    private static List<String> reference(int[][] map) {
+        final int HEIGHT = map.length;
+        final int WIDTH = map[0].length;
+
+        // labels every parcel and zone with a breadth-first search, in the order of their first tile
+        final int[][] LABELS = new int[HEIGHT][WIDTH];
+        final List<int[]> FIRST_TILES = new ArrayList<>();
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                if (LABELS[y][x] == 0) {
+                    FIRST_TILES.add(new int[] {x, y});
+                    flood(map, LABELS, x, y, FIRST_TILES.size());
+                }
+            }
+        }
+
+        // the zones touching the border, and the parcel surrounding every other zone
+        final int COUNT = FIRST_TILES.size();
+        final boolean[] REACHES_BORDER = new boolean[COUNT + 1];
+        final int[] LAKE_PARCEL = new int[COUNT + 1];
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                if (x == 0 || y == 0 || x == WIDTH - 1 || y == HEIGHT - 1) REACHES_BORDER[LABELS[y][x]] = true;
+            }
+        }
+        for (int label = 1; label <= COUNT; label++) {
+            final int[] FIRST = FIRST_TILES.get(label - 1);
+            if (map[FIRST[1]][FIRST[0]] == 0 && !REACHES_BORDER[label]) {
+                LAKE_PARCEL[label] = LABELS[FIRST[1] - 1][FIRST[0]];
+            }
+        }
+
+        // gathers every parcel, tile by tile
+        List<String> parcels = new ArrayList<>();
+        for (int label = 1; label <= COUNT; label++) {
+            final int[] FIRST = FIRST_TILES.get(label - 1);
+            if (map[FIRST[1]][FIRST[0]] == 0) continue;
+
+            long area = 0, fences = 0, holes = 0, holeArea = 0;
+            int minX = WIDTH, minY = HEIGHT, maxX = -1, maxY = -1;
+            for (int y = 0; y < HEIGHT; y++) {
+                for (int x = 0; x < WIDTH; x++) {
+                    if (LABELS[y][x] != label) continue;
+
+                    area++;
+                    minX = Math.min(minX, x);
+                    minY = Math.min(minY, y);
+                    maxX = Math.max(maxX, x);
+                    maxY = Math.max(maxY, y);
+
+                    // a fence along the border, and one on each side touching a zone which isn't a lake of the parcel
+                    if (x == 0 || x == WIDTH - 1) fences++;
+                    if (y == 0 || y == HEIGHT - 1) fences++;
+                    final int[][] SIDES = {{x - 1, y}, {x + 1, y}, {x, y - 1}, {x, y + 1}};
+                    for (int[] side : SIDES) {
+                        if (side[0] < 0 || side[1] < 0 || side[0] >= WIDTH || side[1] >= HEIGHT) continue;
+                        final int OTHER = LABELS[side[1]][side[0]];
+                        if (map[side[1]][side[0]] == 0 && LAKE_PARCEL[OTHER] != label) fences++;
+                    }
+                }
+            }
+            for (int zone = 1; zone <= COUNT; zone++) {
+                if (LAKE_PARCEL[zone] == label) {
+                    holes++;
+                    for (int[] row : LABELS) {
+                        for (int tile : row) {
+                            if (tile == zone) holeArea++;
+                        }
+                    }
+                }
+            }
+
+            parcels.add(describe(FIRST[0], FIRST[1], area, fences, holes, holeArea, minX, minY, maxX, maxY));
+        }
+        return parcels;
+    }
+    private static void flood(int[][] map, int[][] labels, int x, int y, int label) {
+        final int VALUE = map[y][x];
+        ArrayDeque<int[]> queue = new ArrayDeque<>();
+        labels[y][x] = label;
+        queue.add(new int[] {x, y});
+
+        while (!queue.isEmpty()) {
+            final int[] TILE = queue.poll();
+            final int[][] SIDES = {{TILE[0] - 1, TILE[1]}, {TILE[0] + 1, TILE[1]}, {TILE[0], TILE[1] - 1}, {TILE[0], TILE[1] + 1}};
+            for (int[] side : SIDES) {
+                if (side[0] < 0 || side[1] < 0 || side[1] >= map.length || side[0] >= map[0].length) continue;
+                if (labels[side[1]][side[0]] == 0 && map[side[1]][side[0]] == VALUE) {
+                    labels[side[1]][side[0]] = label;
+                    queue.add(side);
+                }
+            }
+        }
+    }
+    private static int[][] copy(int[][] map) {
+        int[][] copy = new int[map.length][];
+        for (int y = 0; y < map.length; y++) {
+            copy[y] = map[y].clone();
+        }
+        return copy;
+    }
+    // endregion
+}
@@ -0,0 +1,107 @@
+package Cloture;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Tests that the phases measured by an edge map never measure one another
+ */
+final class PhaseMetricsTest {
+
+    private PhaseMetricsTest() {}
+
+    public static void main(String[] args) {
+        phasesAreDisjoint();
+        zoneCountIsReported();
+        System.out.println("PhaseMetricsTest passed");
+    }
+
+    // =========================================
+    //                  TESTS
+    // =========================================
+
+    static void phasesAreDisjoint() {
+        final Random RANDOM = new Random(14);
+
+        for (int i = 0; i < 5; i++) {
+            // a map large enough for every phase to take a while and allocate its layer
+            final int[][] MAP = TestMaps.lakes(RANDOM, 1000, 1000);
+            final EdgeMap EDGE_MAP = new EdgeMap(MAP);
+
+            // records the interval of every phase, ending when the listener is told about it
+            final List<PhaseMetrics> PHASES = new ArrayList<>();
+            final List<Long> ENDS = new ArrayList<>();
+            EDGE_MAP.setListener(metrics -> {
+                ENDS.add(System.nanoTime());
+                PHASES.add(metrics);
+            });
+
+            final long ALLOCATED_BEFORE = PhaseMetrics.allocatedBytes();
+            EDGE_MAP.getFencePerimeter();
+            final long ALLOCATED = PhaseMetrics.allocatedBytes() - ALLOCATED_BEFORE;
+
+            // every phase is run once
+            final Set<PhaseMetrics.Phase> RUN = EnumSet.noneOf(PhaseMetrics.Phase.class);
+            for (PhaseMetrics metrics : PHASES) {
+                Check.isTrue(RUN.add(metrics.getPhase()), "phase run twice: " + metrics);
+            }
+
+            // a phase starts after the previous one has ended, so no phase's time holds another one
+            for (int p = 1; p < PHASES.size(); p++) {
+                final long START = ENDS.get(p) - PHASES.get(p).getWallNanos();
+                Check.isTrue(START >= ENDS.get(p - 1),
+                        String.format("%s overlaps %s", PHASES.get(p), PHASES.get(p - 1)));
+            }
+
+            // the phases can't have allocated more than the whole analysis, as they would if one held another
+            if (ALLOCATED_BEFORE != -1) {
+                long phaseBytes = 0;
+                for (PhaseMetrics metrics : PHASES) {
+                    phaseBytes += metrics.getAllocatedBytes();
+                }
+                Check.isTrue(phaseBytes <= ALLOCATED,
+                        String.format("the phases allocated %s bytes out of %s", phaseBytes, ALLOCATED));
+            }
+        }
+    }
+
+    static void zoneCountIsReported() {
+        final Random RANDOM = new Random(15);
+        final ZoneLabeler[] LABELERS = {new UnionFindZoneLabeler(), new FloodZoneLabeler(new ScanlineFloodFill())};
+
+        for (int i = 0; i < 1000; i++) {
+            // lays a convex map somewhere inside a larger empty map, which the edge map may crop
+            final int[][] LAKES = TestMaps.lakes(RANDOM, 3 + RANDOM.nextInt(70), 3 + RANDOM.nextInt(20));
+            final int[][] MAP = new int[LAKES.length + RANDOM.nextInt(3)][LAKES[0].length + RANDOM.nextInt(3)];
+            final int FROM_Y = RANDOM.nextInt(MAP.length - LAKES.length + 1);
+            final int FROM_X = RANDOM.nextInt(MAP[0].length - LAKES[0].length + 1);
+            for (int y = 0; y < LAKES.length; y++) {
+                System.arraycopy(LAKES[y], 0, MAP[FROM_Y + y], FROM_X, LAKES[y].length);
+            }
+            final int ZONE_COUNT = new Reference(MAP).zoneCount();
+            final String WHAT = TestMaps.toString(MAP);
+
+            for (ZoneLabeler labeler : LABELERS) {
+                final EdgeMap EDGE_MAP = new EdgeMap(MAP, labeler);
+
+                // the zones are counted along with the outer tiles, without labeling them again
+                final List<PhaseMetrics> PHASES = new ArrayList<>();
+                EDGE_MAP.setListener(PHASES::add);
+                EDGE_MAP.getFencePerimeter();
+                Check.equal(ZONE_COUNT, EDGE_MAP.getZoneCount(), WHAT);
+                Check.equal(PhaseMetrics.Phase.OUTER_TILES, PHASES.get(0).getPhase(), WHAT);
+                for (PhaseMetrics metrics : PHASES) {
+                    Check.isTrue(metrics.getPhase() != PhaseMetrics.Phase.ZONES, WHAT);
+                    Check.equal(ZONE_COUNT, metrics.getZoneCount(), WHAT);
+                }
+
+                // labeling the zones afterwards gives the same count
+                Check.equal(ZONE_COUNT, EDGE_MAP.getZoneClassification().getZoneCount(), WHAT);
+                Check.equal(ZONE_COUNT, EDGE_MAP.getZoneCount(), WHAT);
+            }
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package Cloture;
+
+import java.util.ArrayDeque;
+
+/**
+ * A brute-force analysis of a map, following the rules of an edge map tile by tile
+ * with a breadth-first search, which every engine is checked against
+ *
+ * <p>The outer tiles are the empty tiles reached from the border. The map is not convex if
+ * a span of outer tiles in a row has a used tile on both sides, the error being at the first
+ * such span row after row. The filled map holds every tile which isn't an outer tile, and the
+ * outer edges are the used tiles on the border or touching an outer tile. Each edge gets
+ * a fence along the left or right border, one along the upper or lower border, and one on
+ * each side touching an outer tile.
+ *
+ * <p>Edge maps follow the rule of the original recursive flood by default, which the reference
+ * runs as the original did, recursively: see {@link #floodError()}.
+ */
+final class Reference {
+
+    // the map's tiles, width and height
+    private final int[][] map;
+    private final int width;
+    private final int height;
+
+    // the tiles reached from the border
+    private final boolean[][] outerTiles;
+
+    // the error of the original recursive flood, an empty string until it is flooded and if the map is convex
+    private String floodError;
+
+    // region recursive flood fields
+    private int[][] floodLayer;
+    private int maxFloodX, minFloodX, maxFloodY, minFloodY;
+    private int leftFloodEdgeX, rightFloodEdgeX;
+    // endregion
+
+    /**
+     * Class constructor, finding the outer tiles
+     * @param map the map, with 1 for every used tile
+     */
+    Reference(int[][] map) {
+        this.map = map;
+        this.height = map.length;
+        this.width = map[0].length;
+        this.outerTiles = new boolean[height][width];
+
+        // floods every empty tile of the border
+        ArrayDeque<int[]> queue = new ArrayDeque<>();
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if ((x == 0 || y == 0 || x == width - 1 || y == height - 1) && map[y][x] == 0 && !outerTiles[y][x]) {
+                    outerTiles[y][x] = true;
+                    queue.add(new int[] {x, y});
+                }
+            }
+        }
+        while (!queue.isEmpty()) {
+            final int[] TILE = queue.poll();
+            for (int[] side : sides(TILE[0], TILE[1])) {
+                if (isInside(side[0], side[1]) && map[side[1]][side[0]] == 0 && !outerTiles[side[1]][side[0]]) {
+                    outerTiles[side[1]][side[0]] = true;
+                    queue.add(side);
+                }
+            }
+        }
+    }
+
+    // =========================================
+    //                 LAYERS
+    // =========================================
+
+    /**
+     * Gets the zones of the map, numbered from 2 in the order their first tile is met row after row
+     * @return the zone of every tile, 0 for the used tiles
+     */
+    int[][] zones() {
+        final int[][] ZONES = new int[height][width];
+        int zone = 1;
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (map[y][x] != 0 || ZONES[y][x] != 0) continue;
+
+                // floods the new zone
+                zone++;
+                ArrayDeque<int[]> queue = new ArrayDeque<>();
+                ZONES[y][x] = zone;
+                queue.add(new int[] {x, y});
+                while (!queue.isEmpty()) {
+                    final int[] TILE = queue.poll();
+                    for (int[] side : sides(TILE[0], TILE[1])) {
+                        if (isInside(side[0], side[1]) && map[side[1]][side[0]] == 0 && ZONES[side[1]][side[0]] == 0) {
+                            ZONES[side[1]][side[0]] = zone;
+                            queue.add(side);
+                        }
+                    }
+                }
+            }
+        }
+        return ZONES;
+    }
+
+    /**
+     * Gets the number of the last zone
+     * @return the number of the last zone, the first zone being numbered 2, or 1 if the map has no zone
+     */
+    int zoneCount() {
+        int last = 1;
+        for (int[] row : zones()) {
+            for (int zone : row) {
+                last = Math.max(last, zone);
+            }
+        }
+        return last;
+    }
+
+    /**
+     * Gets the tiles reached from the border
+     * @return 1 for every outer tile
+     */
+    int[][] outerTiles() {
+        final int[][] LAYER = new int[height][width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                LAYER[y][x] = outerTiles[y][x] ? 1 : 0;
+            }
+        }
+        return LAYER;
+    }
+
+    /**
+     * Gets the filled map
+     * @return 1 for every tile which isn't an outer tile
+     */
+    int[][] filledMap() {
+        final int[][] LAYER = new int[height][width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                LAYER[y][x] = outerTiles[y][x] ? 0 : 1;
+            }
+        }
+        return LAYER;
+    }
+
+    /**
+     * Gets the outer edges
+     * @return 1 for every used tile on the border or touching an outer tile
+     */
+    int[][] outerEdges() {
+        final int[][] LAYER = new int[height][width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                LAYER[y][x] = isEdge(x, y) ? 1 : 0;
+            }
+        }
+        return LAYER;
+    }
+
+    // =========================================
+    //                PERIMETER
+    // =========================================
+
+    /**
+     * Gets the error the analysis of the map throws following a rule
+     * @param rule the rule deciding whether the map is convex
+     * @return the message of the error, null if the map is convex
+     */
+    String error(ConvexityRule rule) {
+        return (rule == ConvexityRule.RECURSIVE_FLOOD) ? floodError() : error();
+    }
+
+    /**
+     * Gets the error the analysis of the map throws following the span rule, as the labelers and the analyzers do
+     * @return the message of the error, null if the map is convex
+     */
+    String error() {
+        for (int y = 0; y < height; y++) {
+            for (int x = 1; x < width; x++) {
+                // if the tile starts a span of outer tiles with a used tile to its left...
+                if (outerTiles[y][x] && map[y][x - 1] != 0) {
+                    int spanEnd = x;
+                    while (spanEnd < width - 1 && outerTiles[y][spanEnd + 1]) {
+                        spanEnd++;
+                    }
+
+                    // ...and to its right, the map is not convex
+                    if (spanEnd != width - 1) {
+                        return MapValidation.entering(x, y).getMessage();
+                    }
+                    x = spanEnd;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Counts the fences around each outer edge, whether or not the map is convex
+     * @return the number of fences of every tile
+     */
+    int[][] fences() {
+        final int[][] LAYER = new int[height][width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (!isEdge(x, y)) continue;
+
+                if (x == 0 || x == width - 1) LAYER[y][x]++;
+                if (y == 0 || y == height - 1) LAYER[y][x]++;
+                for (int[] side : sides(x, y)) {
+                    if (isInside(side[0], side[1]) && outerTiles[side[1]][side[0]]) LAYER[y][x]++;
+                }
+            }
+        }
+        return LAYER;
+    }
+
+    /**
+     * Counts the fences around the outer edges, whether or not the map is convex
+     * @return the number of fences
+     */
+    long fenceCount() {
+        long fences = 0;
+        for (int[] row : fences()) {
+            for (int tileFences : row) {
+                fences += tileFences;
+            }
+        }
+        return fences;
+    }
+
+    /**
+     * Gets the error the original recursive flood throws, flooding every zone as it did: depth first,
+     * each tile updating the convexity variables when entered and checking then resetting them when left
+     * @return the message of the error, null if the map is convex
+     */
+    String floodError() {
+        // if the zones haven't been flooded yet...
+        if (floodError == null) {
+            // ...floods them in a thread whose stack can hold the largest zone
+            Thread flood = new Thread(null, this::floodZones, "recursive flood", 1L << 29);
+            flood.start();
+            try {
+                flood.join();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return floodError.isEmpty() ? null : floodError;
+    }
+
+    /**
+     * Gets the outcome of the analysis of the map following the span rule, as {@link Outcome} records it
+     * @return the fence perimeter, or the message of the error if the map is not convex
+     */
+    String perimeter() {
+        return perimeter(ConvexityRule.SPANS);
+    }
+
+    /**
+     * Gets the outcome of the analysis of the map following a rule, as {@link Outcome} records it
+     * @param rule the rule deciding whether the map is convex
+     * @return the fence perimeter, or the message of the error if the map is not convex
+     */
+    String perimeter(ConvexityRule rule) {
+        final String ERROR = error(rule);
+        return (ERROR != null) ? ERROR : String.valueOf(fenceCount() * 2.5);
+    }
+
+    // region helper methods
+    private void floodZones() {
+        floodLayer = new int[height][width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                floodLayer[y][x] = (map[y][x] != 0) ? 1 : 0;
+            }
+        }
+        resetConvexVars();
+
+        try {
+            int zone = 1;
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    if (floodLayer[y][x] == 0) flood(x, y, ++zone);
+                }
+            }
+            floodError = "";
+        } catch (IllegalArgumentException e) {
+            floodError = e.getMessage();
+        }
+    }
+    private void flood(int x, int y, int zone) {
+        floodLayer[y][x] = zone;
+
+        minFloodX = Math.min(minFloodX, x);
+        maxFloodX = Math.max(maxFloodX, x);
+        minFloodY = Math.min(minFloodY, y);
+        maxFloodY = Math.max(maxFloodY, y);
+        if (x != 0 && map[y][x - 1] != 0) leftFloodEdgeX = x;
+        if (x != width - 1 && map[y][x + 1] != 0) rightFloodEdgeX = x;
+
+        // the tiles above, below, to the left and to the right, each one checked once the previous one is flooded
+        if (y != 0 && floodLayer[y - 1][x] == 0) flood(x, y - 1, zone);
+        if (y != height - 1 && floodLayer[y + 1][x] == 0) flood(x, y + 1, zone);
+        if (x != 0 && floodLayer[y][x - 1] == 0) flood(x - 1, y, zone);
+        if (x != width - 1 && floodLayer[y][x + 1] == 0) flood(x + 1, y, zone);
+
+        final boolean BETWEEN_EDGES = leftFloodEdgeX <= rightFloodEdgeX && leftFloodEdgeX != -1 && rightFloodEdgeX != -1;
+        final boolean REACHED_BORDER = minFloodX == 0 || minFloodY == 0 || maxFloodX == width - 1 || maxFloodY == height - 1;
+        if (BETWEEN_EDGES && REACHED_BORDER) {
+            MapValidation.entering(x, y).check();
+        }
+        resetConvexVars();
+    }
+    private void resetConvexVars() {
+        minFloodX = width;
+        minFloodY = height;
+        maxFloodX = maxFloodY = 0;
+        leftFloodEdgeX = rightFloodEdgeX = -1;
+    }
+    private boolean isEdge(int x, int y) {
+        if (map[y][x] == 0) return false;
+        if (x == 0 || y == 0 || x == width - 1 || y == height - 1) return true;
+        for (int[] side : sides(x, y)) {
+            if (outerTiles[side[1]][side[0]]) return true;
+        }
+        return false;
+    }
+    private boolean isInside(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height;
+    }
+    private static int[][] sides(int x, int y) {
+        return new int[][] {{x - 1, y}, {x + 1, y}, {x, y - 1}, {x, y + 1}};
+    }
+    // endregion
+}
@@ -0,0 +1,78 @@
+package Cloture;
+
+import java.util.Random;
+
+/**
+ * Tests the counts of the region index against sums of the reference layers over random rectangles
+ */
+final class RegionIndexTest {
+
+    private RegionIndexTest() {}
+
+    public static void main(String[] args) {
+        rectanglesMatchReference();
+        outsideRectangleThrows();
+        System.out.println("RegionIndexTest passed");
+    }
+
+    // =========================================
+    //                  TESTS
+    // =========================================
+
+    static void rectanglesMatchReference() {
+        final Random RANDOM = new Random(14);
+
+        for (int i = 0; i < 500; i++) {
+            // small and large maps, so that the tables are stored in every width
+            final int SIZE = (i % 5 == 0) ? 300 : 30;
+            final int[][] MAP = TestMaps.lakes(RANDOM, 3 + RANDOM.nextInt(SIZE), 3 + RANDOM.nextInt(SIZE));
+            final int WIDTH = MAP[0].length;
+            final int HEIGHT = MAP.length;
+            final Reference REFERENCE = new Reference(MAP);
+            final String WHAT = TestMaps.toString(MAP);
+
+            final EdgeMap EDGE_MAP = new EdgeMap(MAP);
+            final RegionIndex INDEX = EDGE_MAP.getRegionIndex();
+
+            // the whole map holds every fence
+            Check.equal(REFERENCE.fenceCount(), INDEX.countFences(0, 0, WIDTH, HEIGHT), WHAT);
+            Check.equal(EDGE_MAP.getFencePerimeter(), INDEX.getFencePerimeter(0, 0, WIDTH, HEIGHT), WHAT);
+
+            for (int r = 0; r < 20; r++) {
+                // a random rectangle, which may be empty
+                final int FROM_X = RANDOM.nextInt(WIDTH + 1), TO_X = FROM_X + RANDOM.nextInt(WIDTH - FROM_X + 1);
+                final int FROM_Y = RANDOM.nextInt(HEIGHT + 1), TO_Y = FROM_Y + RANDOM.nextInt(HEIGHT - FROM_Y + 1);
+
+                Check.equal(sum(REFERENCE.filledMap(), FROM_X, FROM_Y, TO_X, TO_Y),
+                        INDEX.countFilledTiles(FROM_X, FROM_Y, TO_X, TO_Y), WHAT);
+                Check.equal(sum(REFERENCE.outerEdges(), FROM_X, FROM_Y, TO_X, TO_Y),
+                        INDEX.countEdgeTiles(FROM_X, FROM_Y, TO_X, TO_Y), WHAT);
+                Check.equal(sum(REFERENCE.fences(), FROM_X, FROM_Y, TO_X, TO_Y),
+                        INDEX.countFences(FROM_X, FROM_Y, TO_X, TO_Y), WHAT);
+            }
+        }
+    }
+
+    static void outsideRectangleThrows() {
+        final RegionIndex INDEX = new EdgeMap(new int[][] {{1, 1}, {1, 1}}).getRegionIndex();
+
+        try {
+            INDEX.countFences(0, 0, 3, 2);
+        } catch (IndexOutOfBoundsException e) {
+            return;
+        }
+        throw new AssertionError("a rectangle outside the map was counted");
+    }
+
+    // region helper methods
+    private static long sum(int[][] layer, int fromX, int fromY, int toX, int toY) {
+        long sum = 0;
+        for (int y = fromY; y < toY; y++) {
+            for (int x = fromX; x < toX; x++) {
+                sum += layer[y][x];
+            }
+        }
+        return sum;
+    }
+    // endregion
+}
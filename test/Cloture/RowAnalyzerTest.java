@@ -0,0 +1,128 @@
+package Cloture;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.SubmissionPublisher;
+
+/**
+ * Tests the streaming row analyzer against the reference analysis, reading the rows from each of its sources
+ */
+final class RowAnalyzerTest {
+
+    private RowAnalyzerTest() {}
+
+    public static void main(String[] args) throws Exception {
+        randomMapsMatchReference();
+        gridFilesMatchIterator();
+        publishedRowsMatchIterator();
+        System.out.println("RowAnalyzerTest passed");
+    }
+
+    // =========================================
+    //                  TESTS
+    // =========================================
+
+    static void randomMapsMatchReference() {
+        final Random RANDOM = new Random(8);
+
+        for (int i = 0; i < 3000; i++) {
+            final int[][] MAP = (i % 2 == 0)
+                    ? TestMaps.lakes(RANDOM, 3 + RANDOM.nextInt(70), 3 + RANDOM.nextInt(40))
+                    : TestMaps.random(RANDOM, 1 + RANDOM.nextInt(16), 1 + RANDOM.nextInt(16));
+            final Reference REFERENCE = new Reference(MAP);
+            final String WHAT = TestMaps.toString(MAP);
+
+            Check.equal(REFERENCE.perimeter(), Outcome.of(() -> analyse(MAP).getFencePerimeter()), WHAT);
+
+            // only the convex maps have zones to compare
+            if (REFERENCE.error() != null) continue;
+
+            final RowAnalysis ANALYSIS = analyse(MAP);
+            final int[][] ZONES = REFERENCE.zones();
+            final int[][] OUTER_TILES = REFERENCE.outerTiles();
+            Check.equal(REFERENCE.fenceCount(), ANALYSIS.getFenceCount(), WHAT);
+            Check.equal(REFERENCE.zoneCount(), ANALYSIS.getZoneCount(), WHAT);
+            Check.equal(countOuterZones(ZONES), ANALYSIS.getOuterZoneCount(), WHAT);
+            Check.equal(count(MAP, 1), ANALYSIS.getUsedTileCount(), WHAT);
+            Check.equal(count(OUTER_TILES, 1), ANALYSIS.getOuterTileCount(), WHAT);
+            Check.equal(count(MAP, 0) - count(OUTER_TILES, 1), ANALYSIS.getInnerTileCount(), WHAT);
+        }
+    }
+
+    static void gridFilesMatchIterator() throws IOException {
+        final Random RANDOM = new Random(9);
+        final Path FILE = Files.createTempFile("rows", ".grid");
+
+        try {
+            for (int i = 0; i < 100; i++) {
+                final int[][] MAP = TestMaps.lakes(RANDOM, 3 + RANDOM.nextInt(150), 3 + RANDOM.nextInt(20));
+                final String EXPECTED = Outcome.of(() -> analyse(MAP).getFencePerimeter());
+
+                // reads the map back from a file of each tile size
+                for (int bitsPerTile : new int[] {1, 8}) {
+                    GridFile.write(FILE, BitGrid.of(MAP), bitsPerTile);
+                    try (InputStream in = Files.newInputStream(FILE)) {
+                        Check.equal(EXPECTED, String.valueOf(RowAnalyzer.analyse(in).getFencePerimeter()),
+                                TestMaps.toString(MAP));
+                    }
+                }
+            }
+        } finally {
+            Files.delete(FILE);
+        }
+    }
+
+    static void publishedRowsMatchIterator() throws InterruptedException, ExecutionException {
+        final Random RANDOM = new Random(10);
+
+        for (int i = 0; i < 100; i++) {
+            final int[][] MAP = TestMaps.lakes(RANDOM, 3 + RANDOM.nextInt(70), 3 + RANDOM.nextInt(20));
+
+            // closing the publisher completes the analysis
+            final CompletableFuture<RowAnalysis> ANALYSIS;
+            try (SubmissionPublisher<int[]> publisher = new SubmissionPublisher<>()) {
+                ANALYSIS = RowAnalyzer.analyse(publisher);
+                for (int[] row : MAP) {
+                    publisher.submit(row);
+                }
+            }
+            Check.equal(analyse(MAP).getFencePerimeter(), ANALYSIS.get().getFencePerimeter(), TestMaps.toString(MAP));
+        }
+    }
+
+    // region helper methods
+    private static RowAnalysis analyse(int[][] map) {
+        return RowAnalyzer.analyse(Arrays.asList(map).iterator());
+    }
+    private static long count(int[][] layer, int value) {
+        long count = 0;
+        for (int[] row : layer) {
+            for (int tile : row) {
+                if (tile == value) count++;
+            }
+        }
+        return count;
+    }
+    private static int countOuterZones(int[][] zones) {
+        final int HEIGHT = zones.length;
+        final int WIDTH = zones[0].length;
+
+        Set<Integer> outerZones = new HashSet<>();
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                final boolean IS_BORDER = (x == 0 || y == 0 || x == WIDTH - 1 || y == HEIGHT - 1);
+                if (IS_BORDER && zones[y][x] != 0) outerZones.add(zones[y][x]);
+            }
+        }
+        return outerZones.size();
+    }
+    // endregion
+}
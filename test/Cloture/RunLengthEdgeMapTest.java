@@ -0,0 +1,69 @@
+package Cloture;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Tests the run-length grid conversions, and the run-length edge map against the reference analysis
+ */
+final class RunLengthEdgeMapTest {
+
+    private RunLengthEdgeMapTest() {}
+
+    public static void main(String[] args) {
+        runLengthsRoundTrip();
+        randomMapsMatchReference();
+        System.out.println("RunLengthEdgeMapTest passed");
+    }
+
+    // =========================================
+    //                  TESTS
+    // =========================================
+
+    static void runLengthsRoundTrip() {
+        final Random RANDOM = new Random(11);
+
+        for (int i = 0; i < 1000; i++) {
+            final int[][] MAP = TestMaps.random(RANDOM, 1 + RANDOM.nextInt(150), 1 + RANDOM.nextInt(10));
+            final RunLengthGrid GRID = RunLengthGrid.encode(MAP);
+            final String WHAT = TestMaps.toString(MAP);
+
+            Check.isTrue(Arrays.deepEquals(MAP, GRID.toArray()), WHAT);
+            Check.isTrue(Arrays.deepEquals(MAP, Outcome.tiles(GRID)), WHAT);
+            Check.isTrue(Arrays.deepEquals(MAP, RunLengthGrid.of(MAP[0].length, GRID.toRunLengths()).toArray()), WHAT);
+            Check.isTrue(Arrays.deepEquals(MAP, RunLengthGrid.encode(BitGrid.of(MAP)).toArray()), WHAT);
+
+            // the words are those of the packed map
+            final BitGrid PACKED = BitGrid.of(MAP);
+            for (int y = 0; y < MAP.length; y++) {
+                for (int w = 0; w < PACKED.getStride(); w++) {
+                    Check.equal(PACKED.getWord(y, w), GRID.getWord(y, w), WHAT);
+                }
+            }
+        }
+    }
+
+    static void randomMapsMatchReference() {
+        final Random RANDOM = new Random(12);
+
+        for (int i = 0; i < 3000; i++) {
+            final int[][] MAP = (i % 2 == 0)
+                    ? TestMaps.lakes(RANDOM, 3 + RANDOM.nextInt(100), 3 + RANDOM.nextInt(20))
+                    : TestMaps.random(RANDOM, 1 + RANDOM.nextInt(16), 1 + RANDOM.nextInt(16));
+            final Reference REFERENCE = new Reference(MAP);
+            final String WHAT = TestMaps.toString(MAP);
+
+            final RunLengthEdgeMap EDGE_MAP = new RunLengthEdgeMap(MAP);
+            Check.equal(REFERENCE.perimeter(), Outcome.of(EDGE_MAP::getFencePerimeter), WHAT);
+
+            // only the convex maps have layers to compare
+            if (REFERENCE.error() != null) continue;
+
+            Check.equal(REFERENCE.zoneCount(), EDGE_MAP.getZoneCount(), WHAT);
+            Check.equal(REFERENCE.fenceCount(), EDGE_MAP.getFenceCount(), WHAT);
+            Check.isTrue(Arrays.deepEquals(REFERENCE.outerTiles(), EDGE_MAP.getOuterTiles().toArray()), WHAT);
+            Check.isTrue(Arrays.deepEquals(REFERENCE.filledMap(), EDGE_MAP.getFilledMap().toArray()), WHAT);
+            Check.isTrue(Arrays.deepEquals(REFERENCE.outerEdges(), EDGE_MAP.getOuterEdges().toArray()), WHAT);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package Cloture;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Generates the random maps of the tests
+ */
+final class TestMaps {
+
+    private TestMaps() {}
+
+    /**
+     * Generates a random map, mostly made of used tiles so that many of them are convex
+     * @param random the random generator
+     * @param width the map's width
+     * @param height the map's height
+     * @return a map with 1 for every used tile
+     */
+    static int[][] random(Random random, int width, int height) {
+        // the share of used tiles, from half the map to all of it
+        final double FILL = 0.5 + random.nextDouble() * 0.5;
+
+        int[][] map = new int[height][width];
+        for (int[] row : map) {
+            for (int x = 0; x < width; x++) {
+                row[x] = (random.nextDouble() < FILL) ? 1 : 0;
+            }
+        }
+        return map;
+    }
+
+    /**
+     * Generates a random map framed by used tiles, whose zones are all lakes so that it is always convex
+     * @param random the random generator
+     * @param width the map's width
+     * @param height the map's height
+     * @return a map with 1 for every used tile
+     */
+    static int[][] lakes(Random random, int width, int height) {
+        int[][] map = random(random, width, height);
+        for (int y = 0; y < height; y++) {
+            map[y][0] = map[y][width - 1] = 1;
+        }
+        Arrays.fill(map[0], 1);
+        Arrays.fill(map[height - 1], 1);
+        return map;
+    }
+
+    /**
+     * Formats a map for the error messages
+     * @param map the map
+     * @return the rows of the map, one per line
+     */
+    static String toString(int[][] map) {
+        StringBuilder text = new StringBuilder("\n");
+        for (int[] row : map) {
+            for (int tile : row) {
+                text.append(GridRenderer.toCharacter(tile));
+            }
+            text.append('\n');
+        }
+        return text.toString();
+    }
+
+    /**
+     * Compares the zones of two layers, any value below 2 being a used tile
+     * @param expected the expected zones, with 0 for every used tile
+     * @param actual the zones to compare
+     * @return whether every tile has the same zone in both layers
+     */
+    static boolean sameZones(int[][] expected, int[][] actual) {
+        for (int y = 0; y < expected.length; y++) {
+            for (int x = 0; x < expected[y].length; x++) {
+                final int ZONE = (actual[y][x] < 2) ? 0 : actual[y][x];
+                if (expected[y][x] != ZONE) return false;
+            }
+        }
+        return true;
+    }
+}
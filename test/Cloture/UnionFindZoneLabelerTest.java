@@ -0,0 +1,66 @@
+package Cloture;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Tests the union-find zone labeler against the reference analysis
+ */
+final class UnionFindZoneLabelerTest {
+
+    // a map whose left and right lakes merge only on their last row, after the middle lake was met
+    private static final int[][] MERGED_LATE = {
+            {1,1,1,1,1,1,1},
+            {1,0,1,0,1,0,1},
+            {1,0,1,0,1,0,1},
+            {1,0,1,1,1,0,1},
+            {1,0,0,0,0,0,1},
+            {1,1,1,1,1,1,1},
+    };
+
+    private UnionFindZoneLabelerTest() {}
+
+    public static void main(String[] args) {
+        zonesMergedLate();
+        randomMapsMatchReference();
+        System.out.println("UnionFindZoneLabelerTest passed");
+    }
+
+    // =========================================
+    //                  TESTS
+    // =========================================
+
+    static void zonesMergedLate() {
+        final ZoneGrid ZONES = new UnionFindZoneLabeler().label(BitGrid.of(MERGED_LATE));
+
+        // the left and right lakes are a single zone, numbered before the middle lake
+        Check.equal(3, ZONES.getZoneCount(), "zone count");
+        Check.equal(2, ZONES.get(1, 1), "left lake");
+        Check.equal(2, ZONES.get(5, 1), "right lake");
+        Check.equal(3, ZONES.get(3, 1), "middle lake");
+        Check.isTrue(TestMaps.sameZones(new Reference(MERGED_LATE).zones(), Outcome.tiles(ZONES)), "zones");
+    }
+
+    static void randomMapsMatchReference() {
+        final Random RANDOM = new Random(3);
+        final ZoneLabeler LABELER = new UnionFindZoneLabeler();
+
+        for (int i = 0; i < 3000; i++) {
+            final int[][] MAP = TestMaps.random(RANDOM, 1 + RANDOM.nextInt(80), 1 + RANDOM.nextInt(16));
+            final Reference REFERENCE = new Reference(MAP);
+            final String WHAT = TestMaps.toString(MAP);
+
+            // both passes throw the same error as the reference, at the same position
+            Check.equal(REFERENCE.error(), Outcome.error(() -> LABELER.labelOuterTiles(BitGrid.of(MAP))), WHAT);
+            Check.equal(REFERENCE.error(), Outcome.error(() -> LABELER.label(BitGrid.of(MAP))), WHAT);
+
+            // only the convex maps have layers to compare
+            if (REFERENCE.error() != null) continue;
+
+            final ZoneGrid ZONES = LABELER.label(BitGrid.of(MAP));
+            Check.equal(REFERENCE.zoneCount(), ZONES.getZoneCount(), WHAT);
+            Check.isTrue(TestMaps.sameZones(REFERENCE.zones(), Outcome.tiles(ZONES)), WHAT);
+            Check.isTrue(Arrays.deepEquals(REFERENCE.outerTiles(), Outcome.tiles(LABELER.labelOuterTiles(BitGrid.of(MAP)))), WHAT);
+        }
+    }
+}